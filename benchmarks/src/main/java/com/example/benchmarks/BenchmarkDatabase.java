@@ -0,0 +1,268 @@
+package com.example.benchmarks;
+
+import io.github.cdimascio.dotenv.Dotenv;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+
+/**
+ * Creates and fills the embedded benchmark database.
+ * <p>
+ * The schema follows smart_city_db.sql, written so H2's MySQL mode accepts it. The MySQL
+ * triggers that maintain the *_latest tables are not available in H2, so the latest rows are
+ * inserted while the readings are generated. The data comes from a fixed seed, so every run
+ * measures the same rows.
+ */
+public final class BenchmarkDatabase {
+
+    static final String[] AIR_QUALITY_LOCATIONS = {
+        "Downtown", "Industrial Zone", "Residential Area", "City Park",
+        "Shopping District", "University Campus", "Suburban Area", "Highway Junction"
+    };
+    static final String[] NOISE_LOCATIONS = {
+        "Main Street", "Hospital Zone", "School Zone", "Entertainment District",
+        "Residential Complex", "Industrial Park", "Airport Vicinity", "Railway Station"
+    };
+    private static final String[] ZONE_TYPES = {"Residential", "Commercial", "Industrial", "Silence Zone"};
+    private static final String[] QUALITY_INDEXES = {"Good", "Moderate", "Poor", "Hazardous"};
+    private static final String[] EMERGENCY_STATUSES = {"PENDING", "DISPATCHED", "IN_PROGRESS", "RESOLVED"};
+
+    // Readings are spread over this many days back from now
+    private static final int READING_DAYS = 30;
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String[] SCHEMA = {
+        "DROP ALL OBJECTS",
+        "CREATE ALIAS DATE_FORMAT FOR 'com.example.benchmarks.BenchmarkDatabase.dateFormat'",
+        "CREATE TABLE power_readings (id INT AUTO_INCREMENT PRIMARY KEY, reading_date DATE NOT NULL, "
+                + "power_consumed DOUBLE NOT NULL, fault_detected BOOLEAN NOT NULL, "
+                + "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, INDEX idx_reading_date (reading_date))",
+        "CREATE TABLE power_stats (`year_month` CHAR(7) NOT NULL PRIMARY KEY, `total_consumption` DOUBLE NOT NULL, "
+                + "`fault_count` INT NOT NULL, `days_recorded` INT NOT NULL, `average_consumption` DOUBLE NOT NULL, "
+                + "`last_updated` TIMESTAMP DEFAULT CURRENT_TIMESTAMP)",
+        "CREATE TABLE junction_state (junction_id VARCHAR(50) PRIMARY KEY, lane_1_vehicles INT NOT NULL DEFAULT 0, "
+                + "lane_2_vehicles INT NOT NULL DEFAULT 0, lane_3_vehicles INT NOT NULL DEFAULT 0, "
+                + "lane_4_vehicles INT NOT NULL DEFAULT 0, green_lane_id INT NOT NULL DEFAULT 1, "
+                + "last_updated TIMESTAMP DEFAULT CURRENT_TIMESTAMP)",
+        "CREATE TABLE parking_spots (spot_id VARCHAR(50) PRIMARY KEY, location_description VARCHAR(255), "
+                + "lot_id VARCHAR(50), zone VARCHAR(50), is_occupied BOOLEAN NOT NULL DEFAULT FALSE, "
+                + "last_updated TIMESTAMP DEFAULT CURRENT_TIMESTAMP, INDEX idx_parking_last_updated (last_updated))",
+        "CREATE TABLE air_quality_readings (id INT AUTO_INCREMENT PRIMARY KEY, timestamp DATETIME NOT NULL, "
+                + "location VARCHAR(100) NOT NULL, pm25_level DOUBLE NOT NULL, pm10_level DOUBLE NOT NULL, "
+                + "ozone_level DOUBLE NOT NULL, quality_index VARCHAR(20) NOT NULL, "
+                + "INDEX idx_aq_location (location), INDEX idx_aq_timestamp (timestamp))",
+        "CREATE TABLE noise_level_readings (id INT AUTO_INCREMENT PRIMARY KEY, timestamp DATETIME NOT NULL, "
+                + "location VARCHAR(100) NOT NULL, decibel_level DOUBLE NOT NULL, zone_type VARCHAR(50) NOT NULL, "
+                + "exceeds_limit BOOLEAN NOT NULL, INDEX idx_noise_location (location), INDEX idx_noise_timestamp (timestamp))",
+        "CREATE TABLE air_quality_latest (location VARCHAR(100) NOT NULL PRIMARY KEY, reading_id INT NOT NULL, "
+                + "timestamp DATETIME NOT NULL, pm25_level DOUBLE NOT NULL, pm10_level DOUBLE NOT NULL, "
+                + "ozone_level DOUBLE NOT NULL, quality_index VARCHAR(20) NOT NULL)",
+        "CREATE TABLE noise_level_latest (location VARCHAR(100) NOT NULL PRIMARY KEY, reading_id INT NOT NULL, "
+                + "timestamp DATETIME NOT NULL, decibel_level DOUBLE NOT NULL, zone_type VARCHAR(50) NOT NULL, "
+                + "exceeds_limit BOOLEAN NOT NULL)",
+        "CREATE TABLE emergencies (id BIGINT AUTO_INCREMENT PRIMARY KEY, type VARCHAR(100) NOT NULL, "
+                + "location VARCHAR(255) NOT NULL, description TEXT NOT NULL, severity INT NOT NULL, "
+                + "timestamp DATETIME NOT NULL, status VARCHAR(20) NOT NULL DEFAULT 'PENDING', "
+                + "INDEX idx_status (status), INDEX idx_severity (severity), INDEX idx_active_order (severity, timestamp, id))",
+        "CREATE TABLE weather_alerts (id BIGINT AUTO_INCREMENT PRIMARY KEY, alert_type VARCHAR(100) NOT NULL, "
+                + "description TEXT NOT NULL, severity INT NOT NULL, timestamp DATETIME NOT NULL, "
+                + "active BOOLEAN NOT NULL DEFAULT TRUE, INDEX idx_active (active), INDEX idx_weather_severity (severity))"
+    };
+
+    private BenchmarkDatabase() {
+    }
+
+    /**
+     * Recreates the schema and inserts the requested number of rows per table.
+     */
+    public static void seed(int junctions, int parkingSpots, int powerDays, int environmentalReadings,
+                            int emergencies, long seed) throws SQLException {
+        Dotenv dotenv = Dotenv.configure().ignoreIfMissing().load();
+        Random random = new Random(seed);
+        try (Connection conn = DriverManager.getConnection(
+                dotenv.get("DB_URL"), dotenv.get("DB_USER"), dotenv.get("DB_PASSWORD"))) {
+            try (Statement stmt = conn.createStatement()) {
+                for (String sql : SCHEMA) {
+                    stmt.execute(sql);
+                }
+            }
+            conn.setAutoCommit(false);
+            seedJunctions(conn, junctions, random);
+            seedParkingSpots(conn, parkingSpots, random);
+            seedPowerReadings(conn, powerDays, random);
+            seedAirQuality(conn, environmentalReadings, random);
+            seedNoiseLevels(conn, environmentalReadings, random);
+            seedEmergencies(conn, emergencies, random);
+            conn.commit();
+        }
+    }
+
+    /**
+     * MySQL's DATE_FORMAT for the specifiers the services use, registered as an H2 alias.
+     */
+    public static String dateFormat(Date date, String mysqlPattern) {
+        if (date == null || mysqlPattern == null) {
+            return null;
+        }
+        String pattern = mysqlPattern
+                .replace("%Y", "yyyy").replace("%m", "MM").replace("%d", "dd")
+                .replace("%H", "HH").replace("%i", "mm").replace("%s", "ss");
+        return date.toLocalDate().format(DateTimeFormatter.ofPattern(pattern));
+    }
+
+    private static void seedJunctions(Connection conn, int count, Random random) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("INSERT INTO junction_state (junction_id, lane_1_vehicles, "
+                + "lane_2_vehicles, lane_3_vehicles, lane_4_vehicles, green_lane_id) VALUES (?, ?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < count; i++) {
+                pstmt.setString(1, String.format("J-%06d", i));
+                for (int lane = 0; lane < 4; lane++) {
+                    pstmt.setInt(lane + 2, random.nextInt(31));
+                }
+                pstmt.setInt(6, random.nextInt(4) + 1);
+                addToBatch(pstmt, i);
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    private static void seedParkingSpots(Connection conn, int count, Random random) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("INSERT INTO parking_spots (spot_id, location_description, "
+                + "lot_id, zone, is_occupied) VALUES (?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < count; i++) {
+                int lot = i / 500;
+                pstmt.setString(1, String.format("P-%07d", i));
+                pstmt.setString(2, "Lot " + lot + ", Spot " + (i % 500));
+                pstmt.setString(3, "LOT-" + lot);
+                pstmt.setString(4, "Zone " + (lot % 8));
+                pstmt.setBoolean(5, random.nextBoolean());
+                addToBatch(pstmt, i);
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    private static void seedPowerReadings(Connection conn, int days, Random random) throws SQLException {
+        LocalDate today = LocalDate.now();
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "INSERT INTO power_readings (reading_date, power_consumed, fault_detected) VALUES (?, ?, ?)")) {
+            for (int i = 0; i < days; i++) {
+                pstmt.setDate(1, Date.valueOf(today.minusDays(days - 1 - i)));
+                pstmt.setDouble(2, 800 + random.nextDouble() * 400);
+                pstmt.setBoolean(3, random.nextInt(20) == 0);
+                addToBatch(pstmt, i);
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    private static void seedAirQuality(Connection conn, int count, Random random) throws SQLException {
+        LocalDateTime start = LocalDateTime.now().minusDays(READING_DAYS);
+        long stepMillis = Math.max(1, READING_DAYS * 86_400_000L / Math.max(1, count));
+        try (PreparedStatement pstmt = conn.prepareStatement("INSERT INTO air_quality_readings (id, timestamp, location, "
+                + "pm25_level, pm10_level, ozone_level, quality_index) VALUES (?, ?, ?, ?, ?, ?, ?)");
+             PreparedStatement latest = conn.prepareStatement("MERGE INTO air_quality_latest (location, reading_id, "
+                + "timestamp, pm25_level, pm10_level, ozone_level, quality_index) KEY (location) VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < count; i++) {
+                int id = i + 1;
+                String location = AIR_QUALITY_LOCATIONS[i % AIR_QUALITY_LOCATIONS.length];
+                Timestamp timestamp = Timestamp.valueOf(start.plusNanos(stepMillis * i * 1_000_000L));
+                double pm25 = 5 + random.nextDouble() * 40;
+                double pm10 = 10 + random.nextDouble() * 150;
+                double ozone = 10 + random.nextDouble() * 70;
+                String quality = QUALITY_INDEXES[random.nextInt(QUALITY_INDEXES.length)];
+
+                pstmt.setInt(1, id);
+                pstmt.setTimestamp(2, timestamp);
+                pstmt.setString(3, location);
+                pstmt.setDouble(4, pm25);
+                pstmt.setDouble(5, pm10);
+                pstmt.setDouble(6, ozone);
+                pstmt.setString(7, quality);
+                addToBatch(pstmt, i);
+
+                // Readings are generated oldest first, so the last row per location is its latest
+                if (i >= count - AIR_QUALITY_LOCATIONS.length) {
+                    latest.setString(1, location);
+                    latest.setInt(2, id);
+                    latest.setTimestamp(3, timestamp);
+                    latest.setDouble(4, pm25);
+                    latest.setDouble(5, pm10);
+                    latest.setDouble(6, ozone);
+                    latest.setString(7, quality);
+                    latest.executeUpdate();
+                }
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    private static void seedNoiseLevels(Connection conn, int count, Random random) throws SQLException {
+        LocalDateTime start = LocalDateTime.now().minusDays(READING_DAYS);
+        long stepMillis = Math.max(1, READING_DAYS * 86_400_000L / Math.max(1, count));
+        try (PreparedStatement pstmt = conn.prepareStatement("INSERT INTO noise_level_readings (id, timestamp, location, "
+                + "decibel_level, zone_type, exceeds_limit) VALUES (?, ?, ?, ?, ?, ?)");
+             PreparedStatement latest = conn.prepareStatement("MERGE INTO noise_level_latest (location, reading_id, "
+                + "timestamp, decibel_level, zone_type, exceeds_limit) KEY (location) VALUES (?, ?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < count; i++) {
+                int locIndex = i % NOISE_LOCATIONS.length;
+                int id = i + 1;
+                Timestamp timestamp = Timestamp.valueOf(start.plusNanos(stepMillis * i * 1_000_000L));
+                double decibels = 35 + random.nextDouble() * 50;
+                String zoneType = ZONE_TYPES[locIndex % ZONE_TYPES.length];
+                boolean exceeds = decibels > 65;
+
+                pstmt.setInt(1, id);
+                pstmt.setTimestamp(2, timestamp);
+                pstmt.setString(3, NOISE_LOCATIONS[locIndex]);
+                pstmt.setDouble(4, decibels);
+                pstmt.setString(5, zoneType);
+                pstmt.setBoolean(6, exceeds);
+                addToBatch(pstmt, i);
+
+                if (i >= count - NOISE_LOCATIONS.length) {
+                    latest.setString(1, NOISE_LOCATIONS[locIndex]);
+                    latest.setInt(2, id);
+                    latest.setTimestamp(3, timestamp);
+                    latest.setDouble(4, decibels);
+                    latest.setString(5, zoneType);
+                    latest.setBoolean(6, exceeds);
+                    latest.executeUpdate();
+                }
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    private static void seedEmergencies(Connection conn, int count, Random random) throws SQLException {
+        LocalDateTime start = LocalDateTime.now().minusDays(READING_DAYS);
+        try (PreparedStatement pstmt = conn.prepareStatement("INSERT INTO emergencies (type, location, description, "
+                + "severity, timestamp, status) VALUES (?, ?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < count; i++) {
+                pstmt.setString(1, i % 3 == 0 ? "Fire" : i % 3 == 1 ? "Medical" : "Accident");
+                pstmt.setString(2, NOISE_LOCATIONS[random.nextInt(NOISE_LOCATIONS.length)]);
+                pstmt.setString(3, "Benchmark emergency " + i);
+                pstmt.setInt(4, random.nextInt(5) + 1);
+                pstmt.setTimestamp(5, Timestamp.valueOf(start.plusSeconds(random.nextInt(READING_DAYS * 86_400))));
+                pstmt.setString(6, EMERGENCY_STATUSES[random.nextInt(EMERGENCY_STATUSES.length)]);
+                addToBatch(pstmt, i);
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    private static void addToBatch(PreparedStatement pstmt, int index) throws SQLException {
+        pstmt.addBatch();
+        if ((index + 1) % BATCH_SIZE == 0) {
+            pstmt.executeBatch();
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.benchmarks;
+
+import com.example.model.ConnectionPool;
+import com.example.model.Emergency;
+import com.example.model.EnvironmentalService;
+import com.example.model.JunctionState;
+import com.example.model.ParkingSpot;
+import com.example.model.SafetyService;
+import com.example.model.ServiceExecutor;
+import com.example.model.TrafficService;
+import com.example.model.UtilityService;
+import com.example.model.EnvironmentalService.AirQualityReading;
+import com.example.model.EnvironmentalService.NoiseLevelReading;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-call latency of the model service methods the views use, against the seeded H2 database.
+ * Each parameter combination runs in its own fork, so the services, the pool and the database
+ * are set up once per combination. Add {@code -prof gc} to the command line for the allocation
+ * rate per call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ServiceBenchmarks {
+
+    private static final int PAGE_SIZE = 50;
+
+    @Param({"1000"})
+    public int junctions;
+
+    @Param({"10000"})
+    public int parkingSpots;
+
+    @Param({"730"})
+    public int powerDays;
+
+    @Param({"100000"})
+    public int environmentalReadings;
+
+    @Param({"10000"})
+    public int emergencies;
+
+    @Param({"42"})
+    public long seed;
+
+    private TrafficService trafficService;
+    private UtilityService utilityService;
+    private EnvironmentalService environmentalService;
+    private SafetyService safetyService;
+
+    private YearMonth currentMonth;
+    private String middleSpotId;
+    private Emergency secondPageAfter;
+    private int middleEmergencyOffset;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        BenchmarkDatabase.seed(junctions, parkingSpots, powerDays, environmentalReadings, emergencies, seed);
+
+        trafficService = TrafficService.getInstance();
+        utilityService = UtilityService.getInstance();
+        environmentalService = EnvironmentalService.getInstance();
+        safetyService = SafetyService.getInstance();
+        if (!safetyService.verifyDatabaseTables()) {
+            throw new IllegalStateException("Safety tables missing from the benchmark database");
+        }
+
+        currentMonth = YearMonth.now();
+        middleSpotId = String.format("P-%07d", parkingSpots / 2);
+        List<Emergency> firstPage = safetyService.getActiveEmergenciesPage(null, PAGE_SIZE);
+        secondPageAfter = firstPage.isEmpty() ? null : firstPage.get(firstPage.size() - 1);
+        middleEmergencyOffset = safetyService.countActiveEmergencies() / 2;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ConnectionPool.shutdownInstance();
+        ServiceExecutor.shutdown();
+    }
+
+    // --- Traffic ---
+
+    @Benchmark
+    public Map<String, JunctionState> latestJunctionStates() {
+        return trafficService.getLatestJunctionStates();
+    }
+
+    @Benchmark
+    public List<ParkingSpot> allParkingSpots() {
+        return trafficService.getAllParkingSpots();
+    }
+
+    @Benchmark
+    public List<ParkingSpot> parkingSpotsPage() {
+        return trafficService.getParkingSpotsPage(middleSpotId, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<ParkingSpot> parkingSpotsAtOffset() {
+        return trafficService.getParkingSpotsAt(parkingSpots / 2, PAGE_SIZE);
+    }
+
+    // --- Utility ---
+
+    @Benchmark
+    public String monthlyReport() {
+        return utilityService.generateMonthlyReport(currentMonth);
+    }
+
+    // --- Environmental ---
+
+    @Benchmark
+    public Map<String, AirQualityReading> latestAirQualityReadings() {
+        return environmentalService.getLatestAirQualityReadings();
+    }
+
+    @Benchmark
+    public List<NoiseLevelReading> latestNoiseLevelReadings() {
+        return environmentalService.getLatestNoiseLevelReadings();
+    }
+
+    @Benchmark
+    public List<AirQualityReading> airQualityAlerts() {
+        return environmentalService.getAirQualityAlerts(7);
+    }
+
+    @Benchmark
+    public List<NoiseLevelReading> noiseViolations() {
+        return environmentalService.getNoiseViolations(7);
+    }
+
+    // --- Safety ---
+
+    @Benchmark
+    public List<Emergency> activeEmergenciesFirstPage() {
+        return safetyService.getActiveEmergenciesPage(null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Emergency> activeEmergenciesNextPage() {
+        return safetyService.getActiveEmergenciesPage(secondPageAfter, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Emergency> activeEmergenciesAtOffset() {
+        return safetyService.getActiveEmergenciesAt(middleEmergencyOffset, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public int countActiveEmergencies() {
+        return safetyService.countActiveEmergencies();
+    }
+}
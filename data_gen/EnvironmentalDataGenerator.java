@@ -1,11 +1,22 @@
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import java.util.Scanner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class EnvironmentalDataGenerator {
     // Database connection parameters
@@ -13,6 +24,11 @@ public class EnvironmentalDataGenerator {
     private static String DB_USER = "root";
     private static String DB_PASSWORD = "";
 
+    private static final String INSERT_AIR_QUALITY_SQL = "INSERT INTO air_quality_readings (timestamp, location, pm25_level, pm10_level, ozone_level, quality_index) " +
+                                                         "VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_NOISE_LEVEL_SQL = "INSERT INTO noise_level_readings (timestamp, location, decibel_level, zone_type, exceeds_limit) " +
+                                                         "VALUES (?, ?, ?, ?, ?)";
+
     // Air quality locations
     private static final String[] AIR_QUALITY_LOCATIONS = {
         "Downtown", "Industrial Zone", "Residential Area", "City Park", 
@@ -39,6 +55,11 @@ public class EnvironmentalDataGenerator {
     };
 
     public static void main(String[] args) {
+        if (args.length > 0) {
+            runBackfill(args);
+            return;
+        }
+
         Scanner scanner = new Scanner(System.in);
         
         // Get database credentials
@@ -92,46 +113,19 @@ public class EnvironmentalDataGenerator {
         int completedReadings = 0;
         
         try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD)) {
-            String sql = "INSERT INTO air_quality_readings (timestamp, location, pm25_level, pm10_level, ozone_level, quality_index) " +
-                         "VALUES (?, ?, ?, ?, ?, ?)";
-            
-            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            try (PreparedStatement pstmt = conn.prepareStatement(INSERT_AIR_QUALITY_SQL)) {
                 // Generate data for each day
                 for (int day = 0; day < days; day++) {
                     LocalDateTime date = LocalDateTime.now().minusDays(days - day);
                     
                     // Generate readings for each location
                     for (String location : AIR_QUALITY_LOCATIONS) {
-                        // Base values for this location (some locations are cleaner than others)
-                        double basePm25 = getBaseValue(location, 10, 30);
-                        double basePm10 = getBaseValue(location, 20, 50);
-                        double baseOzone = getBaseValue(location, 30, 70);
-                        
                         // Generate readings throughout the day
                         for (int reading = 0; reading < readingsPerDay; reading++) {
                             // Add some hours to spread readings throughout the day
                             LocalDateTime timestamp = date.plusHours(reading * (24 / readingsPerDay));
                             
-                            // Generate values with some randomness
-                            double pm25 = basePm25 + (random.nextDouble() * 15) - 7.5;
-                            double pm10 = basePm10 + (random.nextDouble() * 25) - 12.5;
-                            double ozone = baseOzone + (random.nextDouble() * 20) - 10;
-                            
-                            // Ensure values are positive
-                            pm25 = Math.max(1.0, pm25);
-                            pm10 = Math.max(2.0, pm10);
-                            ozone = Math.max(5.0, ozone);
-                            
-                            // Determine quality index based on values
-                            String qualityIndex = determineAirQualityIndex(pm25, pm10, ozone);
-                            
-                            // Set parameters and execute
-                            pstmt.setObject(1, timestamp);
-                            pstmt.setString(2, location);
-                            pstmt.setDouble(3, pm25);
-                            pstmt.setDouble(4, pm10);
-                            pstmt.setDouble(5, ozone);
-                            pstmt.setString(6, qualityIndex);
+                            bindAirQualityReading(pstmt, location, timestamp, random);
                             pstmt.executeUpdate();
                             
                             completedReadings++;
@@ -158,47 +152,19 @@ public class EnvironmentalDataGenerator {
         int completedReadings = 0;
         
         try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD)) {
-            String sql = "INSERT INTO noise_level_readings (timestamp, location, decibel_level, zone_type, exceeds_limit) " +
-                         "VALUES (?, ?, ?, ?, ?)";
-            
-            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            try (PreparedStatement pstmt = conn.prepareStatement(INSERT_NOISE_LEVEL_SQL)) {
                 // Generate data for each day
                 for (int day = 0; day < days; day++) {
                     LocalDateTime date = LocalDateTime.now().minusDays(days - day);
                     
                     // Generate readings for each location
                     for (int locIndex = 0; locIndex < NOISE_LOCATIONS.length; locIndex++) {
-                        String location = NOISE_LOCATIONS[locIndex];
-                        
-                        // Assign a zone type to this location
-                        String zoneType = ZONE_TYPES[locIndex % ZONE_TYPES.length];
-                        double zoneLimit = ZONE_LIMITS[locIndex % ZONE_TYPES.length];
-                        
-                        // Base noise level for this location
-                        double baseNoiseLevel = getBaseNoiseLevel(location, zoneType);
-                        
                         // Generate readings throughout the day
                         for (int reading = 0; reading < readingsPerDay; reading++) {
                             // Add some hours to spread readings throughout the day
                             LocalDateTime timestamp = date.plusHours(reading * (24 / readingsPerDay));
                             
-                            // Generate noise level with some randomness
-                            // More variation during day, less at night
-                            double hourFactor = timestamp.getHour() >= 8 && timestamp.getHour() <= 20 ? 1.2 : 0.7;
-                            double noiseLevel = baseNoiseLevel * hourFactor + (random.nextDouble() * 15) - 7.5;
-                            
-                            // Ensure value is positive
-                            noiseLevel = Math.max(30.0, noiseLevel);
-                            
-                            // Determine if it exceeds the limit
-                            boolean exceedsLimit = noiseLevel > zoneLimit;
-                            
-                            // Set parameters and execute
-                            pstmt.setObject(1, timestamp);
-                            pstmt.setString(2, location);
-                            pstmt.setDouble(3, noiseLevel);
-                            pstmt.setString(4, zoneType);
-                            pstmt.setBoolean(5, exceedsLimit);
+                            bindNoiseLevelReading(pstmt, locIndex, timestamp, random);
                             pstmt.executeUpdate();
                             
                             completedReadings++;
@@ -216,6 +182,269 @@ public class EnvironmentalDataGenerator {
         System.out.println("Noise level data generation completed!");
     }
     
+    // Sets the parameters of INSERT_AIR_QUALITY_SQL for one generated reading
+    private static void bindAirQualityReading(PreparedStatement pstmt, String location, LocalDateTime timestamp,
+                                              Random random) throws SQLException {
+        // Base values for this location (some locations are cleaner than others)
+        double basePm25 = getBaseValue(location, 10, 30);
+        double basePm10 = getBaseValue(location, 20, 50);
+        double baseOzone = getBaseValue(location, 30, 70);
+
+        // Generate values with some randomness
+        double pm25 = basePm25 + (random.nextDouble() * 15) - 7.5;
+        double pm10 = basePm10 + (random.nextDouble() * 25) - 12.5;
+        double ozone = baseOzone + (random.nextDouble() * 20) - 10;
+
+        // Ensure values are positive
+        pm25 = Math.max(1.0, pm25);
+        pm10 = Math.max(2.0, pm10);
+        ozone = Math.max(5.0, ozone);
+
+        pstmt.setObject(1, timestamp);
+        pstmt.setString(2, location);
+        pstmt.setDouble(3, pm25);
+        pstmt.setDouble(4, pm10);
+        pstmt.setDouble(5, ozone);
+        pstmt.setString(6, determineAirQualityIndex(pm25, pm10, ozone));
+    }
+
+    // Sets the parameters of INSERT_NOISE_LEVEL_SQL for one generated reading
+    private static void bindNoiseLevelReading(PreparedStatement pstmt, int locIndex, LocalDateTime timestamp,
+                                              Random random) throws SQLException {
+        String location = NOISE_LOCATIONS[locIndex];
+
+        // Assign a zone type to this location
+        String zoneType = ZONE_TYPES[locIndex % ZONE_TYPES.length];
+        double zoneLimit = ZONE_LIMITS[locIndex % ZONE_TYPES.length];
+
+        // Generate noise level with some randomness
+        // More variation during day, less at night
+        double hourFactor = timestamp.getHour() >= 8 && timestamp.getHour() <= 20 ? 1.2 : 0.7;
+        double noiseLevel = getBaseNoiseLevel(location, zoneType) * hourFactor + (random.nextDouble() * 15) - 7.5;
+
+        // Ensure value is positive
+        noiseLevel = Math.max(30.0, noiseLevel);
+
+        pstmt.setObject(1, timestamp);
+        pstmt.setString(2, location);
+        pstmt.setDouble(3, noiseLevel);
+        pstmt.setString(4, zoneType);
+        pstmt.setBoolean(5, noiseLevel > zoneLimit);
+    }
+
+    // --- Backfill mode ---
+    //
+    // Non-interactive bulk load for load-testing datasets, e.g.
+    //   java EnvironmentalDataGenerator --user root --password secret --days 365 --readings-per-day 17000
+    // Every location is written by its own worker with its own connection. Rows are sent as
+    // JDBC batches (rewritten into multi-row INSERTs by the driver) and committed in chunks,
+    // so neither autocommit nor one huge transaction slows the load down.
+
+    private static void runBackfill(String[] args) {
+        Map<String, String> options = parseOptions(args);
+        if (options.containsKey("help")) {
+            printBackfillUsage();
+            return;
+        }
+
+        String url = options.getOrDefault("url", DB_URL);
+        DB_USER = options.getOrDefault("user", DB_USER);
+        DB_PASSWORD = options.getOrDefault("password", DB_PASSWORD);
+        int days = Integer.parseInt(options.getOrDefault("days", "365"));
+        int readingsPerDay = Integer.parseInt(options.getOrDefault("readings-per-day", "96"));
+        int batchSize = Integer.parseInt(options.getOrDefault("batch-size", "1000"));
+        int chunkSize = Integer.parseInt(options.getOrDefault("chunk-size", "50000"));
+        String tables = options.getOrDefault("tables", "all");
+        long seed = Long.parseLong(options.getOrDefault("seed", String.valueOf(System.nanoTime())));
+
+        List<Worker> workers = new ArrayList<>();
+        if (!tables.equals("noise")) {
+            for (String location : AIR_QUALITY_LOCATIONS) {
+                workers.add(new Worker("air:" + location, INSERT_AIR_QUALITY_SQL,
+                        (pstmt, timestamp, random) -> bindAirQualityReading(pstmt, location, timestamp, random)));
+            }
+        }
+        if (!tables.equals("air")) {
+            for (int locIndex = 0; locIndex < NOISE_LOCATIONS.length; locIndex++) {
+                int index = locIndex;
+                workers.add(new Worker("noise:" + NOISE_LOCATIONS[locIndex], INSERT_NOISE_LEVEL_SQL,
+                        (pstmt, timestamp, random) -> bindNoiseLevelReading(pstmt, index, timestamp, random)));
+            }
+        }
+        int threads = Integer.parseInt(options.getOrDefault("threads", String.valueOf(workers.size())));
+
+        long rowsPerWorker = (long) days * readingsPerDay;
+        long totalRows = rowsPerWorker * workers.size();
+        // Spread the readings evenly over each day, ending now
+        long stepMillis = Math.max(1, TimeUnit.DAYS.toMillis(1) / readingsPerDay);
+        LocalDateTime start = LocalDateTime.now().minusDays(days);
+        String batchedUrl = url + (url.contains("?") ? "&" : "?") + "rewriteBatchedStatements=true";
+
+        System.out.printf("Backfilling %,d rows (%d workers x %,d readings) on %d threads, batch %d, commit every %d%n",
+                totalRows, workers.size(), rowsPerWorker, threads, batchSize, chunkSize);
+
+        try {
+            Class.forName("com.mysql.cj.jdbc.Driver");
+        } catch (ClassNotFoundException e) {
+            System.err.println("MySQL JDBC Driver not found: " + e.getMessage());
+            return;
+        }
+
+        Map<String, Long> idsBefore = readMaxIds(url);
+
+        AtomicLong written = new AtomicLong();
+        long startedAt = System.nanoTime();
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+        reporter.scheduleAtFixedRate(() -> reportProgress(written.get(), totalRows, startedAt), 5, 5, TimeUnit.SECONDS);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        boolean failed = false;
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < workers.size(); i++) {
+                Worker worker = workers.get(i);
+                Random random = new Random(seed + i);
+                futures.add(pool.submit(() -> {
+                    worker.run(batchedUrl, start, stepMillis, rowsPerWorker, batchSize, chunkSize, random, written);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (Exception e) {
+                    failed = true;
+                    System.err.println("Backfill worker failed: " + e.getMessage());
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+            reporter.shutdownNow();
+        }
+
+        reportProgress(written.get(), totalRows, startedAt);
+        rewindRollupWatermarks(url, idsBefore);
+        System.out.println(failed ? "Backfill finished with errors; committed chunks were kept." : "Backfill completed successfully!");
+    }
+
+    // The air quality rollups are folded above an id watermark. The workers' chunks commit out
+    // of id order, possibly further apart than the rollups' overlap, so after the load the
+    // watermark goes back to where it started and the next refresh recomputes the loaded range.
+    private static final Map<String, String> ROLLUP_WATERMARKS = Map.of(
+            "air_quality_readings", "air_quality_hourly");
+
+    private static Map<String, Long> readMaxIds(String url) {
+        Map<String, Long> maxIds = new HashMap<>();
+        try (Connection conn = DriverManager.getConnection(url, DB_USER, DB_PASSWORD)) {
+            for (String table : ROLLUP_WATERMARKS.keySet()) {
+                try (PreparedStatement pstmt = conn.prepareStatement("SELECT COALESCE(MAX(id), 0) FROM " + table);
+                     ResultSet rs = pstmt.executeQuery()) {
+                    rs.next();
+                    maxIds.put(table, rs.getLong(1));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Could not read the current reading ids: " + e.getMessage());
+        }
+        return maxIds;
+    }
+
+    private static void rewindRollupWatermarks(String url, Map<String, Long> idsBefore) {
+        try (Connection conn = DriverManager.getConnection(url, DB_USER, DB_PASSWORD);
+             PreparedStatement pstmt = conn.prepareStatement(
+                     "UPDATE stats_watermarks SET last_id = LEAST(last_id, ?) WHERE name = ?")) {
+            for (Map.Entry<String, Long> entry : idsBefore.entrySet()) {
+                pstmt.setLong(1, entry.getValue());
+                pstmt.setString(2, ROLLUP_WATERMARKS.get(entry.getKey()));
+                pstmt.executeUpdate();
+            }
+        } catch (SQLException e) {
+            // No stats_watermarks table yet: the rollups are built from scratch on first use anyway.
+            System.err.println("Could not rewind the rollup watermarks: " + e.getMessage());
+        }
+    }
+
+    private static void reportProgress(long written, long total, long startedAt) {
+        double seconds = Math.max(1e-3, (System.nanoTime() - startedAt) / 1e9);
+        System.out.printf("Backfill progress: %,d/%,d (%.1f%%) in %.0fs, %,.0f rows/sec%n",
+                written, total, total == 0 ? 100.0 : written * 100.0 / total, seconds, written / seconds);
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+            }
+            String name = args[i].substring(2);
+            if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                options.put(name, args[++i]);
+            } else {
+                options.put(name, "true");
+            }
+        }
+        return options;
+    }
+
+    private static void printBackfillUsage() {
+        System.out.println("Usage: java EnvironmentalDataGenerator [options]   (no options: interactive mode)");
+        System.out.println("  --url <jdbc url>            default " + DB_URL);
+        System.out.println("  --user <name>               default root");
+        System.out.println("  --password <password>       default empty");
+        System.out.println("  --days <n>                  days of history, default 365");
+        System.out.println("  --readings-per-day <n>      per location, default 96");
+        System.out.println("  --tables all|air|noise      default all");
+        System.out.println("  --threads <n>               default one per location");
+        System.out.println("  --batch-size <n>            rows per JDBC batch, default 1000");
+        System.out.println("  --chunk-size <n>            rows per transaction, default 50000");
+        System.out.println("  --seed <n>                  random seed for reproducible data");
+    }
+
+    @FunctionalInterface
+    private interface ReadingBinder {
+        void bind(PreparedStatement pstmt, LocalDateTime timestamp, Random random) throws SQLException;
+    }
+
+    // Writes all readings of one location, oldest first
+    private static final class Worker {
+        private final String name;
+        private final String sql;
+        private final ReadingBinder binder;
+
+        Worker(String name, String sql, ReadingBinder binder) {
+            this.name = name;
+            this.sql = sql;
+            this.binder = binder;
+        }
+
+        void run(String url, LocalDateTime start, long stepMillis, long rows, int batchSize, int chunkSize,
+                 Random random, AtomicLong written) throws SQLException {
+            try (Connection conn = DriverManager.getConnection(url, DB_USER, DB_PASSWORD);
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                conn.setAutoCommit(false);
+                int inBatch = 0;
+                int inChunk = 0;
+                for (long i = 0; i < rows; i++) {
+                    binder.bind(pstmt, start.plusNanos(TimeUnit.MILLISECONDS.toNanos(i * stepMillis)), random);
+                    pstmt.addBatch();
+                    inBatch++;
+                    inChunk++;
+                    boolean endOfChunk = inChunk >= chunkSize || i == rows - 1;
+                    if (inBatch == batchSize || endOfChunk) {
+                        pstmt.executeBatch();
+                        inBatch = 0;
+                    }
+                    if (endOfChunk) {
+                        conn.commit();
+                        written.addAndGet(inChunk);
+                        inChunk = 0;
+                    }
+                }
+            } catch (SQLException e) {
+                throw new SQLException("[" + name + "] " + e.getMessage(), e);
+            }
+        }
+    }
+
     // Helper method to determine air quality index based on pollutant levels
     private static String determineAirQualityIndex(double pm25, double pm10, double ozone) {
         // Simple algorithm to determine air quality
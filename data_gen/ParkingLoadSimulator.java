@@ -0,0 +1,450 @@
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.github.cdimascio.dotenv.Dotenv;
+
+/**
+ * Generates parking arrivals and departures for a large simulated city to load-test the
+ * occupancy features.
+ *
+ * The spot ids and their occupancy are kept in memory, so choosing a spot never touches the
+ * database. Each worker owns a slice of the spots and keeps its free and occupied spots in two
+ * arrays, which makes picking a random free or occupied spot O(1). Events arrive as a Poisson
+ * process. Its rate and its arrival/departure mix follow a time-of-day profile. Events are
+ * written as batched upserts.
+ *
+ * Example:
+ *   java ParkingLoadSimulator --spots 200000 --lots 400 --rate 5000 --duration 300 --time-scale 288
+ * (--time-scale 288 plays a simulated day in five minutes.)
+ */
+public class ParkingLoadSimulator {
+
+    // MySQL error for an unknown column: the parking table predates lot_id/zone
+    private static final int ER_BAD_FIELD_ERROR = 1054;
+
+    // Relative event rate per hour of day for the "commuter" profile
+    private static final double[] COMMUTER_RATE = {
+        0.15, 0.10, 0.08, 0.08, 0.10, 0.25, 0.60, 1.00, 1.00, 0.80, 0.65, 0.70,
+        0.80, 0.75, 0.65, 0.70, 0.90, 1.00, 0.95, 0.70, 0.50, 0.40, 0.30, 0.20
+    };
+    // Share of events that are arrivals per hour: mornings fill up, evenings empty out
+    private static final double[] COMMUTER_ARRIVAL_SHARE = {
+        0.30, 0.30, 0.30, 0.35, 0.50, 0.70, 0.80, 0.85, 0.80, 0.70, 0.60, 0.55,
+        0.50, 0.50, 0.45, 0.40, 0.30, 0.25, 0.25, 0.35, 0.40, 0.35, 0.30, 0.30
+    };
+
+    public static void main(String[] args) {
+        Map<String, String> options = parseOptions(args);
+        if (options.containsKey("help")) {
+            printUsage();
+            return;
+        }
+
+        Dotenv dotenv = Dotenv.configure().ignoreIfMissing().load();
+        String dbUrl = options.getOrDefault("url", dotenv.get("DB_URL"));
+        String dbUser = options.getOrDefault("user", dotenv.get("DB_USER"));
+        String dbPassword = options.getOrDefault("password", dotenv.get("DB_PASSWORD"));
+        String parkingTable = dotenv.get("DB_PARKING_TABLE", "parking_spots");
+        if (dbUrl == null || dbUser == null || dbPassword == null) {
+            System.err.println("Error: DB_URL, DB_USER and DB_PASSWORD must be set in .env or passed as --url/--user/--password.");
+            System.exit(1);
+        }
+
+        int spots = Integer.parseInt(options.getOrDefault("spots", "100000"));
+        int lots = Integer.parseInt(options.getOrDefault("lots", "100"));
+        int zones = Integer.parseInt(options.getOrDefault("zones", "8"));
+        double rate = Double.parseDouble(options.getOrDefault("rate", "2000"));
+        int durationSeconds = Integer.parseInt(options.getOrDefault("duration", "60"));
+        int threads = Math.min(spots, Integer.parseInt(options.getOrDefault("threads", "4")));
+        int batchSize = Integer.parseInt(options.getOrDefault("batch-size", "500"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        double timeScale = Double.parseDouble(options.getOrDefault("time-scale", "1"));
+        boolean flatProfile = "flat".equals(options.getOrDefault("profile", "commuter"));
+        double initialOccupancy = Double.parseDouble(options.getOrDefault("initial-occupancy", "0.3"));
+        String prefix = options.getOrDefault("prefix", "SIM-P");
+        boolean cleanup = options.containsKey("cleanup");
+
+        String batchedUrl = dbUrl + (dbUrl.contains("?") ? "&" : "?") + "rewriteBatchedStatements=true";
+        String eventSql = "INSERT INTO " + parkingTable + " (spot_id, is_occupied) VALUES (?, ?)" +
+                " ON DUPLICATE KEY UPDATE is_occupied = VALUES(is_occupied), last_updated = CURRENT_TIMESTAMP";
+
+        try {
+            Class.forName("com.mysql.cj.jdbc.Driver");
+        } catch (ClassNotFoundException e) {
+            System.err.println("Error: MySQL JDBC Driver not found. Make sure it's in the classpath.");
+            return;
+        }
+
+        // Every worker owns spots t, t + threads, t + 2 * threads, ...
+        List<Worker> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(new Worker(t, threads, spots, lots, zones, prefix, new Random(seed + t), initialOccupancy));
+        }
+
+        System.out.printf("Seeding %,d spots in %d lots and %d zones...%n", spots, lots, zones);
+        try {
+            seedSpots(batchedUrl, dbUser, dbPassword, parkingTable, workers, batchSize);
+        } catch (SQLException e) {
+            System.err.println("Seeding parking spots failed: " + e.getMessage());
+            return;
+        }
+
+        System.out.printf("Simulating %s events/sec (%s profile, time scale %.0fx) for %ds on %d threads, batch %d, seed %d%n",
+                String.format("%,.0f", rate), flatProfile ? "flat" : "commuter", timeScale, durationSeconds,
+                threads, batchSize, seed);
+
+        AtomicLong written = new AtomicLong();
+        long startedAt = System.nanoTime();
+        long deadline = startedAt + TimeUnit.SECONDS.toNanos(durationSeconds);
+        LocalDateTime simulatedStart = LocalDateTime.now();
+        Profile profile = new Profile(flatProfile, simulatedStart, startedAt, timeScale);
+
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+        reporter.scheduleAtFixedRate(() -> System.out.printf("Progress: %,d events, %,.0f events/sec, simulated %s, occupancy %.1f%%%n",
+                written.get(), written.get() / elapsedSeconds(startedAt),
+                profile.simulatedTime(System.nanoTime()).toLocalTime().withNano(0),
+                occupancyPercent(workers)), 5, 5, TimeUnit.SECONDS);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<long[]> latencies = new ArrayList<>();
+        try {
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (Worker worker : workers) {
+                futures.add(pool.submit(() -> worker.run(batchedUrl, dbUser, dbPassword, eventSql,
+                        rate / threads, profile, batchSize, deadline, written)));
+            }
+            for (Future<long[]> future : futures) {
+                try {
+                    latencies.add(future.get());
+                } catch (Exception e) {
+                    System.err.println("Worker failed: " + e.getMessage());
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+            reporter.shutdownNow();
+        }
+
+        printReport(written.get(), elapsedSeconds(startedAt), latencies, occupancyPercent(workers));
+
+        if (cleanup) {
+            try (Connection conn = DriverManager.getConnection(dbUrl, dbUser, dbPassword);
+                 PreparedStatement pstmt = conn.prepareStatement(
+                         "DELETE FROM " + parkingTable + " WHERE spot_id LIKE ?")) {
+                pstmt.setString(1, prefix + "-%");
+                System.out.println("Removed " + pstmt.executeUpdate() + " simulated spot(s).");
+            } catch (SQLException e) {
+                System.err.println("Cleanup failed: " + e.getMessage());
+            }
+        }
+    }
+
+    // Upserts every simulated spot with its lot, zone and initial occupancy
+    private static void seedSpots(String url, String user, String password, String table,
+                                  List<Worker> workers, int batchSize) throws SQLException {
+        String withLots = "INSERT INTO " + table + " (spot_id, location_description, lot_id, zone, is_occupied)" +
+                " VALUES (?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE is_occupied = VALUES(is_occupied)";
+        String withoutLots = "INSERT INTO " + table + " (spot_id, location_description, is_occupied)" +
+                " VALUES (?, ?, ?) ON DUPLICATE KEY UPDATE is_occupied = VALUES(is_occupied)";
+        try (Connection conn = DriverManager.getConnection(url, user, password)) {
+            try {
+                seedSpots(conn, withLots, true, workers, batchSize);
+            } catch (SQLException e) {
+                if (e.getErrorCode() != ER_BAD_FIELD_ERROR) {
+                    throw e;
+                }
+                System.out.println("Parking table has no lot_id/zone columns; seeding without them.");
+                seedSpots(conn, withoutLots, false, workers, batchSize);
+            }
+        }
+    }
+
+    private static void seedSpots(Connection conn, String sql, boolean withLots,
+                                  List<Worker> workers, int batchSize) throws SQLException {
+        conn.setAutoCommit(false);
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int inBatch = 0;
+            for (Worker worker : workers) {
+                for (int i = 0; i < worker.ids.length; i++) {
+                    int p = 1;
+                    pstmt.setString(p++, worker.ids[i]);
+                    pstmt.setString(p++, "Lot " + worker.lots[i] + ", Spot " + worker.ids[i]);
+                    if (withLots) {
+                        pstmt.setString(p++, "LOT-" + worker.lots[i]);
+                        pstmt.setString(p++, "Zone " + worker.zones[i]);
+                    }
+                    pstmt.setBoolean(p, worker.isOccupied(i));
+                    pstmt.addBatch();
+                    if (++inBatch == batchSize) {
+                        pstmt.executeBatch();
+                        conn.commit();
+                        inBatch = 0;
+                    }
+                }
+            }
+            if (inBatch > 0) {
+                pstmt.executeBatch();
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    private static double occupancyPercent(List<Worker> workers) {
+        long occupied = 0;
+        long total = 0;
+        for (Worker worker : workers) {
+            occupied += worker.occupiedCount();
+            total += worker.ids.length;
+        }
+        return total == 0 ? 0 : occupied * 100.0 / total;
+    }
+
+    private static void printReport(long written, double seconds, List<long[]> perWorker, double occupancy) {
+        long[] all = perWorker.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        System.out.println("--- Parking load simulation finished ---");
+        System.out.printf("Events written: %,d in %.1fs (%,.0f events/sec), final occupancy %.1f%%%n",
+                written, seconds, written / seconds, occupancy);
+        if (all.length == 0) {
+            System.out.println("No batches completed.");
+            return;
+        }
+        System.out.printf("Batch latency (ms) over %,d batches: p50 %.2f | p90 %.2f | p99 %.2f | max %.2f%n",
+                all.length, percentile(all, 50), percentile(all, 90), percentile(all, 99), all[all.length - 1] / 1000.0);
+    }
+
+    // Nearest-rank percentile of sorted microsecond values, in milliseconds
+    private static double percentile(long[] sorted, double p) {
+        int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))] / 1000.0;
+    }
+
+    private static double elapsedSeconds(long startedAt) {
+        return Math.max(1e-3, (System.nanoTime() - startedAt) / 1e9);
+    }
+
+    // Maps real elapsed time to a simulated clock and gives the event rate and mix for it
+    private static final class Profile {
+        private final boolean flat;
+        private final LocalDateTime simulatedStart;
+        private final long startedAt;
+        private final double timeScale;
+
+        Profile(boolean flat, LocalDateTime simulatedStart, long startedAt, double timeScale) {
+            this.flat = flat;
+            this.simulatedStart = simulatedStart;
+            this.startedAt = startedAt;
+            this.timeScale = timeScale;
+        }
+
+        LocalDateTime simulatedTime(long nanoTime) {
+            return simulatedStart.plusNanos((long) ((nanoTime - startedAt) * timeScale));
+        }
+
+        double rateFactor(long nanoTime) {
+            return flat ? 1.0 : COMMUTER_RATE[simulatedTime(nanoTime).getHour()];
+        }
+
+        double arrivalShare(long nanoTime) {
+            return flat ? 0.5 : COMMUTER_ARRIVAL_SHARE[simulatedTime(nanoTime).getHour()];
+        }
+    }
+
+    // One slice of the spots, with O(1) random choice of a free or occupied spot
+    private static final class Worker {
+        private final String[] ids;
+        private final int[] lots;
+        private final int[] zones;
+        private final Random random;
+        // Spot indexes partitioned into free and occupied; position[i] is i's slot in its array
+        private final int[] free;
+        private final int[] occupied;
+        private final int[] position;
+        private int freeCount;
+        private volatile int occupiedCount;
+
+        Worker(int index, int workers, int totalSpots, int lotCount, int zoneCount, String prefix,
+               Random random, double initialOccupancy) {
+            int size = (totalSpots - index + workers - 1) / workers;
+            this.ids = new String[size];
+            this.lots = new int[size];
+            this.zones = new int[size];
+            this.random = random;
+            this.free = new int[size];
+            this.occupied = new int[size];
+            this.position = new int[size];
+            for (int i = 0; i < size; i++) {
+                int spot = index + i * workers;
+                int lot = (int) ((long) spot * lotCount / totalSpots) + 1;
+                ids[i] = String.format("%s-%07d", prefix, spot);
+                lots[i] = lot;
+                zones[i] = (lot - 1) % zoneCount + 1;
+                if (random.nextDouble() < initialOccupancy) {
+                    position[i] = occupiedCount;
+                    occupied[occupiedCount++] = i;
+                } else {
+                    position[i] = freeCount;
+                    free[freeCount++] = i;
+                }
+            }
+        }
+
+        boolean isOccupied(int spot) {
+            int slot = position[spot];
+            return slot < occupiedCount && occupied[slot] == spot;
+        }
+
+        int occupiedCount() {
+            return occupiedCount;
+        }
+
+        // Moves a random spot between the free and occupied sets; returns it, or -1 if none
+        private int nextEvent(boolean arrival) {
+            int[] from = arrival ? free : occupied;
+            int fromCount = arrival ? freeCount : occupiedCount;
+            if (fromCount == 0) {
+                return -1;
+            }
+            int slot = random.nextInt(fromCount);
+            int spot = from[slot];
+            // Swap-remove from the source set
+            int last = from[fromCount - 1];
+            from[slot] = last;
+            position[last] = slot;
+            if (arrival) {
+                freeCount--;
+                position[spot] = occupiedCount;
+                occupied[occupiedCount] = spot;
+                occupiedCount = occupiedCount + 1;
+            } else {
+                occupiedCount = occupiedCount - 1;
+                position[spot] = freeCount;
+                free[freeCount++] = spot;
+            }
+            return spot;
+        }
+
+        // Returns the latency of every batch in microseconds
+        long[] run(String url, String user, String password, String sql, double baseRate, Profile profile,
+                   int batchSize, long deadline, AtomicLong written) throws SQLException, InterruptedException {
+            long[] latencies = new long[1024];
+            int batches = 0;
+            int inBatch = 0;
+            // Flush partial batches at least this often so slow periods still reach the database
+            long maxBatchAgeNanos = TimeUnit.MILLISECONDS.toNanos(250);
+            long batchStartedAt = System.nanoTime();
+            long nextEventAt = System.nanoTime();
+
+            try (Connection conn = DriverManager.getConnection(url, user, password);
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                while (true) {
+                    long now = System.nanoTime();
+                    boolean done = now >= deadline;
+                    if (inBatch > 0 && (done || inBatch == batchSize || now - batchStartedAt >= maxBatchAgeNanos)) {
+                        long start = System.nanoTime();
+                        pstmt.executeBatch();
+                        long elapsed = System.nanoTime() - start;
+                        if (batches == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, batches * 2);
+                        }
+                        latencies[batches++] = TimeUnit.NANOSECONDS.toMicros(elapsed);
+                        written.addAndGet(inBatch);
+                        inBatch = 0;
+                        batchStartedAt = System.nanoTime();
+                    }
+                    if (done) {
+                        break;
+                    }
+
+                    if (nextEventAt > now) {
+                        long wakeAt = Math.min(nextEventAt, deadline);
+                        if (inBatch > 0) {
+                            wakeAt = Math.min(wakeAt, batchStartedAt + maxBatchAgeNanos);
+                        }
+                        long wait = wakeAt - now;
+                        if (wait > 0) {
+                            TimeUnit.NANOSECONDS.sleep(wait);
+                        }
+                        continue;
+                    }
+
+                    // Poisson process: exponential gaps at the current profile rate
+                    double lambda = baseRate * profile.rateFactor(nextEventAt);
+                    nextEventAt += lambda > 0
+                            ? (long) (-Math.log(1.0 - random.nextDouble()) / lambda * 1e9)
+                            : TimeUnit.SECONDS.toNanos(1);
+
+                    boolean arrival = random.nextDouble() < profile.arrivalShare(now);
+                    int spot = nextEvent(arrival);
+                    if (spot < 0) {
+                        // Lot is full (or empty): the opposite event is the only one possible
+                        arrival = !arrival;
+                        spot = nextEvent(arrival);
+                    }
+                    if (spot >= 0) {
+                        if (inBatch == 0) {
+                            batchStartedAt = System.nanoTime();
+                        }
+                        pstmt.setString(1, ids[spot]);
+                        pstmt.setBoolean(2, arrival);
+                        pstmt.addBatch();
+                        inBatch++;
+                    }
+                }
+            }
+            return Arrays.copyOf(latencies, batches);
+        }
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+            }
+            String name = args[i].substring(2);
+            if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                options.put(name, args[++i]);
+            } else {
+                options.put(name, "true");
+            }
+        }
+        return options;
+    }
+
+    private static void printUsage() {
+        System.out.println("Usage: java ParkingLoadSimulator [options]");
+        System.out.println("  --spots <n>              simulated spots, default 100000");
+        System.out.println("  --lots <n>               lots the spots are spread over, default 100");
+        System.out.println("  --zones <n>              zones the lots are spread over, default 8");
+        System.out.println("  --rate <n>               mean events per second at peak, default 2000");
+        System.out.println("  --profile commuter|flat  time-of-day profile, default commuter");
+        System.out.println("  --time-scale <x>         simulated seconds per real second, default 1");
+        System.out.println("  --initial-occupancy <p>  share of spots occupied at the start, default 0.3");
+        System.out.println("  --duration <s>           run time in seconds, default 60");
+        System.out.println("  --threads <n>            worker threads, one connection each, default 4");
+        System.out.println("  --batch-size <n>         events per batched upsert, default 500");
+        System.out.println("  --seed <n>               random seed, default 42");
+        System.out.println("  --prefix <id>            spot id prefix, default SIM-P");
+        System.out.println("  --cleanup                delete the simulated spots afterwards");
+        System.out.println("  --url/--user/--password  override the DB_* settings from .env");
+    }
+}
@@ -10,6 +10,8 @@ import java.sql.SQLException;
 // import java.util.List;
 import java.sql.Statement;
 import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.concurrent.TimeUnit;
@@ -91,9 +93,11 @@ public class TrafficDataGenerator {
         // Use INSERT IGNORE to avoid errors if spots already exist
         String insertParkingSql = "INSERT IGNORE INTO " + PARKING_TABLE_NAME +
                                   " (spot_id, location_description, is_occupied) VALUES (?, ?, ?)";
+        // The spot is picked in memory; ORDER BY RAND() would scan and sort the whole table per update
+        String selectSpotIdsSql = "SELECT spot_id FROM " + PARKING_TABLE_NAME;
         String updateParkingSql = "UPDATE " + PARKING_TABLE_NAME +
                                   " SET is_occupied = ?, last_updated = CURRENT_TIMESTAMP" +
-                                  " WHERE spot_id = (SELECT spot_id FROM (SELECT spot_id FROM " + PARKING_TABLE_NAME + " ORDER BY RAND() LIMIT 1) AS temp)";
+                                  " WHERE spot_id = ?";
 
         // SQL to update the junction state (or insert if it doesn't exist)
         // Uses INSERT ... ON DUPLICATE KEY UPDATE to handle both initial creation and subsequent updates
@@ -137,6 +141,16 @@ public class TrafficDataGenerator {
             }
             // --- End Initial Parking Spot Population ---
 
+            // Load the spot ids once so each update can pick one without querying
+            List<String> spotIds = new ArrayList<>();
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(selectSpotIdsSql)) {
+                while (rs.next()) {
+                    spotIds.add(rs.getString(1));
+                }
+            }
+            System.out.println("Loaded " + spotIds.size() + " parking spot id(s).");
+
 
             // Updated try-with-resources to include updateJunctionStmt
             try (PreparedStatement updateParkingStmt = conn.prepareStatement(updateParkingSql);
@@ -175,9 +189,10 @@ public class TrafficDataGenerator {
 
 
                     // --- Simulate Parking Spot Update ---
-                    if (random.nextInt(100) < PARKING_SPOT_UPDATE_CHANCE_PERCENT) {
+                    if (!spotIds.isEmpty() && random.nextInt(100) < PARKING_SPOT_UPDATE_CHANCE_PERCENT) {
                         boolean newOccupiedStatus = random.nextBoolean();
                         updateParkingStmt.setBoolean(1, newOccupiedStatus);
+                        updateParkingStmt.setString(2, spotIds.get(random.nextInt(spotIds.size())));
                         int updatedSpots = updateParkingStmt.executeUpdate();
                         if (updatedSpots > 0) {
                             System.out.println("Updated a random parking spot status to: " + newOccupiedStatus);
@@ -0,0 +1,245 @@
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.github.cdimascio.dotenv.Dotenv;
+
+/**
+ * Drives many junctions at once to load-test the traffic tables.
+ *
+ * Junctions are split evenly across worker threads. Each worker has its own connection and
+ * cycles through its junctions, sending their new states as batched upserts that the driver
+ * rewrites into multi-row INSERT ... ON DUPLICATE KEY UPDATE statements. The workers share
+ * the target rate between them. Every run with the same --seed generates the same sequence of
+ * states per worker.
+ *
+ * Example:
+ *   java TrafficLoadSimulator --junctions 5000 --rate 10000 --duration 120 --threads 8 --seed 42
+ */
+public class TrafficLoadSimulator {
+
+    private static final int JUNCTION_LANES = 4;
+    private static final int MAX_VEHICLES_PER_LANE = 30;
+
+    public static void main(String[] args) {
+        Map<String, String> options = parseOptions(args);
+        if (options.containsKey("help")) {
+            printUsage();
+            return;
+        }
+
+        Dotenv dotenv = Dotenv.configure().ignoreIfMissing().load();
+        String dbUrl = options.getOrDefault("url", dotenv.get("DB_URL"));
+        String dbUser = options.getOrDefault("user", dotenv.get("DB_USER"));
+        String dbPassword = options.getOrDefault("password", dotenv.get("DB_PASSWORD"));
+        String junctionTable = dotenv.get("DB_JUNCTION_TABLE", "junction_state");
+        if (dbUrl == null || dbUser == null || dbPassword == null) {
+            System.err.println("Error: DB_URL, DB_USER and DB_PASSWORD must be set in .env or passed as --url/--user/--password.");
+            System.exit(1);
+        }
+
+        int junctions = Integer.parseInt(options.getOrDefault("junctions", "1000"));
+        double rate = Double.parseDouble(options.getOrDefault("rate", "5000"));
+        int durationSeconds = Integer.parseInt(options.getOrDefault("duration", "60"));
+        int threads = Math.min(junctions, Integer.parseInt(options.getOrDefault("threads", "4")));
+        int batchSize = Integer.parseInt(options.getOrDefault("batch-size", "500"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        String prefix = options.getOrDefault("prefix", "SIM-J");
+        boolean cleanup = options.containsKey("cleanup");
+
+        String upsertSql = "INSERT INTO " + junctionTable +
+                " (junction_id, lane_1_vehicles, lane_2_vehicles, lane_3_vehicles, lane_4_vehicles, green_lane_id) " +
+                " VALUES (?, ?, ?, ?, ?, ?) " +
+                " ON DUPLICATE KEY UPDATE " +
+                " lane_1_vehicles = VALUES(lane_1_vehicles), " +
+                " lane_2_vehicles = VALUES(lane_2_vehicles), " +
+                " lane_3_vehicles = VALUES(lane_3_vehicles), " +
+                " lane_4_vehicles = VALUES(lane_4_vehicles), " +
+                " green_lane_id = VALUES(green_lane_id), " +
+                // Bump the timestamp even when the counts happen to repeat
+                " last_updated = CURRENT_TIMESTAMP";
+        String batchedUrl = dbUrl + (dbUrl.contains("?") ? "&" : "?") + "rewriteBatchedStatements=true";
+
+        try {
+            Class.forName("com.mysql.cj.jdbc.Driver");
+        } catch (ClassNotFoundException e) {
+            System.err.println("Error: MySQL JDBC Driver not found. Make sure it's in the classpath.");
+            return;
+        }
+
+        System.out.printf("Simulating %,d junctions for %ds at %s updates/sec on %d threads (batch %d, seed %d)%n",
+                junctions, durationSeconds, rate > 0 ? String.format("%,.0f", rate) : "max", threads, batchSize, seed);
+
+        AtomicLong written = new AtomicLong();
+        long startedAt = System.nanoTime();
+        long deadline = startedAt + TimeUnit.SECONDS.toNanos(durationSeconds);
+        List<long[]> latencies = new ArrayList<>();
+
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+        reporter.scheduleAtFixedRate(() -> System.out.printf("Progress: %,d updates, %,.0f updates/sec%n",
+                written.get(), written.get() / elapsedSeconds(startedAt)), 5, 5, TimeUnit.SECONDS);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                // Worker t owns junctions t, t + threads, t + 2 * threads, ...
+                List<String> owned = new ArrayList<>();
+                for (int j = t; j < junctions; j += threads) {
+                    owned.add(String.format("%s-%06d", prefix, j));
+                }
+                Random random = new Random(seed + t);
+                double workerRate = rate > 0 ? rate / threads : 0;
+                futures.add(pool.submit(() -> runWorker(batchedUrl, dbUser, dbPassword, upsertSql, owned,
+                        random, workerRate, batchSize, deadline, written)));
+            }
+            for (Future<long[]> future : futures) {
+                try {
+                    latencies.add(future.get());
+                } catch (Exception e) {
+                    System.err.println("Worker failed: " + e.getMessage());
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+            reporter.shutdownNow();
+        }
+
+        printReport(written.get(), elapsedSeconds(startedAt), rate, latencies);
+
+        if (cleanup) {
+            try (Connection conn = DriverManager.getConnection(dbUrl, dbUser, dbPassword);
+                 PreparedStatement pstmt = conn.prepareStatement(
+                         "DELETE FROM " + junctionTable + " WHERE junction_id LIKE ?")) {
+                pstmt.setString(1, prefix + "-%");
+                System.out.println("Removed " + pstmt.executeUpdate() + " simulated junction(s).");
+            } catch (SQLException e) {
+                System.err.println("Cleanup failed: " + e.getMessage());
+            }
+        }
+    }
+
+    // Returns the latency of every batch in microseconds
+    private static long[] runWorker(String url, String user, String password, String sql, List<String> junctions,
+                                    Random random, double rate, int batchSize, long deadline,
+                                    AtomicLong written) throws SQLException, InterruptedException {
+        long[] latencies = new long[1024];
+        int batches = 0;
+        int next = 0;
+        // Time one batch takes at the target rate; 0 means as fast as possible
+        long batchIntervalNanos = rate > 0 ? (long) (batchSize * 1e9 / rate) : 0;
+        long nextBatchAt = System.nanoTime();
+
+        try (Connection conn = DriverManager.getConnection(url, user, password);
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            while (System.nanoTime() < deadline) {
+                for (int i = 0; i < batchSize; i++) {
+                    bindJunctionState(pstmt, junctions.get(next), random);
+                    pstmt.addBatch();
+                    next = (next + 1) % junctions.size();
+                }
+
+                long start = System.nanoTime();
+                pstmt.executeBatch();
+                long elapsed = System.nanoTime() - start;
+
+                if (batches == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, batches * 2);
+                }
+                latencies[batches++] = TimeUnit.NANOSECONDS.toMicros(elapsed);
+                written.addAndGet(batchSize);
+
+                if (batchIntervalNanos > 0) {
+                    nextBatchAt += batchIntervalNanos;
+                    long sleep = nextBatchAt - System.nanoTime();
+                    if (sleep > 0) {
+                        TimeUnit.NANOSECONDS.sleep(sleep);
+                    }
+                }
+            }
+        }
+        return Arrays.copyOf(latencies, batches);
+    }
+
+    // Same model as TrafficDataGenerator: random lane counts, green for the busiest lane
+    private static void bindJunctionState(PreparedStatement pstmt, String junctionId, Random random) throws SQLException {
+        int maxVehicles = -1;
+        int greenLane = 1;
+        pstmt.setString(1, junctionId);
+        for (int i = 0; i < JUNCTION_LANES; i++) {
+            int vehicles = random.nextInt(MAX_VEHICLES_PER_LANE + 1);
+            pstmt.setInt(i + 2, vehicles);
+            if (vehicles > maxVehicles) {
+                maxVehicles = vehicles;
+                greenLane = i + 1;
+            }
+        }
+        pstmt.setInt(JUNCTION_LANES + 2, greenLane);
+    }
+
+    private static void printReport(long written, double seconds, double targetRate, List<long[]> perWorker) {
+        long[] all = perWorker.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        System.out.println("--- Traffic load simulation finished ---");
+        System.out.printf("Updates written: %,d in %.1fs%n", written, seconds);
+        System.out.printf("Achieved rate:   %,.0f updates/sec%s%n", written / seconds,
+                targetRate > 0 ? String.format(" (target %,.0f)", targetRate) : "");
+        if (all.length == 0) {
+            System.out.println("No batches completed.");
+            return;
+        }
+        System.out.printf("Batch latency (ms) over %,d batches: p50 %.2f | p90 %.2f | p99 %.2f | p99.9 %.2f | max %.2f%n",
+                all.length, percentile(all, 50), percentile(all, 90), percentile(all, 99), percentile(all, 99.9),
+                all[all.length - 1] / 1000.0);
+    }
+
+    // Nearest-rank percentile of sorted microsecond values, in milliseconds
+    private static double percentile(long[] sorted, double p) {
+        int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))] / 1000.0;
+    }
+
+    private static double elapsedSeconds(long startedAt) {
+        return Math.max(1e-3, (System.nanoTime() - startedAt) / 1e9);
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+            }
+            String name = args[i].substring(2);
+            if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                options.put(name, args[++i]);
+            } else {
+                options.put(name, "true");
+            }
+        }
+        return options;
+    }
+
+    private static void printUsage() {
+        System.out.println("Usage: java TrafficLoadSimulator [options]");
+        System.out.println("  --junctions <n>      simulated junctions, default 1000");
+        System.out.println("  --rate <n>           total updates per second, 0 for as fast as possible, default 5000");
+        System.out.println("  --duration <s>       run time in seconds, default 60");
+        System.out.println("  --threads <n>        worker threads, one connection each, default 4");
+        System.out.println("  --batch-size <n>     junction updates per batched upsert, default 500");
+        System.out.println("  --seed <n>           random seed, default 42");
+        System.out.println("  --prefix <id>        junction id prefix, default SIM-J");
+        System.out.println("  --cleanup            delete the simulated junctions afterwards");
+        System.out.println("  --url/--user/--password override the DB_* settings from .env");
+    }
+}
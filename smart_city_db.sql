@@ -6,15 +6,35 @@ CREATE DATABASE IF NOT EXISTS smart_city_db;
 USE smart_city_db;
 
 -- Create the table for power readings
+-- Partitioned by month so retention drops whole partitions instead of deleting rows.
+-- Every unique key of a partitioned table must include the partition column, hence the
+-- composite primary key. PartitionManager splits p_future to keep partitions
+-- PARTITION_MONTHS_AHEAD months ahead; p_history holds anything older than the first month.
+-- Rows loaded before the app first starts (data_gen, a backfill) land in p_future; the first
+-- maintenance run moves them into a catch-up partition ending after the newest of them.
 CREATE TABLE IF NOT EXISTS power_readings (
-    id INT AUTO_INCREMENT PRIMARY KEY,
+    id INT AUTO_INCREMENT,
     reading_date DATE NOT NULL,
     power_consumed DOUBLE NOT NULL,
     fault_detected BOOLEAN NOT NULL,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, -- Optional: track when record was inserted
+    PRIMARY KEY (id, reading_date),
     INDEX idx_reading_date (reading_date) -- Add index for faster date filtering/deletion
+)
+PARTITION BY RANGE COLUMNS (reading_date) (
+    PARTITION p_history VALUES LESS THAN ('2024-01-01'),
+    PARTITION p_future VALUES LESS THAN (MAXVALUE)
 );
 
+-- Converting an existing table rebuilds it, so run it in a maintenance window. Put the
+-- p_history bound after the newest row (e.g. the first day of next month), so the first
+-- maintenance run does not have to copy rows out of p_future.
+-- ALTER TABLE power_readings DROP PRIMARY KEY, ADD PRIMARY KEY (id, reading_date);
+-- ALTER TABLE power_readings PARTITION BY RANGE COLUMNS (reading_date) (
+--     PARTITION p_history VALUES LESS THAN ('<first day of next month>'),
+--     PARTITION p_future VALUES LESS THAN (MAXVALUE)
+-- );
+
 -- --- New Table for Monthly Statistics ---
 CREATE TABLE IF NOT EXISTS `power_stats` (
     `year_month` CHAR(7) NOT NULL PRIMARY KEY,
@@ -25,6 +45,15 @@ CREATE TABLE IF NOT EXISTS `power_stats` (
     `last_updated` TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
 );
 
+-- --- Incremental Aggregation Watermarks ---
+-- Highest source id already folded into an aggregate table (e.g. 'power_stats').
+-- -1 means the aggregate has not been built yet; the next refresh rebuilds it.
+CREATE TABLE IF NOT EXISTS stats_watermarks (
+    name VARCHAR(64) NOT NULL PRIMARY KEY,
+    last_id BIGINT NOT NULL,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
+
 -- --- New Table for Single Junction State ---
 CREATE TABLE IF NOT EXISTS junction_state (
     junction_id VARCHAR(50) PRIMARY KEY,    -- Identifier for the junction (e.g., "MainJunction")
@@ -54,9 +83,18 @@ CREATE TABLE IF NOT EXISTS junction_state (
 CREATE TABLE IF NOT EXISTS parking_spots (
     spot_id VARCHAR(50) PRIMARY KEY,       -- e.g., "P1-A01", "DowntownGarage-3B-12"
     location_description VARCHAR(255),     -- e.g., "Parking Lot 1, Row A, Spot 01"
+    lot_id VARCHAR(50),                    -- e.g., "P1", "DowntownGarage"
+    zone VARCHAR(50),                      -- e.g., "Downtown", "North"
     is_occupied BOOLEAN NOT NULL DEFAULT FALSE,
-    last_updated TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+    last_updated TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    -- The occupancy index reads only spots changed since its last refresh.
+    INDEX idx_parking_last_updated (last_updated)
 );
+-- For an existing parking_spots table:
+-- ALTER TABLE parking_spots
+--     ADD COLUMN lot_id VARCHAR(50) AFTER location_description,
+--     ADD COLUMN zone VARCHAR(50) AFTER lot_id,
+--     ADD INDEX idx_parking_last_updated (last_updated);
 
 -- --- Optional: Initial Parking Spot Data ---
 -- You might want to pre-populate some parking spots
@@ -66,30 +104,139 @@ CREATE TABLE IF NOT EXISTS parking_spots (
 -- ('P1-A03', 'Main St Lot, Row A, Spot 03', FALSE),
 -- ('DG-1A-01', 'Downtown Garage, Level 1A, Spot 01', FALSE)
 -- ON DUPLICATE KEY UPDATE spot_id=spot_id; -- Avoid errors if run multiple times
+-- The readings tables are partitioned by day, like power_readings by month: retention drops
+-- partitions, and PartitionManager adds them PARTITION_DAYS_AHEAD days ahead.
 -- Air Quality Readings Table
 CREATE TABLE air_quality_readings (
-    id INT AUTO_INCREMENT PRIMARY KEY,
+    id INT AUTO_INCREMENT,
     timestamp DATETIME NOT NULL,
     location VARCHAR(100) NOT NULL,
     pm25_level DOUBLE NOT NULL,
     pm10_level DOUBLE NOT NULL,
     ozone_level DOUBLE NOT NULL,
     quality_index VARCHAR(20) NOT NULL,
+    PRIMARY KEY (id, timestamp),
     INDEX idx_location (location),
     INDEX idx_timestamp (timestamp)
+)
+PARTITION BY RANGE COLUMNS (timestamp) (
+    PARTITION p_history VALUES LESS THAN ('2024-01-01'),
+    PARTITION p_future VALUES LESS THAN (MAXVALUE)
 );
 
 -- Noise Level Readings Table
 CREATE TABLE noise_level_readings (
-    id INT AUTO_INCREMENT PRIMARY KEY,
+    id INT AUTO_INCREMENT,
     timestamp DATETIME NOT NULL,
     location VARCHAR(100) NOT NULL,
     decibel_level DOUBLE NOT NULL,
     zone_type VARCHAR(50) NOT NULL,
     exceeds_limit BOOLEAN NOT NULL,
+    PRIMARY KEY (id, timestamp),
     INDEX idx_location (location),
     INDEX idx_timestamp (timestamp)
+)
+PARTITION BY RANGE COLUMNS (timestamp) (
+    PARTITION p_history VALUES LESS THAN ('2024-01-01'),
+    PARTITION p_future VALUES LESS THAN (MAXVALUE)
+);
+
+-- Existing tables convert the same way as power_readings, with p_history ending after the newest row:
+-- ALTER TABLE air_quality_readings DROP PRIMARY KEY, ADD PRIMARY KEY (id, timestamp);
+-- ALTER TABLE air_quality_readings PARTITION BY RANGE COLUMNS (timestamp) (
+--     PARTITION p_history VALUES LESS THAN ('<tomorrow>'),
+--     PARTITION p_future VALUES LESS THAN (MAXVALUE)
+-- );
+-- (and likewise for noise_level_readings)
+
+-- --- Hourly and Daily Rollups ---
+-- Per-location buckets of the air quality readings, refreshed in the background every
+-- ENV_ROLLUP_INTERVAL_MS. The buckets touched by readings above the stats_watermarks entry
+-- named after the hourly table are recomputed; days are merged from their hours, which is why
+-- sums rather than averages are stored (average = sum / reading_count). Air quality reports
+-- read the daily rollup for whole days, the hourly rollup for whole hours and raw rows only at
+-- the edges and above the watermark. Rollups are not affected by retention on the readings tables.
+CREATE TABLE IF NOT EXISTS air_quality_hourly (
+    location VARCHAR(100) NOT NULL,
+    period_start DATETIME NOT NULL,         -- start of the hour
+    reading_count INT NOT NULL,
+    pm25_sum DOUBLE NOT NULL,
+    pm25_min DOUBLE NOT NULL,
+    pm25_max DOUBLE NOT NULL,
+    pm10_sum DOUBLE NOT NULL,
+    pm10_min DOUBLE NOT NULL,
+    pm10_max DOUBLE NOT NULL,
+    ozone_sum DOUBLE NOT NULL,
+    ozone_min DOUBLE NOT NULL,
+    ozone_max DOUBLE NOT NULL,
+    good_count INT NOT NULL,
+    moderate_count INT NOT NULL,
+    poor_count INT NOT NULL,
+    hazardous_count INT NOT NULL,
+    PRIMARY KEY (location, period_start)
+);
+
+CREATE TABLE IF NOT EXISTS air_quality_daily LIKE air_quality_hourly; -- period_start is midnight
+
+-- --- Latest Reading per Location ---
+-- One row per location, kept current by the triggers below so the dashboards read
+-- a handful of keyed rows instead of running MAX(timestamp) over the readings tables.
+CREATE TABLE IF NOT EXISTS air_quality_latest (
+    location VARCHAR(100) NOT NULL PRIMARY KEY,
+    reading_id INT NOT NULL,                -- id of the row in air_quality_readings
+    timestamp DATETIME NOT NULL,
+    pm25_level DOUBLE NOT NULL,
+    pm10_level DOUBLE NOT NULL,
+    ozone_level DOUBLE NOT NULL,
+    quality_index VARCHAR(20) NOT NULL
 );
+
+CREATE TABLE IF NOT EXISTS noise_level_latest (
+    location VARCHAR(100) NOT NULL PRIMARY KEY,
+    reading_id INT NOT NULL,                -- id of the row in noise_level_readings
+    timestamp DATETIME NOT NULL,
+    decibel_level DOUBLE NOT NULL,
+    zone_type VARCHAR(50) NOT NULL,
+    exceeds_limit BOOLEAN NOT NULL
+);
+
+-- The upsert runs in the inserting transaction, so the latest row commits or rolls back
+-- together with the reading. Late (older) readings leave the row unchanged; timestamp is
+-- assigned last because MySQL evaluates the assignments left to right.
+DROP TRIGGER IF EXISTS trg_air_quality_latest;
+CREATE TRIGGER trg_air_quality_latest AFTER INSERT ON air_quality_readings
+FOR EACH ROW
+    INSERT INTO air_quality_latest (location, reading_id, timestamp, pm25_level, pm10_level, ozone_level, quality_index)
+    VALUES (NEW.location, NEW.id, NEW.timestamp, NEW.pm25_level, NEW.pm10_level, NEW.ozone_level, NEW.quality_index)
+    ON DUPLICATE KEY UPDATE
+        reading_id = IF(VALUES(timestamp) >= timestamp, VALUES(reading_id), reading_id),
+        pm25_level = IF(VALUES(timestamp) >= timestamp, VALUES(pm25_level), pm25_level),
+        pm10_level = IF(VALUES(timestamp) >= timestamp, VALUES(pm10_level), pm10_level),
+        ozone_level = IF(VALUES(timestamp) >= timestamp, VALUES(ozone_level), ozone_level),
+        quality_index = IF(VALUES(timestamp) >= timestamp, VALUES(quality_index), quality_index),
+        timestamp = GREATEST(timestamp, VALUES(timestamp));
+
+DROP TRIGGER IF EXISTS trg_noise_level_latest;
+CREATE TRIGGER trg_noise_level_latest AFTER INSERT ON noise_level_readings
+FOR EACH ROW
+    INSERT INTO noise_level_latest (location, reading_id, timestamp, decibel_level, zone_type, exceeds_limit)
+    VALUES (NEW.location, NEW.id, NEW.timestamp, NEW.decibel_level, NEW.zone_type, NEW.exceeds_limit)
+    ON DUPLICATE KEY UPDATE
+        reading_id = IF(VALUES(timestamp) >= timestamp, VALUES(reading_id), reading_id),
+        decibel_level = IF(VALUES(timestamp) >= timestamp, VALUES(decibel_level), decibel_level),
+        zone_type = IF(VALUES(timestamp) >= timestamp, VALUES(zone_type), zone_type),
+        exceeds_limit = IF(VALUES(timestamp) >= timestamp, VALUES(exceeds_limit), exceeds_limit),
+        timestamp = GREATEST(timestamp, VALUES(timestamp));
+
+-- Backfill once when adding the tables to an existing database
+-- INSERT INTO air_quality_latest (location, reading_id, timestamp, pm25_level, pm10_level, ozone_level, quality_index)
+-- SELECT location, id, timestamp, pm25_level, pm10_level, ozone_level, quality_index FROM air_quality_readings
+-- WHERE (location, timestamp) IN (SELECT location, MAX(timestamp) FROM air_quality_readings GROUP BY location)
+-- ON DUPLICATE KEY UPDATE location = location;
+-- INSERT INTO noise_level_latest (location, reading_id, timestamp, decibel_level, zone_type, exceeds_limit)
+-- SELECT location, id, timestamp, decibel_level, zone_type, exceeds_limit FROM noise_level_readings
+-- WHERE (location, timestamp) IN (SELECT location, MAX(timestamp) FROM noise_level_readings GROUP BY location)
+-- ON DUPLICATE KEY UPDATE location = location;
 -- ... existing code ...
 
 -- Create Emergency Management Table
@@ -102,8 +249,10 @@ CREATE TABLE IF NOT EXISTS emergencies (
     timestamp DATETIME NOT NULL,
     status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
     INDEX idx_status (status),
-    INDEX idx_severity (severity)
+    INDEX idx_severity (severity),
+    INDEX idx_active_order (severity, timestamp, id) -- Keyset pagination of the emergency grid
 );
+-- Existing databases: ALTER TABLE emergencies ADD INDEX idx_active_order (severity, timestamp, id);
 
 -- Create Weather Alert Table
 CREATE TABLE IF NOT EXISTS weather_alerts (
@@ -0,0 +1,44 @@
+package com.example;
+
+import com.example.model.ConnectionPool;
+import com.example.model.EnvironmentalService;
+import com.example.model.IngestionService;
+import com.example.model.PartitionManager;
+import com.example.model.RetentionEngine;
+import com.example.model.SafetyService;
+import com.example.model.ServiceExecutor;
+import com.example.model.TrafficService;
+import com.example.model.UtilityService;
+
+import jakarta.servlet.ServletContextEvent;
+import jakarta.servlet.ServletContextListener;
+import jakarta.servlet.annotation.WebListener;
+
+/**
+ * Starts background table maintenance on deployment, and releases application-wide resources
+ * when the web application is undeployed or reloaded, so Jetty's class reloading does not
+ * leave database connections open behind it.
+ */
+@WebListener
+public class AppContextListener implements ServletContextListener {
+
+    @Override
+    public void contextInitialized(ServletContextEvent event) {
+        // Schedules the first partition check; it runs on the executor, not during startup.
+        PartitionManager.getInstance();
+        // The services register their retention policies when created, before the first scheduled run.
+        RetentionEngine.getInstance();
+        TrafficService.getInstance();
+        SafetyService.getInstance();
+        EnvironmentalService.getInstance();
+        UtilityService.getInstance();
+    }
+
+    @Override
+    public void contextDestroyed(ServletContextEvent event) {
+        // Write buffered readings while the executor and pool are still running.
+        IngestionService.shutdownInstance();
+        ServiceExecutor.shutdown();
+        ConnectionPool.shutdownInstance();
+    }
+}
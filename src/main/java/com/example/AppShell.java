@@ -1,9 +1,12 @@
 package com.example;
 
 import com.vaadin.flow.component.page.AppShellConfigurator;
+import com.vaadin.flow.component.page.Push;
 import com.vaadin.flow.server.PWA;
 
 
+// Push lets controllers deliver results of background queries through UI.access
+@Push
 @PWA(name = "My Application", shortName = "My Application")
 public class AppShell implements AppShellConfigurator {
     
@@ -0,0 +1,162 @@
+package com.example;
+
+import com.example.model.EnvironmentalService.AirQualityReading;
+import com.example.model.EnvironmentalService.NoiseLevelReading;
+import com.example.model.IngestionService;
+import com.example.model.JunctionState;
+import com.example.model.ParkingSpot;
+import com.example.model.PowerReading;
+
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Accepts sensor readings and live traffic/parking state from feeders and hands them to the
+ * {@link IngestionService}, which writes them in batches. POST one of
+ * <ul>
+ *   <li>{@code /ingest/power}: {@code reading_date,power_consumed,fault_detected}</li>
+ *   <li>{@code /ingest/air-quality}: {@code timestamp,location,pm25_level,pm10_level,ozone_level,quality_index}</li>
+ *   <li>{@code /ingest/noise}: {@code timestamp,location,decibel_level,zone_type,exceeds_limit}</li>
+ *   <li>{@code /ingest/junctions}: {@code junction_id,lane_1..lane_4,green_lane_id[,last_updated]}</li>
+ *   <li>{@code /ingest/parking}: {@code spot_id,location_description,is_occupied[,last_updated]}</li>
+ * </ul>
+ * with one comma-separated row per line and no header. Timestamps are {@code yyyy-MM-dd HH:mm:ss}
+ * or ISO-8601; an empty {@code last_updated} means now. A request with a malformed line is
+ * rejected as a whole with 400. Accepted rows are answered with 202: they are written with the
+ * next batch, not before the response.
+ */
+@WebServlet("/ingest/*")
+public class IngestServlet extends HttpServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Set<String> TARGETS = Set.of("power", "air-quality", "noise", "junctions", "parking");
+
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String kind = request.getPathInfo() == null ? "" : request.getPathInfo().substring(1);
+        if (!TARGETS.contains(kind)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, "Unknown ingest target: " + kind);
+            return;
+        }
+        IngestionService ingestion = IngestionService.getInstance();
+        List<Runnable> submissions = new ArrayList<>();
+        int lineNumber = 0;
+        try (BufferedReader reader = request.getReader()) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                String[] fields = line.split(",", -1);
+                switch (kind) {
+                    case "power":
+                        submissions.add(submit(ingestion::submitPowerReading, parsePowerReading(fields)));
+                        break;
+                    case "air-quality":
+                        submissions.add(submit(ingestion::submitAirQualityReading, parseAirQualityReading(fields)));
+                        break;
+                    case "noise":
+                        submissions.add(submit(ingestion::submitNoiseLevelReading, parseNoiseLevelReading(fields)));
+                        break;
+                    case "junctions":
+                        submissions.add(submit(ingestion::submitJunctionState, parseJunctionState(fields)));
+                        break;
+                    case "parking":
+                        submissions.add(submit(ingestion::submitParkingSpot, parseParkingSpot(fields)));
+                        break;
+                    default:
+                        throw new IllegalStateException(kind);
+                }
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Line " + lineNumber + ": " + e.getMessage());
+            return;
+        }
+
+        submissions.forEach(Runnable::run);
+        response.setStatus(HttpServletResponse.SC_ACCEPTED);
+        response.setContentType("text/plain; charset=utf-8");
+        response.getWriter().write(submissions.size() + " row(s) accepted\n");
+    }
+
+    private static <T> Runnable submit(Consumer<T> target, T row) {
+        return () -> target.accept(row);
+    }
+
+    private static PowerReading parsePowerReading(String[] fields) {
+        expectFields(fields, 3, 3);
+        return new PowerReading(LocalDate.parse(fields[0].trim()), Double.parseDouble(fields[1].trim()),
+                parseBoolean(fields[2]));
+    }
+
+    private static AirQualityReading parseAirQualityReading(String[] fields) {
+        expectFields(fields, 6, 6);
+        return new AirQualityReading(0, parseDateTime(fields[0]), fields[1].trim(),
+                Double.parseDouble(fields[2].trim()), Double.parseDouble(fields[3].trim()),
+                Double.parseDouble(fields[4].trim()), fields[5].trim());
+    }
+
+    private static NoiseLevelReading parseNoiseLevelReading(String[] fields) {
+        expectFields(fields, 5, 5);
+        return new NoiseLevelReading(0, parseDateTime(fields[0]), fields[1].trim(),
+                Double.parseDouble(fields[2].trim()), fields[3].trim(), parseBoolean(fields[4]));
+    }
+
+    private static JunctionState parseJunctionState(String[] fields) {
+        expectFields(fields, 6, 7);
+        return new JunctionState(fields[0].trim(), Integer.parseInt(fields[1].trim()), Integer.parseInt(fields[2].trim()),
+                Integer.parseInt(fields[3].trim()), Integer.parseInt(fields[4].trim()), Integer.parseInt(fields[5].trim()),
+                parseOptionalTimestamp(fields, 6));
+    }
+
+    private static ParkingSpot parseParkingSpot(String[] fields) {
+        expectFields(fields, 3, 4);
+        String description = fields[1].trim();
+        return new ParkingSpot(fields[0].trim(), description.isEmpty() ? null : description, parseBoolean(fields[2]),
+                parseOptionalTimestamp(fields, 3));
+    }
+
+    private static void expectFields(String[] fields, int min, int max) {
+        if (fields.length < min || fields.length > max) {
+            throw new IllegalArgumentException("expected " + (min == max ? String.valueOf(min) : min + " to " + max)
+                    + " fields, got " + fields.length);
+        }
+    }
+
+    private static LocalDateTime parseDateTime(String value) {
+        return LocalDateTime.parse(value.trim().replace(' ', 'T'));
+    }
+
+    private static Timestamp parseOptionalTimestamp(String[] fields, int index) {
+        if (fields.length <= index || fields[index].isBlank()) {
+            return null;
+        }
+        return Timestamp.valueOf(parseDateTime(fields[index]));
+    }
+
+    private static boolean parseBoolean(String value) {
+        String trimmed = value.trim();
+        if (trimmed.equalsIgnoreCase("true") || trimmed.equals("1")) {
+            return true;
+        }
+        if (trimmed.equalsIgnoreCase("false") || trimmed.equals("0")) {
+            return false;
+        }
+        throw new IllegalArgumentException("not a boolean: " + trimmed);
+    }
+}
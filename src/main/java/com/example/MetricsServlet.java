@@ -0,0 +1,211 @@
+package com.example;
+
+import com.example.model.ConnectionPool;
+import com.example.model.DataFeed;
+import com.example.model.DataFeeds;
+import com.example.model.IngestionService;
+import com.example.model.RetentionEngine;
+import com.example.model.ServiceMetrics;
+import com.example.model.ServiceMetrics.MethodStats;
+import com.example.model.SlowQueryLog;
+import com.example.model.StatementCache;
+import com.example.model.TtlCache;
+
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serves service call metrics, plus pool, slow query, cache, feed, ingestion and retention counters, in the
+ * Prometheus text exposition format. The exact mapping takes precedence over Vaadin's
+ * {@code /*} servlet.
+ */
+@WebServlet("/metrics")
+public class MetricsServlet extends HttpServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final double[] QUANTILES = {0.5, 0.95, 0.99};
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        StringBuilder out = new StringBuilder(16 * 1024);
+        writeServiceMetrics(out);
+        writePoolMetrics(out);
+        writeSlowQueryMetrics(out);
+        writeCacheMetrics(out);
+        writeFeedMetrics(out);
+        writeIngestionMetrics(out);
+        writeRetentionMetrics(out);
+
+        response.setContentType("text/plain; version=0.0.4; charset=utf-8");
+        response.setHeader("Cache-Control", "no-store");
+        response.getWriter().write(out.toString());
+    }
+
+    private static void writeServiceMetrics(StringBuilder out) {
+        List<MethodStats> stats = ServiceMetrics.getStats();
+        double[] bounds = ServiceMetrics.getBucketBounds();
+
+        header(out, "smartcity_service_call_duration_seconds", "histogram", "Latency of service method calls.");
+        for (MethodStats method : stats) {
+            String labels = methodLabels(method);
+            long[] buckets = method.getCumulativeBuckets();
+            for (int i = 0; i < bounds.length; i++) {
+                sample(out, "smartcity_service_call_duration_seconds_bucket",
+                        labels + ",le=\"" + bounds[i] + "\"", buckets[i]);
+            }
+            sample(out, "smartcity_service_call_duration_seconds_bucket", labels + ",le=\"+Inf\"", method.getCalls());
+            sample(out, "smartcity_service_call_duration_seconds_sum", labels, method.getTotalSeconds());
+            sample(out, "smartcity_service_call_duration_seconds_count", labels, method.getCalls());
+        }
+
+        header(out, "smartcity_service_call_duration_quantile_seconds", "gauge",
+                "Latency quantiles since startup, estimated from the histogram buckets.");
+        for (MethodStats method : stats) {
+            for (double quantile : QUANTILES) {
+                sample(out, "smartcity_service_call_duration_quantile_seconds",
+                        methodLabels(method) + ",quantile=\"" + quantile + "\"", method.getQuantileSeconds(quantile));
+            }
+        }
+
+        header(out, "smartcity_service_calls_total", "counter", "Service method calls.");
+        for (MethodStats method : stats) {
+            sample(out, "smartcity_service_calls_total", methodLabels(method), method.getCalls());
+        }
+        header(out, "smartcity_service_errors_total", "counter", "Service method calls that failed.");
+        for (MethodStats method : stats) {
+            sample(out, "smartcity_service_errors_total", methodLabels(method), method.getErrors());
+        }
+        header(out, "smartcity_service_rows_total", "counter", "Rows returned or changed by service method calls.");
+        for (MethodStats method : stats) {
+            sample(out, "smartcity_service_rows_total", methodLabels(method), method.getRows());
+        }
+    }
+
+    private static void writePoolMetrics(StringBuilder out) {
+        ConnectionPool pool = ConnectionPool.getInstance();
+        header(out, "smartcity_db_pool_connections", "gauge", "Pooled database connections by state.");
+        sample(out, "smartcity_db_pool_connections", "state=\"active\"", pool.getActiveConnections());
+        sample(out, "smartcity_db_pool_connections", "state=\"idle\"", pool.getIdleConnections());
+        header(out, "smartcity_db_pool_max_connections", "gauge", "Maximum pool size.");
+        sample(out, "smartcity_db_pool_max_connections", null, pool.getMaxPoolSize());
+        header(out, "smartcity_db_pool_waiting_threads", "gauge", "Threads waiting for a connection.");
+        sample(out, "smartcity_db_pool_waiting_threads", null, pool.getWaitingThreads());
+
+        header(out, "smartcity_statement_cache_requests_total", "counter", "Prepared statement requests by cache result.");
+        sample(out, "smartcity_statement_cache_requests_total", "result=\"hit\"", StatementCache.getHits());
+        sample(out, "smartcity_statement_cache_requests_total", "result=\"miss\"", StatementCache.getMisses());
+        header(out, "smartcity_statement_cache_evictions_total", "counter", "Prepared statements evicted from a cache.");
+        sample(out, "smartcity_statement_cache_evictions_total", null, StatementCache.getEvictions());
+    }
+
+    private static void writeSlowQueryMetrics(StringBuilder out) {
+        header(out, "smartcity_slow_queries_total", "counter",
+                "Statements over DB_SLOW_QUERY_MS, by fingerprint id as printed in the slow query log.");
+        for (SlowQueryLog.SlowQuery query : SlowQueryLog.getSlowQueries()) {
+            sample(out, "smartcity_slow_queries_total", "fingerprint=\"" + query.getId() + "\"", query.getCount());
+        }
+        header(out, "smartcity_slow_query_max_seconds", "gauge", "Slowest run of a slow fingerprint.");
+        for (SlowQueryLog.SlowQuery query : SlowQueryLog.getSlowQueries()) {
+            sample(out, "smartcity_slow_query_max_seconds", "fingerprint=\"" + query.getId() + "\"", query.getMaxSeconds());
+        }
+    }
+
+    private static void writeCacheMetrics(StringBuilder out) {
+        List<TtlCache<?, ?>> caches = TtlCache.getConfiguredCaches();
+        header(out, "smartcity_read_cache_requests_total", "counter", "Read-through cache requests by result.");
+        for (TtlCache<?, ?> cache : caches) {
+            sample(out, "smartcity_read_cache_requests_total", cacheLabel(cache) + ",result=\"hit\"", cache.getHits());
+            sample(out, "smartcity_read_cache_requests_total", cacheLabel(cache) + ",result=\"miss\"", cache.getMisses());
+        }
+        header(out, "smartcity_read_cache_evictions_total", "counter", "Read-through cache entries evicted for size.");
+        for (TtlCache<?, ?> cache : caches) {
+            sample(out, "smartcity_read_cache_evictions_total", cacheLabel(cache), cache.getEvictions());
+        }
+        header(out, "smartcity_read_cache_entries", "gauge", "Entries held by a read-through cache.");
+        for (TtlCache<?, ?> cache : caches) {
+            sample(out, "smartcity_read_cache_entries", cacheLabel(cache), cache.size());
+        }
+    }
+
+    private static void writeFeedMetrics(StringBuilder out) {
+        header(out, "smartcity_feed_subscribers", "gauge", "Views subscribed to a live feed.");
+        for (DataFeed<?> feed : DataFeeds.getInstance().all()) {
+            sample(out, "smartcity_feed_subscribers", "feed=\"" + escape(feed.getName()) + "\"", feed.getSubscriberCount());
+        }
+    }
+
+    private static void writeIngestionMetrics(StringBuilder out) {
+        Map<String, IngestionService.Stats> stats = IngestionService.getStatsIfRunning();
+        header(out, "smartcity_ingest_rows_written_total", "counter", "Rows written by the ingestion service.");
+        stats.forEach((table, s) -> sample(out, "smartcity_ingest_rows_written_total", tableLabel(table), s.getRowsWritten()));
+        header(out, "smartcity_ingest_rows_dropped_total", "counter", "Rows dropped because a buffer was full.");
+        stats.forEach((table, s) -> sample(out, "smartcity_ingest_rows_dropped_total", tableLabel(table), s.getDropped()));
+        header(out, "smartcity_ingest_flush_failures_total", "counter", "Failed buffer flushes.");
+        stats.forEach((table, s) -> sample(out, "smartcity_ingest_flush_failures_total", tableLabel(table), s.getFailures()));
+        header(out, "smartcity_ingest_buffered_rows", "gauge", "Rows waiting to be written.");
+        stats.forEach((table, s) -> sample(out, "smartcity_ingest_buffered_rows", tableLabel(table), s.getBuffered()));
+        header(out, "smartcity_ingest_max_flush_seconds", "gauge", "Slowest buffer flush so far.");
+        stats.forEach((table, s) -> sample(out, "smartcity_ingest_max_flush_seconds", tableLabel(table), s.getMaxFlushMillis() / 1000.0));
+    }
+
+    private static void writeRetentionMetrics(StringBuilder out) {
+        List<RetentionEngine.Progress> runs = RetentionEngine.getInstance().getProgress();
+        header(out, "smartcity_retention_rows_deleted", "gauge",
+                "Rows deleted by the current or last retention run, including estimated rows of dropped partitions.");
+        runs.forEach(run -> sample(out, "smartcity_retention_rows_deleted", policyLabel(run), run.getRowsDeleted()));
+        header(out, "smartcity_retention_rows_per_second", "gauge", "Delete rate of the current or last retention run.");
+        runs.forEach(run -> sample(out, "smartcity_retention_rows_per_second", policyLabel(run), run.getRowsPerSecond()));
+        header(out, "smartcity_retention_throttled_seconds", "gauge", "Time the run spent waiting for the connection pool.");
+        runs.forEach(run -> sample(out, "smartcity_retention_throttled_seconds", policyLabel(run), run.getThrottledMillis() / 1000.0));
+        header(out, "smartcity_retention_running", "gauge", "1 while a retention run is in progress.");
+        runs.forEach(run -> sample(out, "smartcity_retention_running", policyLabel(run), run.isRunning() ? 1 : 0));
+        header(out, "smartcity_retention_failed", "gauge", "1 when the last retention run failed.");
+        runs.forEach(run -> sample(out, "smartcity_retention_failed", policyLabel(run), run.getError() != null ? 1 : 0));
+    }
+
+    private static String methodLabels(MethodStats method) {
+        return "service=\"" + escape(method.getService()) + "\",method=\"" + escape(method.getMethod()) + "\"";
+    }
+
+    private static String cacheLabel(TtlCache<?, ?> cache) {
+        return "cache=\"" + escape(cache.getName()) + "\"";
+    }
+
+    private static String policyLabel(RetentionEngine.Progress run) {
+        return "policy=\"" + escape(run.getPolicy()) + "\"," + tableLabel(run.getTable());
+    }
+
+    private static String tableLabel(String table) {
+        return "table=\"" + escape(table) + "\"";
+    }
+
+    private static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, double value) {
+        out.append(name);
+        if (labels != null) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ');
+        if (value == Math.rint(value) && !Double.isInfinite(value) && Math.abs(value) < 1e15) {
+            out.append((long) value);
+        } else {
+            out.append(value);
+        }
+        out.append('\n');
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -23,6 +23,7 @@ import com.vaadin.flow.component.tabs.Tabs;
 import com.vaadin.flow.component.textfield.IntegerField;
 import com.vaadin.flow.component.textfield.TextArea;
 import com.vaadin.flow.component.textfield.TextField;
+import com.vaadin.flow.data.provider.CallbackDataProvider;
 import com.vaadin.flow.router.Route;
 
 import java.util.List;
@@ -212,19 +213,8 @@ public class PublicSafetyManagementView extends VerticalLayout {
         // Add components to main layout
         add(title, tabs, new Hr(), dataManagementLayout);
         
-        // Initialize service and verify database tables
-        SafetyService safetyService = SafetyService.getInstance();
-        boolean tablesVerified = safetyService.verifyDatabaseTables();
-        if (tablesVerified) {
-            Notification.show("Database tables verified successfully", 3000, Notification.Position.BOTTOM_START);
-        } else {
-            Notification.show("Failed to verify database tables. Check console for details.", 
-                             5000, Notification.Position.BOTTOM_START)
-                        .addThemeVariants(NotificationVariant.LUMO_ERROR);
-        }
-        
-        // Initialize controller
-        new SafetyController(safetyService, this);
+        // Initialize controller (it verifies the database tables in the background)
+        new SafetyController(SafetyService.getInstance(), this);
         
         // Style the emergency grid
         styleEmergencyGrid();
@@ -301,8 +291,17 @@ public class PublicSafetyManagementView extends VerticalLayout {
     
     // --- Setters and UI update methods ---
     
-    public void updateEmergencyList(List<Emergency> emergencies) {
-        emergencyGrid.setItems(emergencies);
+    /**
+     * Backs the emergency grid with lazy callbacks so it only loads the rows it displays.
+     */
+    public void setEmergencyItems(CallbackDataProvider.FetchCallback<Emergency, Void> fetch,
+                                  CallbackDataProvider.CountCallback<Emergency, Void> count) {
+        emergencyGrid.setItems(fetch, count)
+                .setIdentifierProvider(Emergency::getId); // keeps the selection across page reloads
+    }
+
+    public void refreshEmergencyList() {
+        emergencyGrid.getLazyDataView().refreshAll();
     }
     
     public void updateWeatherAlertList(List<WeatherAlert> alerts) {
@@ -357,6 +356,16 @@ public class PublicSafetyManagementView extends VerticalLayout {
         weatherAlertSeverityField.setValue(3);
     }
     
+    public void showTableVerificationResult(boolean tablesVerified) {
+        if (tablesVerified) {
+            Notification.show("Database tables verified successfully", 3000, Notification.Position.BOTTOM_START);
+        } else {
+            Notification.show("Failed to verify database tables. Check console for details.", 
+                             5000, Notification.Position.BOTTOM_START)
+                        .addThemeVariants(NotificationVariant.LUMO_ERROR);
+        }
+    }
+    
     public void showNotification(String message, boolean isError) {
         Notification notification = Notification.show(message, 3000, Notification.Position.MIDDLE);
         if (isError) {
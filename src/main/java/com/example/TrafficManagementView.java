@@ -18,13 +18,18 @@ import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
 import com.vaadin.flow.component.icon.Icon;
 import com.vaadin.flow.component.icon.VaadinIcon;
+import com.vaadin.flow.component.virtuallist.VirtualList;
+import com.vaadin.flow.data.provider.CallbackDataProvider;
+import com.vaadin.flow.data.renderer.ComponentRenderer;
 import com.vaadin.flow.router.PageTitle;
 import com.vaadin.flow.router.Route;
 
 import java.time.format.DateTimeFormatter;
-import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
 @Route("traffic")
 @PageTitle("Traffic & Parking Management")
@@ -34,6 +39,10 @@ public class TrafficManagementView extends VerticalLayout {
     private final Button backButton;
     private final VerticalLayout junctionDisplayLayout;
     private final VerticalLayout parkingDisplayLayout;
+    private final Paragraph parkingPlaceholder;
+    private final H2 parkingHeader;
+    private final VirtualList<ParkingSpot> parkingList;
+    private final Map<String, JunctionCard> junctionCards = new HashMap<>();
 
     private static final DateTimeFormatter dtf = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
@@ -57,14 +66,22 @@ public class TrafficManagementView extends VerticalLayout {
         junctionDisplayLayout.setWidth("100%");
         junctionDisplayLayout.add(new Paragraph("Click 'Refresh Data' to load junction status..."));
 
+        parkingPlaceholder = new Paragraph("Click 'Show Parking' to load status...");
+        parkingHeader = new H2();
+        parkingHeader.setVisible(false);
+
+        // Virtualized: only the rows scrolled into view exist as components, fetched page by page.
+        parkingList = new VirtualList<>();
+        parkingList.setRenderer(new ComponentRenderer<>(TrafficManagementView::createSpotRow));
+        parkingList.setWidthFull();
+        parkingList.setHeight("400px");
+        parkingList.setVisible(false);
+
         parkingDisplayLayout = new VerticalLayout();
         parkingDisplayLayout.setSpacing(true);
         parkingDisplayLayout.setPadding(false);
         parkingDisplayLayout.setWidth("100%");
-        parkingDisplayLayout.add(new Paragraph("Click 'Show Parking' to load status..."));
-        parkingDisplayLayout.getStyle()
-                .set("max-height", "400px")
-                .set("overflow-y", "auto");
+        parkingDisplayLayout.add(parkingPlaceholder, parkingHeader, parkingList);
 
         refreshButton = new Button("Refresh Data");
         parkingButton = new Button("Show Parking");
@@ -95,115 +112,180 @@ public class TrafficManagementView extends VerticalLayout {
         new TrafficController(TrafficService.getInstance(), this);
     }
 
+    /**
+     * Updates the junction cards in place. Each junction id keeps one card; only lanes whose
+     * vehicle count or green state changed are touched, and cards are only added or removed
+     * when junctions appear or disappear.
+     */
     public void updateJunctionDisplay(Map<String, JunctionState> latestJunctions) {
-        junctionDisplayLayout.removeAll();
         if (latestJunctions == null || latestJunctions.isEmpty()) {
+            junctionCards.clear();
+            junctionDisplayLayout.removeAll();
             junctionDisplayLayout.add(new Paragraph("No junction data available."));
             return;
         }
 
-        latestJunctions.values().stream()
-                .sorted(Comparator.comparing(JunctionState::getJunctionId))
-                .forEach(state -> {
-                    VerticalLayout junctionLayout = new VerticalLayout();
-                    junctionLayout.setSpacing(false);
-                    junctionLayout.setPadding(false);
-                    junctionLayout.setWidth("100%");
-                    junctionLayout.getStyle().set("border", "1px solid #eee").set("padding", "10px").set("margin-bottom", "10px");
-
-                    junctionLayout.add(new Span("Junction: " + state.getJunctionId() +
-                            " (Updated: " + (state.getLastUpdated() != null ? state.getLastUpdated().format(dtf) : "N/A") + ")"));
-
-                    HorizontalLayout lanesLayout = new HorizontalLayout();
-                    lanesLayout.setSpacing(true);
-                    lanesLayout.setWidthFull();
-
-                    Span lane1 = createLaneSpan(1, state.getLane1Vehicles(), state.getGreenLaneId());
-                    Span lane2 = createLaneSpan(2, state.getLane2Vehicles(), state.getGreenLaneId());
-                    Span lane3 = createLaneSpan(3, state.getLane3Vehicles(), state.getGreenLaneId());
-                    Span lane4 = createLaneSpan(4, state.getLane4Vehicles(), state.getGreenLaneId());
-
-                    lanesLayout.add(lane1, lane2, lane3, lane4);
-                    lanesLayout.setJustifyContentMode(JustifyContentMode.BETWEEN);
-
-                    junctionLayout.add(lanesLayout);
-                    junctionDisplayLayout.add(junctionLayout);
-                });
+        if (junctionCards.isEmpty()) {
+            // Drop the placeholder or "no data" message before the first cards go in.
+            junctionDisplayLayout.removeAll();
+        }
+
+        junctionCards.entrySet().removeIf(entry -> {
+            if (latestJunctions.containsKey(entry.getKey())) {
+                return false;
+            }
+            junctionDisplayLayout.remove(entry.getValue());
+            return true;
+        });
+
+        List<String> sortedIds = latestJunctions.keySet().stream().sorted().collect(Collectors.toList());
+        for (int index = 0; index < sortedIds.size(); index++) {
+            String junctionId = sortedIds.get(index);
+            JunctionCard card = junctionCards.get(junctionId);
+            if (card == null) {
+                // Existing cards stay sorted, so the sorted position is also the layout index.
+                card = new JunctionCard();
+                junctionCards.put(junctionId, card);
+                junctionDisplayLayout.addComponentAtIndex(index, card);
+            }
+            card.update(latestJunctions.get(junctionId));
+        }
     }
 
-    private Span createLaneSpan(int laneId, int vehicleCount, int greenLaneId) {
-        Span laneSpan = new Span(String.format("Lane %d: %d vehicles", laneId, vehicleCount));
-        laneSpan.getStyle()
-                .set("border", "1px solid #ccc")
-                .set("padding", "8px")
-                .set("border-radius", "4px")
-                .set("text-align", "center")
-                .set("flex-grow", "1");
-
-        if (laneId == greenLaneId) {
-            laneSpan.getStyle()
-                    .set("background-color", "#90EE90")
-                    .set("font-weight", "bold")
-                    .set("border-color", "#2E8B57");
-        } else {
-            laneSpan.getStyle().set("background-color", "#f0f0f0");
+    /**
+     * The card for one junction: a header and four lane spans that are reused across updates.
+     */
+    private static final class JunctionCard extends VerticalLayout {
+        private final Span header = new Span();
+        private final Span[] lanes = new Span[4];
+        private JunctionState shown;
+
+        private JunctionCard() {
+            setSpacing(false);
+            setPadding(false);
+            setWidth("100%");
+            getStyle().set("border", "1px solid #eee").set("padding", "10px").set("margin-bottom", "10px");
+
+            HorizontalLayout lanesLayout = new HorizontalLayout();
+            lanesLayout.setSpacing(true);
+            lanesLayout.setWidthFull();
+            for (int i = 0; i < lanes.length; i++) {
+                lanes[i] = new Span();
+                lanes[i].getStyle()
+                        .set("border", "1px solid #ccc")
+                        .set("padding", "8px")
+                        .set("border-radius", "4px")
+                        .set("text-align", "center")
+                        .set("flex-grow", "1");
+                lanesLayout.add(lanes[i]);
+            }
+            lanesLayout.setJustifyContentMode(JustifyContentMode.BETWEEN);
+
+            add(header, lanesLayout);
+        }
+
+        private void update(JunctionState state) {
+            if (state.equals(shown)) {
+                return;
+            }
+            if (shown == null || !Objects.equals(shown.getLastUpdated(), state.getLastUpdated())) {
+                header.setText("Junction: " + state.getJunctionId() +
+                        " (Updated: " + (state.getLastUpdated() != null ? state.getLastUpdated().format(dtf) : "N/A") + ")");
+            }
+
+            int[] counts = laneCounts(state);
+            int[] shownCounts = shown != null ? laneCounts(shown) : null;
+            for (int i = 0; i < lanes.length; i++) {
+                int laneId = i + 1;
+                if (shownCounts == null || shownCounts[i] != counts[i]) {
+                    lanes[i].setText(String.format("Lane %d: %d vehicles", laneId, counts[i]));
+                }
+                boolean green = laneId == state.getGreenLaneId();
+                if (shown == null || green != (laneId == shown.getGreenLaneId())) {
+                    styleLane(lanes[i], green);
+                }
+            }
+            shown = state;
+        }
+
+        private static int[] laneCounts(JunctionState state) {
+            return new int[] {
+                    state.getLane1Vehicles(), state.getLane2Vehicles(),
+                    state.getLane3Vehicles(), state.getLane4Vehicles()
+            };
+        }
+
+        private static void styleLane(Span laneSpan, boolean green) {
+            if (green) {
+                laneSpan.getStyle()
+                        .set("background-color", "#90EE90")
+                        .set("font-weight", "bold")
+                        .set("border-color", "#2E8B57");
+            } else {
+                laneSpan.getStyle()
+                        .set("background-color", "#f0f0f0")
+                        .remove("font-weight")
+                        .set("border-color", "#ccc");
+            }
         }
-        return laneSpan;
     }
 
-    public void displayParkingInfo(List<ParkingSpot> spots) {
-        parkingDisplayLayout.removeAll();
+    public void showParkingAvailability(int availableCount, int totalCount) {
+        boolean hasSpots = totalCount > 0;
+        parkingPlaceholder.setText("No parking spot data available.");
+        parkingPlaceholder.setVisible(!hasSpots);
+        parkingHeader.setText(String.format("Parking Availability (%d / %d Available)", availableCount, totalCount));
+        parkingHeader.setVisible(hasSpots);
+        parkingList.setVisible(hasSpots);
+    }
 
-        if (spots == null || spots.isEmpty()) {
-            parkingDisplayLayout.add(new Paragraph("No parking spot data available."));
-            return;
+    public void setParkingItems(CallbackDataProvider.FetchCallback<ParkingSpot, Void> fetch,
+                                CallbackDataProvider.CountCallback<ParkingSpot, Void> count) {
+        parkingList.setItems(fetch, count)
+                .setIdentifierProvider(ParkingSpot::getSpotId); // rows keep their identity across refreshes
+    }
+
+    public void refreshParkingList() {
+        parkingList.getLazyDataView().refreshAll();
+    }
+
+    // Only rows in the list's visible range are rendered, so this runs per visible spot.
+    private static HorizontalLayout createSpotRow(ParkingSpot spot) {
+        HorizontalLayout spotLayout = new HorizontalLayout();
+        spotLayout.setWidthFull();
+        spotLayout.setAlignItems(Alignment.CENTER);
+        spotLayout.getStyle()
+                .set("border-bottom", "1px solid #eee")
+                .set("padding", "10px 0");
+
+        Icon statusIcon;
+        Span statusText = new Span();
+        statusText.getStyle().set("font-weight", "bold");
+
+        if (spot.isOccupied()) {
+            statusIcon = VaadinIcon.CLOSE_CIRCLE.create();
+            statusIcon.setColor("red");
+            statusText.setText("Occupied");
+            statusText.getStyle().set("color", "red");
+        } else {
+            statusIcon = VaadinIcon.CHECK_CIRCLE.create();
+            statusIcon.setColor("green");
+            statusText.setText("Available");
+            statusText.getStyle().set("color", "green");
         }
 
-        long availableCount = spots.stream().filter(s -> !s.isOccupied()).count();
-        long totalCount = spots.size();
-
-        H2 parkingHeader = new H2(String.format("Parking Availability (%d / %d Available)", availableCount, totalCount));
-        parkingDisplayLayout.add(parkingHeader);
-
-        spots.stream()
-                .sorted(Comparator.comparing(ParkingSpot::getSpotId))
-                .forEach(spot -> {
-                    HorizontalLayout spotLayout = new HorizontalLayout();
-                    spotLayout.setWidthFull();
-                    spotLayout.setAlignItems(Alignment.CENTER);
-                    spotLayout.getStyle()
-                            .set("border-bottom", "1px solid #eee")
-                            .set("padding", "10px 0");
-
-                    Icon statusIcon;
-                    Span statusText = new Span();
-                    statusText.getStyle().set("font-weight", "bold");
-
-                    if (spot.isOccupied()) {
-                        statusIcon = VaadinIcon.CLOSE_CIRCLE.create();
-                        statusIcon.setColor("red");
-                        statusText.setText("Occupied");
-                        statusText.getStyle().set("color", "red");
-                    } else {
-                        statusIcon = VaadinIcon.CHECK_CIRCLE.create();
-                        statusIcon.setColor("green");
-                        statusText.setText("Available");
-                        statusText.getStyle().set("color", "green");
-                    }
-
-                    String description = spot.getLocationDescription() != null && !spot.getLocationDescription().isEmpty()
-                            ? " (" + spot.getLocationDescription() + ")" : "";
-                    Span spotIdSpan = new Span(spot.getSpotId() + description);
-                    spotIdSpan.getStyle().set("flex-grow", "1");
-
-                    String updatedTime = spot.getLastUpdated() != null
-                            ? spot.getLastUpdated().format(dtf) : "N/A";
-                    Span timeSpan = new Span("Updated: " + updatedTime);
-                    timeSpan.getStyle().set("font-size", "small").set("color", "gray");
-
-                    spotLayout.add(statusIcon, statusText, spotIdSpan, timeSpan);
-                    parkingDisplayLayout.add(spotLayout);
-                });
+        String description = spot.getLocationDescription() != null && !spot.getLocationDescription().isEmpty()
+                ? " (" + spot.getLocationDescription() + ")" : "";
+        Span spotIdSpan = new Span(spot.getSpotId() + description);
+        spotIdSpan.getStyle().set("flex-grow", "1");
+
+        String updatedTime = spot.getLastUpdated() != null
+                ? spot.getLastUpdated().format(dtf) : "N/A";
+        Span timeSpan = new Span("Updated: " + updatedTime);
+        timeSpan.getStyle().set("font-size", "small").set("color", "gray");
+
+        spotLayout.add(statusIcon, statusText, spotIdSpan, timeSpan);
+        return spotLayout;
     }
 
     public void showNotification(String message, boolean isError) {
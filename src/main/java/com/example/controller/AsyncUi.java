@@ -0,0 +1,48 @@
+package com.example.controller;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.UIDetachedException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+/**
+ * Applies the result of an asynchronous service call to a view through {@link UI#access},
+ * which takes the session lock and pushes the change to the browser.
+ */
+final class AsyncUi {
+
+    private AsyncUi() {
+    }
+
+    static <T> void deliver(UI ui, CompletableFuture<T> future, Consumer<T> onResult, Consumer<Throwable> onError) {
+        future.whenComplete((result, error) -> push(ui, () -> {
+            if (error != null) {
+                Throwable cause = unwrap(error);
+                cause.printStackTrace();
+                onError.accept(cause);
+            } else {
+                onResult.accept(result);
+            }
+        }));
+    }
+
+    /**
+     * Runs {@code update} under the UI's session lock from a background thread.
+     */
+    static void push(UI ui, Runnable update) {
+        if (ui == null) {
+            return;
+        }
+        try {
+            ui.access(update::run);
+        } catch (UIDetachedException e) {
+            // The user navigated away before the query finished; nothing left to update.
+        }
+    }
+
+    static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+}
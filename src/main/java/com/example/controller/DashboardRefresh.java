@@ -0,0 +1,169 @@
+package com.example.controller;
+
+import com.vaadin.flow.component.UI;
+
+import io.github.cdimascio.dotenv.Dotenv;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Refreshes the independent panels of one view concurrently.
+ * <p>
+ * Every part's query is started as soon as it is added. {@link #join} waits until all parts
+ * have finished or the view's deadline has passed, whichever comes first, and then applies
+ * the finished parts in a single {@link UI#access} call. Parts still running at the deadline
+ * are reported as timed out and applied on their own once they do finish, so one slow source
+ * no longer holds back the rest of the page.
+ * <p>
+ * The deadline is read from {@code <VIEW>_REFRESH_DEADLINE_MS}, falling back to
+ * {@code DASHBOARD_REFRESH_DEADLINE_MS} (default 3000 ms).
+ */
+final class DashboardRefresh {
+
+    private static final long DEFAULT_DEADLINE_MS;
+
+    static {
+        Dotenv dotenv = Dotenv.configure().ignoreIfMissing().load();
+        DEFAULT_DEADLINE_MS = Long.parseLong(dotenv.get("DASHBOARD_REFRESH_DEADLINE_MS", "3000"));
+    }
+
+    private final UI ui;
+    private final long deadlineMillis;
+    private final List<Part<?>> parts = new ArrayList<>();
+
+    DashboardRefresh(UI ui, long deadlineMillis) {
+        this.ui = ui;
+        this.deadlineMillis = deadlineMillis;
+    }
+
+    /**
+     * @param view view prefix of the override key, e.g. {@code "ENVIRONMENTAL"}
+     * @return the refresh deadline for that view in milliseconds
+     */
+    static long deadlineFor(String view) {
+        Dotenv dotenv = Dotenv.configure().ignoreIfMissing().load();
+        String configured = dotenv.get(view + "_REFRESH_DEADLINE_MS");
+        return configured == null ? DEFAULT_DEADLINE_MS : Long.parseLong(configured);
+    }
+
+    /**
+     * Adds a panel to the refresh.
+     *
+     * @param name shown to the user when this part times out or fails
+     * @param source the already started query
+     * @param onResult applies the result to the view; always called on the UI thread
+     */
+    <T> Part<T> add(String name, CompletableFuture<T> source, Consumer<T> onResult) {
+        Part<T> part = new Part<>(name, source, onResult);
+        parts.add(part);
+        return part;
+    }
+
+    /**
+     * Waits for the parts up to the deadline, applies what has arrived and then calls
+     * {@code onJoined} with the outcome. Both happen inside the same {@link UI#access}.
+     */
+    void join(Consumer<Summary> onJoined) {
+        CompletableFuture<?>[] settled = parts.stream()
+                .map(part -> part.source.handle((value, error) -> null))
+                .toArray(CompletableFuture[]::new);
+
+        CompletableFuture<Void> joined = CompletableFuture.allOf(settled)
+                .completeOnTimeout(null, deadlineMillis, TimeUnit.MILLISECONDS);
+
+        AsyncUi.deliver(ui, joined, ignored -> {
+            for (Part<?> part : parts) {
+                part.settle();
+            }
+            onJoined.accept(new Summary(parts));
+        }, error -> onJoined.accept(new Summary(parts)));
+    }
+
+    /**
+     * One panel of the refresh. Its state is fixed when the refresh is joined.
+     */
+    final class Part<T> {
+        private final String name;
+        private final CompletableFuture<T> source;
+        private final Consumer<T> onResult;
+        private T value;
+        private Throwable failure;
+        private boolean timedOut;
+
+        private Part(String name, CompletableFuture<T> source, Consumer<T> onResult) {
+            this.name = name;
+            this.source = source;
+            this.onResult = onResult;
+        }
+
+        String getName() { return name; }
+        Optional<T> getValue() { return Optional.ofNullable(value); }
+        Optional<Throwable> getFailure() { return Optional.ofNullable(failure); }
+        boolean isTimedOut() { return timedOut; }
+
+        private void settle() {
+            if (!source.isDone()) {
+                timedOut = true;
+                // Still running: show it whenever it arrives instead of dropping the work.
+                AsyncUi.deliver(ui, source, onResult, error -> { });
+                return;
+            }
+            try {
+                value = source.join();
+            } catch (RuntimeException e) {
+                failure = AsyncUi.unwrap(e);
+                failure.printStackTrace();
+                return;
+            }
+            onResult.accept(value);
+        }
+    }
+
+    /**
+     * Outcome of a joined refresh.
+     */
+    static final class Summary {
+        private final List<String> timedOut = new ArrayList<>();
+        private final List<String> failed = new ArrayList<>();
+
+        private Summary(List<Part<?>> parts) {
+            for (Part<?> part : parts) {
+                if (part.isTimedOut()) {
+                    timedOut.add(part.getName());
+                } else if (part.getFailure().isPresent()) {
+                    failed.add(part.getName());
+                }
+            }
+        }
+
+        boolean isComplete() {
+            return timedOut.isEmpty() && failed.isEmpty();
+        }
+
+        List<String> getTimedOut() { return Collections.unmodifiableList(timedOut); }
+        List<String> getFailed() { return Collections.unmodifiableList(failed); }
+
+        /**
+         * @return e.g. "still loading: noise levels; failed: weather alerts", or "" when complete
+         */
+        String describeIncomplete() {
+            StringBuilder text = new StringBuilder();
+            if (!timedOut.isEmpty()) {
+                text.append("still loading: ").append(String.join(", ", timedOut));
+            }
+            if (!failed.isEmpty()) {
+                if (text.length() > 0) {
+                    text.append("; ");
+                }
+                text.append("failed: ").append(String.join(", ", failed));
+            }
+            return text.toString();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.controller;
+
+import com.example.model.Emergency;
+import com.example.model.SafetyService;
+
+import com.vaadin.flow.data.provider.Query;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Translates the grid's offset/limit requests into keyset-paginated queries.
+ * <p>
+ * After every fetch the last row is remembered as the boundary at the next offset. Scrolling
+ * down asks for the page right after a known boundary and is served by a keyset seek, which
+ * costs O(page) no matter how deep the page is. Only a jump to an unknown position falls back
+ * to an OFFSET query, and that page's boundary is remembered from then on.
+ */
+final class EmergencyPager {
+
+    // Boundaries are cheap, but a grid scrolled through a huge list should not keep them all.
+    private static final int MAX_BOUNDARIES = 1000;
+
+    private final SafetyService service;
+    private final Map<Integer, Emergency> boundaries = new HashMap<>();
+    private Integer prefetchedCount;
+
+    EmergencyPager(SafetyService service) {
+        this.service = service;
+    }
+
+    Stream<Emergency> fetch(Query<Emergency, Void> query) {
+        int offset = query.getOffset();
+        int limit = query.getLimit();
+
+        List<Emergency> page;
+        if (offset == 0) {
+            page = service.getActiveEmergenciesPage(null, limit);
+        } else if (boundaries.containsKey(offset)) {
+            page = service.getActiveEmergenciesPage(boundaries.get(offset), limit);
+        } else {
+            page = service.getActiveEmergenciesAt(offset, limit);
+        }
+
+        if (!page.isEmpty()) {
+            if (boundaries.size() >= MAX_BOUNDARIES) {
+                boundaries.clear();
+            }
+            boundaries.put(offset + page.size(), page.get(page.size() - 1));
+        }
+        return page.stream();
+    }
+
+    int count(Query<Emergency, Void> query) {
+        if (prefetchedCount != null) {
+            int count = prefetchedCount;
+            prefetchedCount = null;
+            return count;
+        }
+        return service.countActiveEmergencies();
+    }
+
+    /**
+     * Forgets all boundaries; call before refreshing the grid because rows may have moved.
+     *
+     * @param count the active emergency count if it was already loaded off the UI thread,
+     *              so the grid's next count request does not query again; null otherwise
+     */
+    void reset(Integer count) {
+        boundaries.clear();
+        prefetchedCount = count;
+    }
+}
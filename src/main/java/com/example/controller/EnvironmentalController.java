@@ -1,61 +1,92 @@
 package com.example.controller;
 
 import com.example.EnvironmentalManagementView;
+import com.example.model.DataFeeds;
 import com.example.model.EnvironmentalService;
 import com.example.model.EnvironmentalService.AirQualityReading;
 import com.example.model.EnvironmentalService.NoiseLevelReading;
 
+import com.vaadin.flow.component.UI;
+
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 public class EnvironmentalController {
 
     private final EnvironmentalService service;
     private final EnvironmentalManagementView view;
+    private final UI ui;
+    private final List<Runnable> subscriptions = new ArrayList<>();
 
     private static final DateTimeFormatter dtf = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final long REFRESH_DEADLINE_MS = DashboardRefresh.deadlineFor("ENVIRONMENTAL");
+    private static final int MAX_ALERTS_SHOWN = 200;
 
     public EnvironmentalController(EnvironmentalService service, EnvironmentalManagementView view) {
         this.service = service;
         this.view = view;
+        this.ui = UI.getCurrent();
 
         this.view.addRefreshButtonListener(e -> handleRefreshClick());
         this.view.addAlertsButtonListener(e -> handleAlertsClick());
         this.view.addReportButtonListener(e -> handleReportClick());
         this.view.addDeleteButtonListener(e -> handleDeleteClick());
 
+        this.view.addDetachListener(e -> stopContinuousUpdates());
+
         handleRefreshClick();
+        startContinuousUpdates();
     }
 
     private void handleRefreshClick() {
-        Map<String, AirQualityReading> airQualityReadings = service.getLatestAirQualityReadings();
-        view.updateAirQualityGrid(airQualityReadings);
-
-        List<NoiseLevelReading> noiseLevelReadings = service.getLatestNoiseLevelReadings();
-        view.updateNoiseLevelGrid(noiseLevelReadings);
-
-        if (airQualityReadings.isEmpty() && noiseLevelReadings.isEmpty()) {
-            view.showNotification("No environmental data available.", true);
-        } else {
-            view.showNotification("Environmental data refreshed successfully.", false);
-        }
+        DashboardRefresh refresh = new DashboardRefresh(ui, REFRESH_DEADLINE_MS);
+        DashboardRefresh.Part<Map<String, AirQualityReading>> airQuality = refresh.add("air quality",
+                service.getLatestAirQualityReadingsAsync(), view::updateAirQualityGrid);
+        DashboardRefresh.Part<List<NoiseLevelReading>> noiseLevels = refresh.add("noise levels",
+                service.getLatestNoiseLevelReadingsAsync(), view::updateNoiseLevelGrid);
+
+        refresh.join(summary -> {
+            if (!summary.isComplete()) {
+                view.showNotification("Environmental data partially refreshed (" + summary.describeIncomplete() + ").", true);
+            } else if (airQuality.getValue().map(Map::isEmpty).orElse(true)
+                    && noiseLevels.getValue().map(List::isEmpty).orElse(true)) {
+                view.showNotification("No environmental data available.", true);
+            } else {
+                view.showNotification("Environmental data refreshed successfully.", false);
+            }
+        });
     }
 
     private void handleAlertsClick() {
         int daysToInclude = view.getSelectedDays();
-        List<AirQualityReading> alerts = service.getAirQualityAlerts(daysToInclude);
 
-        if (alerts.isEmpty()) {
-            view.setAlertsContent("No air quality alerts in the last " + daysToInclude + " days.");
-            return;
-        }
+        AsyncUi.deliver(ui,
+                service.readAirQualityAlertsAsync(daysToInclude, alerts -> formatAlerts(alerts, daysToInclude)),
+                view::setAlertsContent,
+                error -> view.setAlertsContent("Error loading air quality alerts: " + error.getMessage()));
+    }
 
+    /**
+     * Formats alerts as they stream in. Only the newest {@link #MAX_ALERTS_SHOWN} are written
+     * out; the rest are counted, so memory stays bounded however long the window is.
+     */
+    private String formatAlerts(Stream<AirQualityReading> alerts, int daysToInclude) {
         StringBuilder alertsText = new StringBuilder();
         alertsText.append(String.format("Air Quality Alerts (Last %d Days):\n", daysToInclude));
         alertsText.append("--------------------------------------------------\n");
 
-        for (AirQualityReading alert : alerts) {
+        int total = 0;
+        Iterator<AirQualityReading> rows = alerts.iterator();
+        while (rows.hasNext()) {
+            AirQualityReading alert = rows.next();
+            total++;
+            if (total > MAX_ALERTS_SHOWN) {
+                continue;
+            }
             alertsText.append(String.format(
                 "Location: %s\n" +
                 "Time: %s\n" +
@@ -71,7 +102,15 @@ public class EnvironmentalController {
             ));
         }
 
-        view.setAlertsContent(alertsText.toString());
+        if (total == 0) {
+            return "No air quality alerts in the last " + daysToInclude + " days.";
+        }
+        if (total > MAX_ALERTS_SHOWN) {
+            alertsText.append(String.format("... and %d older alerts not shown (%d in total).\n",
+                    total - MAX_ALERTS_SHOWN, total));
+        }
+
+        return alertsText.toString();
     }
 
     private void handleReportClick() {
@@ -83,23 +122,41 @@ public class EnvironmentalController {
             return;
         }
 
-        String report = service.generateAirQualityReport(selectedLocation, daysToInclude);
-        view.setReportContent(report);
+        AsyncUi.deliver(ui, service.generateAirQualityReportAsync(selectedLocation, daysToInclude),
+                view::setReportContent,
+                error -> view.setReportContent("Error generating air quality report: " + error.getMessage()));
     }
 
     private void handleDeleteClick() {
         int daysToKeep = 30;
-        String resultMessage = service.deleteOldEnvironmentalData(daysToKeep);
 
-        boolean isError = resultMessage.toLowerCase().startsWith("error");
-        view.showNotification(resultMessage, isError);
+        AsyncUi.deliver(ui, service.deleteOldEnvironmentalDataAsync(daysToKeep), resultMessage -> {
+            boolean isError = resultMessage.toLowerCase().startsWith("error");
+            view.showNotification(resultMessage, isError);
 
-        if (!isError) {
-            handleRefreshClick();
+            if (!isError) {
+                handleRefreshClick();
+            }
+        }, error -> view.showNotification("Error deleting old environmental data: " + error.getMessage(), true));
+    }
+
+    /**
+     * Subscribes this view to the shared air quality and noise feeds, which poll once per
+     * ENVIRONMENTAL_UPDATE_INTERVAL_MS for all open views and push only changed snapshots.
+     */
+    public synchronized void startContinuousUpdates() {
+        if (!subscriptions.isEmpty()) {
+            return;
         }
+        DataFeeds feeds = DataFeeds.getInstance();
+        subscriptions.add(feeds.airQuality().subscribe(
+                readings -> AsyncUi.push(ui, () -> view.updateAirQualityGrid(readings))));
+        subscriptions.add(feeds.noiseLevels().subscribe(
+                readings -> AsyncUi.push(ui, () -> view.updateNoiseLevelGrid(readings))));
     }
 
-    public void startContinuousUpdates() {
-        System.out.println("Continuous environmental monitoring updates to be implemented.");
+    public synchronized void stopContinuousUpdates() {
+        subscriptions.forEach(Runnable::run);
+        subscriptions.clear();
     }
 }
\ No newline at end of file
@@ -0,0 +1,71 @@
+package com.example.controller;
+
+import com.example.model.ParkingSpot;
+import com.example.model.TrafficService;
+
+import com.vaadin.flow.data.provider.Query;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Translates the parking list's offset/limit requests into keyset queries on spot id.
+ * <p>
+ * Works like {@link EmergencyPager}: the last spot id of every fetched page is remembered as
+ * the boundary at the next offset, so scrolling is served by {@code spot_id > ?} seeks and
+ * only jumps to an unknown position use OFFSET.
+ */
+final class ParkingSpotPager {
+
+    private static final int MAX_BOUNDARIES = 1000;
+
+    private final TrafficService service;
+    private final Map<Integer, String> boundaries = new HashMap<>();
+    private Integer knownCount;
+
+    ParkingSpotPager(TrafficService service) {
+        this.service = service;
+    }
+
+    Stream<ParkingSpot> fetch(Query<ParkingSpot, Void> query) {
+        int offset = query.getOffset();
+        int limit = query.getLimit();
+
+        List<ParkingSpot> page;
+        if (offset == 0) {
+            page = service.getParkingSpotsPage(null, limit);
+        } else if (boundaries.containsKey(offset)) {
+            page = service.getParkingSpotsPage(boundaries.get(offset), limit);
+        } else {
+            page = service.getParkingSpotsAt(offset, limit);
+        }
+
+        if (!page.isEmpty()) {
+            if (boundaries.size() >= MAX_BOUNDARIES) {
+                boundaries.clear();
+            }
+            boundaries.put(offset + page.size(), page.get(page.size() - 1).getSpotId());
+        }
+        return page.stream();
+    }
+
+    int count(Query<ParkingSpot, Void> query) {
+        if (knownCount != null) {
+            return knownCount;
+        }
+        return service.getParkingAvailability().getTotal();
+    }
+
+    /**
+     * Forgets all boundaries; call before refreshing the list because spots may have been
+     * added or removed.
+     *
+     * @param count the total spot count from the availability summary that triggered the refresh
+     */
+    void reset(int count) {
+        boundaries.clear();
+        knownCount = count;
+    }
+}
@@ -1,43 +1,50 @@
 package com.example.controller;
 
 import com.example.PublicSafetyManagementView;
+import com.example.model.DataFeeds;
 import com.example.model.Emergency;
 import com.example.model.SafetyService;
 import com.example.model.WeatherAlert;
 
+import com.vaadin.flow.component.UI;
+
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 public class SafetyController {
 
     private final SafetyService service;
     private final PublicSafetyManagementView view;
+    private final UI ui;
+    private final EmergencyPager emergencyPager;
+    private final List<Runnable> subscriptions = new ArrayList<>();
+    private boolean emergencyItemsSet;
     private static final DateTimeFormatter DATE_TIME_FORMATTER = 
             DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final long REFRESH_DEADLINE_MS = DashboardRefresh.deadlineFor("SAFETY");
 
     // Add this method to your SafetyController class
     private void verifyDatabaseConnection() {
-        try {
-            List<Emergency> emergencies = service.getActiveEmergencies();
-            List<WeatherAlert> alerts = service.getActiveWeatherAlerts();
-            
-            view.showNotification(
+        CompletableFuture<Integer> emergencyCountFuture = service.countActiveEmergenciesAsync();
+        CompletableFuture<List<WeatherAlert>> alertsFuture = service.getActiveWeatherAlertsAsync();
+
+        AsyncUi.deliver(ui, emergencyCountFuture.thenCombine(alertsFuture, (emergencyCount, alerts) ->
                 "Database connection successful. Found " + 
-                emergencies.size() + " emergencies and " + 
-                alerts.size() + " weather alerts.", 
-                false
-            );
-        } catch (Exception e) {
-            view.showNotification("Database connection error: " + e.getMessage(), true);
-            e.printStackTrace();
-        }
+                emergencyCount + " emergencies and " + 
+                alerts.size() + " weather alerts."),
+            message -> view.showNotification(message, false),
+            error -> view.showNotification("Database connection error: " + error.getMessage(), true));
     }
 
     // Then call this method from your constructor
     public SafetyController(SafetyService service, PublicSafetyManagementView view) {
         this.service = service;
         this.view = view;
+        this.ui = UI.getCurrent();
+        this.emergencyPager = new EmergencyPager(service);
     
         // Attach listeners
         this.view.addCreateEmergencyListener(e -> handleCreateEmergency());
@@ -49,9 +56,14 @@ public class SafetyController {
         // Add a verification button listener
         this.view.addVerifyDatabaseListener(e -> verifyDatabaseConnection());
     
-        // Initial data load
-        refreshEmergencyList();
-        refreshWeatherAlerts();
+        // Verify tables in the background, then do the initial data load
+        CompletableFuture<Boolean> tablesVerified = service.verifyDatabaseTablesAsync();
+        AsyncUi.deliver(ui, tablesVerified, view::showTableVerificationResult,
+                error -> view.showTableVerificationResult(false));
+        tablesVerified.whenComplete((verified, error) -> refreshDashboard(false));
+
+        this.view.addDetachListener(e -> stopContinuousUpdates());
+        startContinuousUpdates();
     }
 
     private void handleCreateEmergency() {
@@ -69,16 +81,16 @@ public class SafetyController {
 
         // Create emergency
         Emergency emergency = new Emergency(type, location, description, severity);
-        Emergency created = service.createEmergency(emergency);
-
-        if (created != null) {
-            view.showNotification("Emergency created successfully", false);
-            view.clearEmergencyForm();
-            refreshEmergencyList();
-            view.playEmergencyAlert(); // Play alert sound for emergencies
-        } else {
-            view.showNotification("Failed to create emergency", true);
-        }
+        AsyncUi.deliver(ui, service.createEmergencyAsync(emergency), created -> {
+            if (created != null) {
+                view.showNotification("Emergency created successfully", false);
+                view.clearEmergencyForm();
+                refreshEmergencyList();
+                view.playEmergencyAlert(); // Play alert sound for emergencies
+            } else {
+                view.showNotification("Failed to create emergency", true);
+            }
+        }, error -> view.showNotification("Failed to create emergency: " + error.getMessage(), true));
     }
 
     private void handleUpdateEmergency() {
@@ -92,14 +104,14 @@ public class SafetyController {
         }
 
         // Update emergency status
-        boolean updated = service.updateEmergencyStatus(selectedId, newStatus);
-
-        if (updated) {
-            view.showNotification("Emergency status updated to: " + newStatus, false);
-            refreshEmergencyList();
-        } else {
-            view.showNotification("Failed to update emergency status", true);
-        }
+        AsyncUi.deliver(ui, service.updateEmergencyStatusAsync(selectedId, newStatus), updated -> {
+            if (updated) {
+                view.showNotification("Emergency status updated to: " + newStatus, false);
+                refreshEmergencyList();
+            } else {
+                view.showNotification("Failed to update emergency status", true);
+            }
+        }, error -> view.showNotification("Failed to update emergency status: " + error.getMessage(), true));
     }
 
     private void handleCreateWeatherAlert() {
@@ -116,46 +128,80 @@ public class SafetyController {
 
         // Create weather alert
         WeatherAlert alert = new WeatherAlert(alertType, description, severity);
-        WeatherAlert created = service.createWeatherAlert(alert);
-
-        if (created != null) {
-            view.showNotification("Weather alert created successfully", false);
-            view.clearWeatherAlertForm();
-            refreshWeatherAlerts();
-        } else {
-            view.showNotification("Failed to create weather alert", true);
-        }
+        AsyncUi.deliver(ui, service.createWeatherAlertAsync(alert), created -> {
+            if (created != null) {
+                view.showNotification("Weather alert created successfully", false);
+                view.clearWeatherAlertForm();
+                refreshWeatherAlerts();
+            } else {
+                view.showNotification("Failed to create weather alert", true);
+            }
+        }, error -> view.showNotification("Failed to create weather alert: " + error.getMessage(), true));
     }
 
     private void handleRefresh() {
-        try {
-            refreshEmergencyList();
-            refreshWeatherAlerts();
-            view.showNotification("Data refreshed successfully", false);
-        } catch (Exception e) {
-            view.showNotification("Error refreshing data: " + e.getMessage(), true);
-            e.printStackTrace();
-        }
+        refreshDashboard(true);
+    }
+
+    /**
+     * Loads all three panels concurrently, bounded by the view's refresh deadline.
+     */
+    private void refreshDashboard(boolean announce) {
+        DashboardRefresh refresh = new DashboardRefresh(ui, REFRESH_DEADLINE_MS);
+        refresh.add("emergencies", service.countActiveEmergenciesAsync(), this::showEmergencies);
+        refresh.add("weather alerts", service.getActiveWeatherAlertsAsync(), view::updateWeatherAlertList);
+        DashboardRefresh.Part<Optional<WeatherAlert>> latest = refresh.add("latest weather alert",
+                service.getLatestWeatherAlertAsync(), this::showLatestWeatherAlert);
+
+        refresh.join(summary -> {
+            if (latest.getFailure().isPresent()) {
+                view.setLatestAlertInfo("Error loading the latest weather alert.", null);
+            }
+            if (!summary.isComplete()) {
+                view.showNotification("Data partially refreshed (" + summary.describeIncomplete() + ")", true);
+            } else if (announce) {
+                view.showNotification("Data refreshed successfully", false);
+            }
+        });
     }
 
     private void handleDeleteOldData() {
         int daysToKeep = view.getDaysToKeep();
-        int deleted = service.deleteOldEmergencies(daysToKeep);
-        view.showNotification("Deleted " + deleted + " old emergency records", false);
-        refreshEmergencyList();
+        AsyncUi.deliver(ui, service.deleteOldEmergenciesAsync(daysToKeep), deleted -> {
+            view.showNotification("Deleted " + deleted + " old emergency records", false);
+            refreshEmergencyList();
+        }, error -> view.showNotification("Error deleting old data: " + error.getMessage(), true));
     }
 
     private void refreshEmergencyList() {
-        List<Emergency> emergencies = service.getActiveEmergencies();
-        view.updateEmergencyList(emergencies);
+        AsyncUi.deliver(ui, service.countActiveEmergenciesAsync(), this::showEmergencies,
+                error -> view.showNotification("Error loading emergencies: " + error.getMessage(), true));
+    }
+
+    /**
+     * Reloads the lazy emergency grid. The count was fetched in the background; the grid
+     * then fetches only the rows it shows, page by page.
+     */
+    private void showEmergencies(int activeCount) {
+        emergencyPager.reset(activeCount);
+        if (!emergencyItemsSet) {
+            // Set once the tables are verified, so the grid's first fetch has a table to read.
+            view.setEmergencyItems(emergencyPager::fetch, emergencyPager::count);
+            emergencyItemsSet = true;
+        } else {
+            view.refreshEmergencyList();
+        }
     }
 
     private void refreshWeatherAlerts() {
-        List<WeatherAlert> alerts = service.getActiveWeatherAlerts();
-        view.updateWeatherAlertList(alerts);
-        
+        AsyncUi.deliver(ui, service.getActiveWeatherAlertsAsync(), view::updateWeatherAlertList,
+                error -> view.showNotification("Error loading weather alerts: " + error.getMessage(), true));
         // Update latest alert display
-        Optional<WeatherAlert> latestAlert = service.getLatestWeatherAlert();
+        AsyncUi.deliver(ui, service.getLatestWeatherAlertAsync(), this::showLatestWeatherAlert,
+                error -> view.setLatestAlertInfo("Error loading the latest weather alert.", null));
+    }
+
+    private void showLatestWeatherAlert(Optional<WeatherAlert> latestAlert) {
         if (latestAlert.isPresent()) {
             WeatherAlert alert = latestAlert.get();
             String alertInfo = String.format(
@@ -171,4 +217,26 @@ public class SafetyController {
             view.setLatestAlertInfo("No weather alerts available.", null);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Subscribes this view to the shared safety feeds, which poll once per
+     * SAFETY_UPDATE_INTERVAL_MS for all open views and push only changed snapshots.
+     */
+    public synchronized void startContinuousUpdates() {
+        if (!subscriptions.isEmpty()) {
+            return;
+        }
+        DataFeeds feeds = DataFeeds.getInstance();
+        subscriptions.add(feeds.emergencies().subscribe(
+                summary -> AsyncUi.push(ui, () -> showEmergencies(summary.getCount()))));
+        subscriptions.add(feeds.weatherAlerts().subscribe(
+                alerts -> AsyncUi.push(ui, () -> view.updateWeatherAlertList(alerts))));
+        subscriptions.add(feeds.latestWeatherAlert().subscribe(
+                latest -> AsyncUi.push(ui, () -> showLatestWeatherAlert(latest))));
+    }
+
+    public synchronized void stopContinuousUpdates() {
+        subscriptions.forEach(Runnable::run);
+        subscriptions.clear();
+    }
+}
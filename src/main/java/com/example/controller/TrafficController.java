@@ -2,10 +2,15 @@ package com.example.controller;
 
 import com.example.TrafficManagementView;
 import com.example.model.JunctionState;
-import com.example.model.ParkingSpot;
 import com.example.model.TrafficService;
+import com.example.model.TrafficService.ParkingAvailability;
+
+import com.example.model.DataFeeds;
+
+import com.vaadin.flow.component.UI;
 
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -14,41 +19,83 @@ public class TrafficController {
 
     private final TrafficService service;
     private final TrafficManagementView view;
+    private final UI ui;
 
     private static final DateTimeFormatter dtf = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private final List<Runnable> subscriptions = new ArrayList<>();
+    private final ParkingSpotPager parkingPager;
+    private boolean parkingItemsSet;
 
     public TrafficController(TrafficService service, TrafficManagementView view) {
         this.service = service;
         this.view = view;
+        this.ui = UI.getCurrent();
+        this.parkingPager = new ParkingSpotPager(service);
 
         this.view.addRefreshButtonListener(e -> handleRefreshClick());
         this.view.addParkingButtonListener(e -> handleParkingClick());
         //this.view.addDeleteButtonListener(e -> handleDeleteJunctionStatesClick());
 
+        this.view.addDetachListener(e -> stopContinuousUpdates());
+
         handleRefreshClick();
+        startContinuousUpdates();
     }
 
     private void handleRefreshClick() {
-        Map<String, JunctionState> latestJunctions = service.getLatestJunctionStates();
-        view.updateJunctionDisplay(latestJunctions);
+        AsyncUi.deliver(ui, service.getLatestJunctionStatesAsync(),
+                view::updateJunctionDisplay,
+                error -> view.showNotification("Error loading junction data: " + error.getMessage(), true));
 
         handleParkingClick();
     }
 
     private void handleParkingClick() {
-        List<ParkingSpot> spots = service.getAllParkingSpots();
-        view.displayParkingInfo(spots);
+        AsyncUi.deliver(ui, service.getParkingAvailabilityAsync(),
+                this::showParking,
+                error -> view.showNotification("Error loading parking data: " + error.getMessage(), true));
+    }
+
+    // The header comes from the occupancy index; the list itself fetches only the pages it shows.
+    private void showParking(ParkingAvailability availability) {
+        view.showParkingAvailability(availability.getAvailable(), availability.getTotal());
+        parkingPager.reset(availability.getTotal());
+        if (!parkingItemsSet) {
+            view.setParkingItems(parkingPager::fetch, parkingPager::count);
+            parkingItemsSet = true;
+        } else {
+            view.refreshParkingList();
+        }
     }
 
+
     private void handleDeleteJunctionStatesClick() {
-        String resultMessage = service.deleteOldJunctionStates();
-        boolean isError = resultMessage.toLowerCase().startsWith("error");
-        view.showNotification(resultMessage, isError);
+        AsyncUi.deliver(ui, service.deleteOldJunctionStatesAsync(), resultMessage -> {
+            boolean isError = resultMessage.toLowerCase().startsWith("error");
+            view.showNotification(resultMessage, isError);
 
-        handleRefreshClick();
+            handleRefreshClick();
+        }, error -> view.showNotification("Error deleting old junction state data: " + error.getMessage(), true));
+    }
+
+    /**
+     * Subscribes this view to the shared junction and parking feeds. Each feed polls the
+     * database once per TRAFFIC_UPDATE_INTERVAL_MS for all open views and only pushes
+     * snapshots that changed.
+     */
+    public synchronized void startContinuousUpdates() {
+        if (!subscriptions.isEmpty()) {
+            return;
+        }
+        DataFeeds feeds = DataFeeds.getInstance();
+        subscriptions.add(feeds.junctions().subscribe(
+                junctions -> AsyncUi.push(ui, () -> view.updateJunctionDisplay(junctions))));
+        subscriptions.add(feeds.parking().subscribe(
+                availability -> AsyncUi.push(ui, () -> showParking(availability))));
     }
 
-    public void startContinuousUpdates() {
-        System.out.println("Continuous update logic to be implemented here.");
+    public synchronized void stopContinuousUpdates() {
+        subscriptions.forEach(Runnable::run);
+        subscriptions.clear();
     }
 }
\ No newline at end of file
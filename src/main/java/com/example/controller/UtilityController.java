@@ -4,6 +4,7 @@ import com.example.UtilityManagementView;
 import com.example.model.PowerReading;
 import com.example.model.UtilityService;
 
+import com.vaadin.flow.component.UI;
 
 import java.time.format.DateTimeFormatter;
 import java.util.Optional;
@@ -12,10 +13,12 @@ public class UtilityController {
 
     private final UtilityService service;
     private final UtilityManagementView view;
+    private final UI ui;
 
     public UtilityController(UtilityService service, UtilityManagementView view) {
         this.service = service;
         this.view = view;
+        this.ui = UI.getCurrent();
 
         this.view.addTrackButtonListener(e -> handleTrackButtonClick());
         this.view.addReportButtonListener(e -> handleReportButtonClick());
@@ -23,8 +26,12 @@ public class UtilityController {
     }
 
     private void handleTrackButtonClick() {
-        Optional<PowerReading> latestReadingOpt = service.getLatestReading();
+        AsyncUi.deliver(ui, service.getLatestReadingAsync(),
+                this::showLatestReading,
+                error -> view.setTrackingStatus("Error loading the latest reading: " + error.getMessage()));
+    }
 
+    private void showLatestReading(Optional<PowerReading> latestReadingOpt) {
         if (latestReadingOpt.isPresent()) {
             PowerReading reading = latestReadingOpt.get();
             String status = String.format(
@@ -41,16 +48,17 @@ public class UtilityController {
     }
 
     private void handleReportButtonClick() {
-        String report = service.generateLatestMonthlyReport();
+        view.setReportContent("Generating report...");
 
-        view.setReportContent(report);
+        AsyncUi.deliver(ui, service.generateLatestMonthlyReportAsync(),
+                view::setReportContent,
+                error -> view.setReportContent("Error generating report: " + error.getMessage()));
     }
 
     private void handleDeleteButtonClick() {
-        String resultMessage = service.deleteReadingsBeforeLatestMonth();
-
-        boolean isError = resultMessage.toLowerCase().startsWith("error");
-        view.showNotification(resultMessage, isError);
-
+        AsyncUi.deliver(ui, service.deleteReadingsBeforeLatestMonthAsync(), resultMessage -> {
+            boolean isError = resultMessage.toLowerCase().startsWith("error");
+            view.showNotification(resultMessage, isError);
+        }, error -> view.showNotification("Error deleting old data: " + error.getMessage(), true));
     }
 }
\ No newline at end of file
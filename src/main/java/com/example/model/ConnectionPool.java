@@ -0,0 +1,419 @@
+package com.example.model;
+
+import io.github.cdimascio.dotenv.Dotenv;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded JDBC connection pool shared by all model services.
+ * <p>
+ * Physical connections are created lazily up to {@code DB_POOL_MAX_SIZE}, validated before
+ * being handed out again after sitting idle, evicted once idle for too long or past their
+ * maximum lifetime, and reported on stderr when a borrower keeps one longer than the leak
+ * detection threshold. Leak detection records the borrowing stack trace on every borrow, so
+ * it is off unless DB_POOL_LEAK_DETECTION_MS is set. Callers receive a proxy whose {@code close()} returns the physical
+ * connection to the pool, so the existing try-with-resources blocks keep working unchanged.
+ * <p>
+ * Each pooled connection also owns a {@link StatementCache}, so the fixed queries of the
+ * services are prepared once per physical connection rather than once per call. When
+ * DB_SLOW_QUERY_MS is set, statements are additionally timed by {@link SlowQueryLog}.
+ */
+public class ConnectionPool {
+
+    private static final Dotenv dotenv;
+    private static final String DB_URL;
+    private static final String DB_USER;
+    private static final String DB_PASSWORD;
+    private static final int MAX_POOL_SIZE;
+    private static final int MIN_IDLE;
+    private static final long CONNECTION_TIMEOUT_MS;
+    private static final long IDLE_TIMEOUT_MS;
+    private static final long MAX_LIFETIME_MS;
+    private static final long VALIDATION_INTERVAL_MS;
+    private static final int VALIDATION_TIMEOUT_SECONDS;
+    private static final long LEAK_DETECTION_THRESHOLD_MS;
+    private static final int STATEMENT_CACHE_SIZE;
+    private static final boolean USE_SERVER_PREPARED_STATEMENTS;
+    private static final boolean REWRITE_BATCHED_STATEMENTS;
+    private static final long HOUSEKEEPING_INTERVAL_MS = 30_000;
+
+    static {
+        try {
+            dotenv = Dotenv.configure().ignoreIfMissing().load();
+
+            DB_URL = dotenv.get("DB_URL");
+            DB_USER = dotenv.get("DB_USER");
+            DB_PASSWORD = dotenv.get("DB_PASSWORD");
+
+            if (DB_URL == null || DB_USER == null || DB_PASSWORD == null) {
+                throw new RuntimeException("Error: One or more required environment variables (DB_URL, DB_USER, DB_PASSWORD) are missing. Check .env file or system environment.");
+            }
+
+            MAX_POOL_SIZE = Integer.parseInt(dotenv.get("DB_POOL_MAX_SIZE", "20"));
+            MIN_IDLE = Math.min(MAX_POOL_SIZE, Integer.parseInt(dotenv.get("DB_POOL_MIN_IDLE", "2")));
+            CONNECTION_TIMEOUT_MS = Long.parseLong(dotenv.get("DB_POOL_CONNECTION_TIMEOUT_MS", "30000"));
+            IDLE_TIMEOUT_MS = Long.parseLong(dotenv.get("DB_POOL_IDLE_TIMEOUT_MS", "600000"));
+            MAX_LIFETIME_MS = Long.parseLong(dotenv.get("DB_POOL_MAX_LIFETIME_MS", "1800000"));
+            VALIDATION_INTERVAL_MS = Long.parseLong(dotenv.get("DB_POOL_VALIDATION_INTERVAL_MS", "5000"));
+            VALIDATION_TIMEOUT_SECONDS = Integer.parseInt(dotenv.get("DB_POOL_VALIDATION_TIMEOUT_S", "3"));
+            LEAK_DETECTION_THRESHOLD_MS = Long.parseLong(dotenv.get("DB_POOL_LEAK_DETECTION_MS", "0"));
+            STATEMENT_CACHE_SIZE = Integer.parseInt(dotenv.get("DB_STATEMENT_CACHE_SIZE", "64"));
+            USE_SERVER_PREPARED_STATEMENTS = Boolean.parseBoolean(dotenv.get("DB_USE_SERVER_PREP_STMTS", "true"));
+            REWRITE_BATCHED_STATEMENTS = Boolean.parseBoolean(dotenv.get("DB_REWRITE_BATCHED_STATEMENTS", "true"));
+
+            if (MAX_POOL_SIZE < 1) {
+                throw new RuntimeException("Error: DB_POOL_MAX_SIZE must be at least 1.");
+            }
+
+            Class.forName("com.mysql.cj.jdbc.Driver");
+
+        } catch (RuntimeException e) {
+            System.err.println("Error during connection pool initialization: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException("Error during connection pool initialization.", e);
+        } catch (ClassNotFoundException e) {
+            throw new RuntimeException("Error: MySQL JDBC Driver not found.", e);
+        }
+    }
+
+    private static ConnectionPool instance;
+
+    private final LinkedBlockingDeque<PooledConnection> idleConnections = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> borrowedConnections = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final AtomicInteger waitingThreads = new AtomicInteger();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean shutdown;
+
+    private ConnectionPool() {
+        housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "db-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        housekeeper.scheduleWithFixedDelay(this::housekeep,
+                HOUSEKEEPING_INTERVAL_MS, HOUSEKEEPING_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    public static synchronized ConnectionPool getInstance() {
+        if (instance == null) {
+            instance = new ConnectionPool();
+        }
+        return instance;
+    }
+
+    /**
+     * Closes the pool if it was ever started. Safe to call from shutdown hooks because it
+     * never creates the pool just to close it again.
+     */
+    public static synchronized void shutdownInstance() {
+        if (instance != null) {
+            instance.shutdown();
+            instance = null;
+        }
+    }
+
+    /**
+     * Borrows a connection, waiting up to {@code DB_POOL_CONNECTION_TIMEOUT_MS} when every
+     * connection is in use.
+     */
+    public Connection getConnection() throws SQLException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(CONNECTION_TIMEOUT_MS);
+
+        while (true) {
+            if (shutdown) {
+                throw new SQLException("Connection pool has been shut down.");
+            }
+
+            // Most recently returned first, so a small working set stays warm.
+            PooledConnection pooled = idleConnections.pollFirst();
+            if (pooled == null) {
+                pooled = tryCreateConnection();
+            }
+            if (pooled == null) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new SQLTransientConnectionException(String.format(
+                            "Timed out after %d ms waiting for a database connection (pool size %d, all in use).",
+                            CONNECTION_TIMEOUT_MS, MAX_POOL_SIZE));
+                }
+                waitingThreads.incrementAndGet();
+                try {
+                    // Wake up periodically so a slot freed by an eviction can be used to create a new connection.
+                    pooled = idleConnections.pollFirst(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(100)), TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException("Interrupted while waiting for a database connection.", e);
+                } finally {
+                    waitingThreads.decrementAndGet();
+                }
+                if (pooled == null) {
+                    continue;
+                }
+            }
+
+            if (!isUsable(pooled)) {
+                discard(pooled);
+                continue;
+            }
+            return pooled.borrow();
+        }
+    }
+
+    public int getTotalConnections() {
+        return totalConnections.get();
+    }
+
+    public int getIdleConnections() {
+        return idleConnections.size();
+    }
+
+    public int getActiveConnections() {
+        return borrowedConnections.size();
+    }
+
+    public int getWaitingThreads() {
+        return waitingThreads.get();
+    }
+
+    public int getMaxPoolSize() {
+        return MAX_POOL_SIZE;
+    }
+
+    private PooledConnection tryCreateConnection() throws SQLException {
+        while (true) {
+            int current = totalConnections.get();
+            if (current >= MAX_POOL_SIZE) {
+                return null;
+            }
+            if (totalConnections.compareAndSet(current, current + 1)) {
+                break;
+            }
+        }
+        try {
+            return new PooledConnection(DriverManager.getConnection(DB_URL, connectionProperties()));
+        } catch (SQLException | RuntimeException e) {
+            totalConnections.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private static Properties connectionProperties() {
+        Properties props = new Properties();
+        props.setProperty("user", DB_USER);
+        props.setProperty("password", DB_PASSWORD);
+        if (DB_URL.startsWith("jdbc:mysql:")) {
+            // Parse once on the server and reuse the statement id; our own cache keeps the
+            // statements open, so the driver's client-side cache is left off.
+            props.setProperty("useServerPrepStmts", String.valueOf(USE_SERVER_PREPARED_STATEMENTS));
+            props.setProperty("cachePrepStmts", "false");
+            // Send JDBC batches of INSERTs as multi-row statements (see IngestionService).
+            props.setProperty("rewriteBatchedStatements", String.valueOf(REWRITE_BATCHED_STATEMENTS));
+        }
+        return props;
+    }
+
+    private boolean isUsable(PooledConnection pooled) {
+        long now = System.currentTimeMillis();
+        if (now - pooled.createdAt > MAX_LIFETIME_MS) {
+            return false;
+        }
+        if (now - pooled.lastReturnedAt < VALIDATION_INTERVAL_MS) {
+            return true;
+        }
+        try {
+            return pooled.physical.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void release(PooledConnection pooled) {
+        borrowedConnections.remove(pooled);
+        try {
+            if (!pooled.physical.getAutoCommit()) {
+                pooled.physical.rollback();
+                pooled.physical.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            System.err.println("Discarding pooled connection that could not be reset: " + e.getMessage());
+            discard(pooled);
+            return;
+        }
+
+        pooled.lastReturnedAt = System.currentTimeMillis();
+        if (shutdown || pooled.lastReturnedAt - pooled.createdAt > MAX_LIFETIME_MS) {
+            discard(pooled);
+        } else {
+            idleConnections.offerFirst(pooled);
+        }
+    }
+
+    private void discard(PooledConnection pooled) {
+        idleConnections.remove(pooled);
+        borrowedConnections.remove(pooled);
+        totalConnections.decrementAndGet();
+        pooled.statementCache.clear();
+        try {
+            pooled.physical.close();
+        } catch (SQLException e) {
+            // The connection is being thrown away; nothing useful to do with a close failure.
+        }
+    }
+
+    private void housekeep() {
+        try {
+            long now = System.currentTimeMillis();
+
+            // Oldest idle connections sit at the tail of the deque.
+            List<PooledConnection> snapshot = new ArrayList<>(idleConnections);
+            for (int i = snapshot.size() - 1; i >= 0; i--) {
+                PooledConnection pooled = snapshot.get(i);
+                boolean expired = now - pooled.createdAt > MAX_LIFETIME_MS;
+                boolean idleTooLong = now - pooled.lastReturnedAt > IDLE_TIMEOUT_MS
+                        && idleConnections.size() > MIN_IDLE;
+                if ((expired || idleTooLong) && idleConnections.remove(pooled)) {
+                    discard(pooled);
+                }
+            }
+
+            // Keep MIN_IDLE connections ready on top of the borrowed ones, within MAX_POOL_SIZE.
+            while (!shutdown && idleConnections.size() < MIN_IDLE) {
+                PooledConnection pooled = tryCreateConnection();
+                if (pooled == null) {
+                    break;
+                }
+                idleConnections.offerLast(pooled);
+            }
+
+            if (LEAK_DETECTION_THRESHOLD_MS > 0) {
+                for (PooledConnection pooled : borrowedConnections) {
+                    long heldFor = now - pooled.borrowedAt;
+                    if (heldFor > LEAK_DETECTION_THRESHOLD_MS && !pooled.leakReported) {
+                        pooled.leakReported = true;
+                        System.err.println("Possible connection leak: connection held for " + heldFor
+                                + " ms (threshold " + LEAK_DETECTION_THRESHOLD_MS + " ms). Borrowed at:");
+                        if (pooled.borrowSite != null) {
+                            pooled.borrowSite.printStackTrace();
+                        }
+                    }
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Error during connection pool housekeeping: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    private void shutdown() {
+        shutdown = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idleConnections.pollFirst()) != null) {
+            discard(pooled);
+        }
+    }
+
+    private final class PooledConnection {
+        private final Connection physical;
+        private final StatementCache statementCache = new StatementCache(STATEMENT_CACHE_SIZE);
+        private final long createdAt = System.currentTimeMillis();
+        private volatile long lastReturnedAt = createdAt;
+        private volatile long borrowedAt;
+        private volatile Throwable borrowSite;
+        private volatile boolean leakReported;
+
+        private PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        private Connection borrow() {
+            borrowedAt = System.currentTimeMillis();
+            borrowSite = LEAK_DETECTION_THRESHOLD_MS > 0 ? new Throwable("Connection borrowed here") : null;
+            leakReported = false;
+            borrowedConnections.add(this);
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new Lease(this));
+        }
+    }
+
+    /**
+     * Handler behind the connection handed to callers. Each borrow gets its own lease, so a
+     * caller that keeps using a connection after closing it cannot touch the next borrower's.
+     */
+    private final class Lease implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean closed;
+
+        private Lease(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pooled.physical + (closed ? ", returned" : "") + "]";
+                default:
+                    break;
+            }
+
+            if (closed) {
+                throw new SQLException("Connection has already been returned to the pool.");
+            }
+            Object result = null;
+            if (method.getName().equals("prepareStatement")) {
+                Class<?>[] types = method.getParameterTypes();
+                if (types.length == 1) {
+                    result = pooled.statementCache.prepare(pooled.physical, (Connection) proxy, (String) args[0], Statement.NO_GENERATED_KEYS);
+                } else if (types.length == 2 && types[1] == int.class) {
+                    result = pooled.statementCache.prepare(pooled.physical, (Connection) proxy, (String) args[0], (Integer) args[1]);
+                }
+            }
+            if (result == null) {
+                try {
+                    result = method.invoke(pooled.physical, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+            if (result instanceof Statement && SlowQueryLog.isEnabled()) {
+                String sql = method.getName().equals("prepareStatement") ? (String) args[0] : null;
+                result = SlowQueryLog.wrap((Statement) result, sql);
+            }
+            return result;
+        }
+    }
+}
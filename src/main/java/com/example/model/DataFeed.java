@@ -0,0 +1,108 @@
+package com.example.model;
+
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * One background poller for a data source, shared by every subscribed UI.
+ * <p>
+ * While at least one subscriber is registered, the feed loads a snapshot every interval on
+ * {@link ServiceExecutor} and hands it to all subscribers, but only when its fingerprint
+ * differs from the previous snapshot's. The database is read once per interval no matter how
+ * many views are open, and not at all when none are. Snapshots are shared between sessions
+ * and must be treated as immutable.
+ */
+public final class DataFeed<T> {
+
+    private final String name;
+    private final long intervalMillis;
+    private final Supplier<T> loader;
+    private final Function<T, ?> fingerprint;
+    private final CopyOnWriteArrayList<Consumer<T>> subscribers = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean polling = new AtomicBoolean();
+
+    private ScheduledFuture<?> schedule;
+    private volatile Object lastFingerprint;
+    private volatile T lastSnapshot;
+
+    /**
+     * @param fingerprint maps a snapshot to a value whose {@code equals} tells whether anything
+     *                    a view shows has changed
+     */
+    public DataFeed(String name, long intervalMillis, Supplier<T> loader, Function<T, ?> fingerprint) {
+        this.name = name;
+        this.intervalMillis = intervalMillis;
+        this.loader = loader;
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * Registers {@code subscriber} for changed snapshots. It is called on a background thread
+     * and must not block; UIs hand the snapshot over with {@code UI.access}.
+     *
+     * @return removes the subscription; the feed stops polling when the last one is removed
+     */
+    public synchronized Runnable subscribe(Consumer<T> subscriber) {
+        subscribers.add(subscriber);
+        if (schedule == null && intervalMillis > 0) {
+            schedule = ServiceExecutor.scheduleAtFixedRate(this::tick, intervalMillis, intervalMillis);
+        }
+        return () -> unsubscribe(subscriber);
+    }
+
+    private synchronized void unsubscribe(Consumer<T> subscriber) {
+        subscribers.remove(subscriber);
+        if (subscribers.isEmpty() && schedule != null) {
+            schedule.cancel(false);
+            schedule = null;
+            // The next subscriber starts from a fresh snapshot.
+            lastFingerprint = null;
+            lastSnapshot = null;
+        }
+    }
+
+    public String getName() { return name; }
+    public int getSubscriberCount() { return subscribers.size(); }
+
+    /**
+     * @return the last snapshot broadcast, or null before the first one
+     */
+    public T getLastSnapshot() {
+        return lastSnapshot;
+    }
+
+    private void tick() {
+        // Skip this tick if the previous load is still running rather than piling up queries.
+        if (!polling.compareAndSet(false, true)) {
+            return;
+        }
+        ServiceExecutor.supply(loader).whenComplete((snapshot, error) -> {
+            try {
+                if (error != null) {
+                    System.err.println("Error polling feed " + name + ": " + error.getMessage());
+                    return;
+                }
+                Object current = fingerprint.apply(snapshot);
+                if (Objects.equals(current, lastFingerprint)) {
+                    return;
+                }
+                lastFingerprint = current;
+                lastSnapshot = snapshot;
+                for (Consumer<T> subscriber : subscribers) {
+                    try {
+                        subscriber.accept(snapshot);
+                    } catch (RuntimeException e) {
+                        e.printStackTrace();
+                    }
+                }
+            } finally {
+                polling.set(false);
+            }
+        });
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.model;
+
+import com.example.model.EnvironmentalService.AirQualityReading;
+import com.example.model.EnvironmentalService.NoiseLevelReading;
+import com.example.model.SafetyService.ActiveEmergencySummary;
+import com.example.model.TrafficService.ParkingAvailability;
+
+import io.github.cdimascio.dotenv.Dotenv;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * The shared live feeds behind the dashboards, one per data source.
+ * <p>
+ * Intervals come from TRAFFIC_UPDATE_INTERVAL_MS, ENVIRONMENTAL_UPDATE_INTERVAL_MS and
+ * SAFETY_UPDATE_INTERVAL_MS (default 5000 ms, matching the generators; 0 disables a group).
+ * Feeds whose row classes have no value equality compare by id-based fingerprints instead.
+ */
+public final class DataFeeds {
+
+    private static DataFeeds instance;
+
+    private final DataFeed<Map<String, JunctionState>> junctions;
+    private final DataFeed<ParkingAvailability> parking;
+    private final DataFeed<Map<String, AirQualityReading>> airQuality;
+    private final DataFeed<List<NoiseLevelReading>> noiseLevels;
+    private final DataFeed<ActiveEmergencySummary> emergencies;
+    private final DataFeed<List<WeatherAlert>> weatherAlerts;
+    private final DataFeed<Optional<WeatherAlert>> latestWeatherAlert;
+
+    private DataFeeds() {
+        Dotenv dotenv = Dotenv.configure().ignoreIfMissing().load();
+        long trafficInterval = Long.parseLong(dotenv.get("TRAFFIC_UPDATE_INTERVAL_MS", "5000"));
+        long environmentalInterval = Long.parseLong(dotenv.get("ENVIRONMENTAL_UPDATE_INTERVAL_MS", "5000"));
+        long safetyInterval = Long.parseLong(dotenv.get("SAFETY_UPDATE_INTERVAL_MS", "5000"));
+
+        TrafficService traffic = TrafficService.getInstance();
+        EnvironmentalService environmental = EnvironmentalService.getInstance();
+        SafetyService safety = SafetyService.getInstance();
+
+        junctions = new DataFeed<>("junctions", trafficInterval,
+                traffic::getLatestJunctionStates, snapshot -> snapshot);
+        parking = new DataFeed<>("parking", trafficInterval,
+                traffic::getParkingAvailability, snapshot -> snapshot);
+        airQuality = new DataFeed<>("air-quality", environmentalInterval,
+                environmental::getLatestAirQualityReadings,
+                snapshot -> snapshot.values().stream().map(AirQualityReading::getId).collect(Collectors.toSet()));
+        noiseLevels = new DataFeed<>("noise", environmentalInterval,
+                environmental::getLatestNoiseLevelReadings,
+                snapshot -> snapshot.stream().map(NoiseLevelReading::getId).collect(Collectors.toSet()));
+        emergencies = new DataFeed<>("emergencies", safetyInterval,
+                safety::getActiveEmergencySummary, snapshot -> snapshot);
+        weatherAlerts = new DataFeed<>("weather-alerts", safetyInterval,
+                () -> Collections.unmodifiableList(safety.getActiveWeatherAlerts()),
+                snapshot -> snapshot.stream()
+                        .map(alert -> alert.getId() + ":" + alert.getSeverity() + ":" + alert.isActive())
+                        .collect(Collectors.toList()));
+        latestWeatherAlert = new DataFeed<>("latest-weather-alert", safetyInterval,
+                safety::getLatestWeatherAlert,
+                snapshot -> snapshot.map(alert -> alert.getId() + ":" + alert.isActive()).orElse(""));
+    }
+
+    public static synchronized DataFeeds getInstance() {
+        if (instance == null) {
+            instance = new DataFeeds();
+        }
+        return instance;
+    }
+
+    public DataFeed<Map<String, JunctionState>> junctions() { return junctions; }
+    public DataFeed<ParkingAvailability> parking() { return parking; }
+    public DataFeed<Map<String, AirQualityReading>> airQuality() { return airQuality; }
+    public DataFeed<List<NoiseLevelReading>> noiseLevels() { return noiseLevels; }
+    public DataFeed<ActiveEmergencySummary> emergencies() { return emergencies; }
+    public DataFeed<List<WeatherAlert>> weatherAlerts() { return weatherAlerts; }
+    public DataFeed<Optional<WeatherAlert>> latestWeatherAlert() { return latestWeatherAlert; }
+
+    public List<DataFeed<?>> all() {
+        return List.of(junctions, parking, airQuality, noiseLevels, emergencies, weatherAlerts, latestWeatherAlert);
+    }
+}
@@ -0,0 +1,382 @@
+package com.example.model;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Hourly and daily rollups of the air quality readings, and summaries over a time window that
+ * read them instead of the raw rows.
+ * <p>
+ * {@link #refresh} maintains the rollups incrementally and is meant to run in the background:
+ * the hourly buckets touched by readings with an id above the watermark in stats_watermarks
+ * are recomputed from their readings up to the new watermark, then the daily buckets of the
+ * same days from the hourly ones, in id batches of one short transaction each. Buckets store
+ * sums, minima, maxima and counts, so a day is exactly the merge of its hours.
+ * <p>
+ * Readings do not always commit in id order (concurrent writers, backfills, several app
+ * nodes), so each batch also re-reads the last {@code overlap} ids below the watermark.
+ * Recomputing a bucket replaces it, so reading a row twice is harmless. A bucket is only
+ * recomputed when new readings touch it: deleting old readings leaves their rollups in place.
+ * <p>
+ * A summary only reads. It covers the whole days of the window from the daily rollup, the
+ * whole hours left at either end from the hourly rollup, and the partial hours at the edges
+ * plus the readings above the watermark (not folded yet) from the raw rows, so it is current
+ * however far the refresh lags behind.
+ */
+final class EnvironmentalRollups {
+
+    private static final String AIR_QUALITY_HOURLY = "air_quality_hourly";
+    private static final String AIR_QUALITY_DAILY = "air_quality_daily";
+
+    private static final String HOUR_BUCKET = "DATE_FORMAT(timestamp, '%Y-%m-%d %H:00:00')";
+    private static final String DAY_BUCKET = "DATE(timestamp)";
+
+    private static final String AIR_QUALITY_COLUMNS = "reading_count, pm25_sum, pm25_min, pm25_max, "
+            + "pm10_sum, pm10_min, pm10_max, ozone_sum, ozone_min, ozone_max, "
+            + "good_count, moderate_count, poor_count, hazardous_count";
+    private static final String AIR_QUALITY_AGGREGATES = "COUNT(*), "
+            + "SUM(pm25_level), MIN(pm25_level), MAX(pm25_level), "
+            + "SUM(pm10_level), MIN(pm10_level), MAX(pm10_level), "
+            + "SUM(ozone_level), MIN(ozone_level), MAX(ozone_level), "
+            + "SUM(CASE WHEN quality_index = 'Good' THEN 1 ELSE 0 END), "
+            + "SUM(CASE WHEN quality_index = 'Moderate' THEN 1 ELSE 0 END), "
+            + "SUM(CASE WHEN quality_index = 'Poor' THEN 1 ELSE 0 END), "
+            + "SUM(CASE WHEN quality_index = 'Hazardous' THEN 1 ELSE 0 END)";
+    // Summing the rollup columns gives the same row shape as aggregating the raw readings.
+    private static final String AIR_QUALITY_ROLLUP_TOTALS = "COALESCE(SUM(reading_count), 0), "
+            + "SUM(pm25_sum), MIN(pm25_min), MAX(pm25_max), "
+            + "SUM(pm10_sum), MIN(pm10_min), MAX(pm10_max), "
+            + "SUM(ozone_sum), MIN(ozone_min), MAX(ozone_max), "
+            + "SUM(good_count), SUM(moderate_count), SUM(poor_count), SUM(hazardous_count)";
+
+    private static final String CREATE_WATERMARKS_SQL = "CREATE TABLE IF NOT EXISTS stats_watermarks ("
+            + "name VARCHAR(64) NOT NULL PRIMARY KEY, "
+            + "last_id BIGINT NOT NULL, "
+            + "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP)";
+    private static final String INSERT_WATERMARK_SQL = "INSERT IGNORE INTO stats_watermarks (name, last_id) VALUES (?, -1)";
+    private static final String WATERMARK_SQL = "SELECT last_id FROM stats_watermarks WHERE name = ?";
+    private static final String LOCK_WATERMARK_SQL = "SELECT last_id FROM stats_watermarks WHERE name = ? FOR UPDATE";
+    private static final String UPDATE_WATERMARK_SQL = "UPDATE stats_watermarks SET last_id = ? WHERE name = ?";
+
+    private final Rollup rollup;
+    private final String rawSummarySql;
+    private final String unfoldedSummarySql;
+    private final String hourlySummarySql;
+    private final String dailySummarySql;
+    private final int foldBatchSize;
+    private final int overlap;
+    private volatile boolean watermarkTableVerified;
+
+    EnvironmentalRollups(String airQualityTable, int foldBatchSize, int overlap) {
+        this.rollup = new Rollup(airQualityTable, AIR_QUALITY_HOURLY, AIR_QUALITY_DAILY,
+                AIR_QUALITY_COLUMNS, AIR_QUALITY_AGGREGATES, AIR_QUALITY_ROLLUP_TOTALS);
+        this.foldBatchSize = foldBatchSize;
+        this.overlap = overlap;
+        // Raw rows: the partial hour at the start of the window, and everything from the last whole hour on
+        this.rawSummarySql = "SELECT " + AIR_QUALITY_AGGREGATES + " FROM " + airQualityTable
+                + " WHERE location = ? AND ((timestamp >= ? AND timestamp < ?) OR timestamp >= ?)";
+        // Raw rows in the whole hours that the rollups do not contain yet
+        this.unfoldedSummarySql = "SELECT " + AIR_QUALITY_AGGREGATES + " FROM " + airQualityTable
+                + " WHERE location = ? AND timestamp >= ? AND timestamp < ? AND id > ?";
+        this.hourlySummarySql = "SELECT " + AIR_QUALITY_ROLLUP_TOTALS + " FROM " + AIR_QUALITY_HOURLY
+                + " WHERE location = ? AND ((period_start >= ? AND period_start < ?) OR (period_start >= ? AND period_start < ?))";
+        this.dailySummarySql = "SELECT " + AIR_QUALITY_ROLLUP_TOTALS + " FROM " + AIR_QUALITY_DAILY
+                + " WHERE location = ? AND period_start >= ? AND period_start < ?";
+    }
+
+    /**
+     * Brings the rollups up to date with the readings inserted since the last call.
+     */
+    void refresh(Connection conn) throws SQLException {
+        ensureWatermarkTable(conn);
+        while (foldBatch(conn, rollup)) {
+            // Each batch commits on its own, so the watermark lock is held briefly.
+        }
+    }
+
+    private void ensureWatermarkTable(Connection conn) throws SQLException {
+        if (!watermarkTableVerified) {
+            try (PreparedStatement pstmt = conn.prepareStatement(CREATE_WATERMARKS_SQL)) {
+                pstmt.executeUpdate();
+            }
+            watermarkTableVerified = true;
+        }
+    }
+
+    /**
+     * Recomputes the buckets touched by up to one batch of readings above the watermark, plus
+     * the overlap below it, in one transaction. The watermark row is locked FOR UPDATE, so
+     * concurrent callers serialize here. A rollup without a watermark is cleared and rebuilt
+     * from the first reading.
+     *
+     * @return true if readings above the new watermark remain
+     */
+    private boolean foldBatch(Connection conn, Rollup rollup) throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            try (PreparedStatement pstmt = conn.prepareStatement(INSERT_WATERMARK_SQL)) {
+                pstmt.setString(1, rollup.watermarkName);
+                pstmt.executeUpdate();
+            }
+
+            long watermark;
+            try (PreparedStatement pstmt = conn.prepareStatement(LOCK_WATERMARK_SQL)) {
+                pstmt.setString(1, rollup.watermarkName);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    rs.next();
+                    watermark = rs.getLong(1);
+                }
+            }
+            long fromId;
+            if (watermark < 0) {
+                for (String clearSql : rollup.clearSqls) {
+                    try (PreparedStatement pstmt = conn.prepareStatement(clearSql)) {
+                        pstmt.executeUpdate();
+                    }
+                }
+                watermark = 0;
+                fromId = 0;
+            } else {
+                fromId = Math.max(0, watermark - overlap);
+            }
+
+            long maxId;
+            try (PreparedStatement pstmt = conn.prepareStatement(rollup.maxIdSql);
+                 ResultSet rs = pstmt.executeQuery()) {
+                rs.next();
+                maxId = rs.getLong(1);
+            }
+
+            // The daily buckets are merged from the hourly ones, so the hours go first. Buckets only
+            // take readings up to the new watermark; summaries read the ones above it raw.
+            long upper = Math.max(watermark, Math.min(maxId, watermark + foldBatchSize));
+            if (upper > fromId) {
+                try (PreparedStatement pstmt = conn.prepareStatement(rollup.recomputeHourlySql)) {
+                    pstmt.setLong(1, fromId);
+                    pstmt.setLong(2, upper);
+                    pstmt.setLong(3, upper);
+                    pstmt.executeUpdate();
+                }
+                try (PreparedStatement pstmt = conn.prepareStatement(rollup.recomputeDailySql)) {
+                    pstmt.setLong(1, fromId);
+                    pstmt.setLong(2, upper);
+                    pstmt.executeUpdate();
+                }
+            }
+            if (upper > watermark) {
+                try (PreparedStatement pstmt = conn.prepareStatement(UPDATE_WATERMARK_SQL)) {
+                    pstmt.setLong(1, upper);
+                    pstmt.setString(2, rollup.watermarkName);
+                    pstmt.executeUpdate();
+                }
+            }
+
+            conn.commit();
+            return upper < maxId;
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Summarizes a location's air quality from {@code from} onwards, using the coarsest
+     * rollup that covers each part of the window. Reads only; the watermark and the rollups
+     * are read in one transaction so they come from the same InnoDB snapshot.
+     */
+    AirQualitySummary summarizeAirQuality(Connection conn, String location, LocalDateTime from) throws SQLException {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime firstHour = ceil(from, ChronoUnit.HOURS);
+        LocalDateTime lastHour = now.truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime firstDay = ceil(from, ChronoUnit.DAYS);
+        LocalDateTime lastDay = now.truncatedTo(ChronoUnit.DAYS);
+
+        if (!firstHour.isBefore(lastHour)) {
+            // Less than one whole hour in the window
+            return summarizeAirQualityFromReadings(conn, location, from);
+        }
+        // Before the transaction: DDL would commit it
+        ensureWatermarkTable(conn);
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            long watermark;
+            try (PreparedStatement pstmt = conn.prepareStatement(WATERMARK_SQL)) {
+                pstmt.setString(1, rollup.watermarkName);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    watermark = rs.next() ? rs.getLong(1) : -1;
+                }
+            }
+            AirQualitySummary summary = new AirQualitySummary();
+            if (watermark < 0) {
+                // Not built yet
+                addRows(summary, conn, rawSummarySql, location, from, from, from);
+            } else {
+                addRows(summary, conn, rawSummarySql, location, from, firstHour, lastHour);
+                addRows(summary, conn, unfoldedSummarySql, location, firstHour, lastHour, watermark);
+                if (firstDay.isBefore(lastDay)) {
+                    addRows(summary, conn, dailySummarySql, location, firstDay, lastDay);
+                    addRows(summary, conn, hourlySummarySql, location, firstHour, firstDay, lastDay, lastHour);
+                } else {
+                    addRows(summary, conn, hourlySummarySql, location, firstHour, lastHour, lastHour, lastHour);
+                }
+            }
+            conn.commit();
+            return summary;
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Summarizes a location's air quality from {@code from} onwards from the raw readings only,
+     * for when the rollup tables are not available.
+     */
+    AirQualitySummary summarizeAirQualityFromReadings(Connection conn, String location, LocalDateTime from) throws SQLException {
+        AirQualitySummary summary = new AirQualitySummary();
+        addRows(summary, conn, rawSummarySql, location, from, from, from);
+        return summary;
+    }
+
+    // Binds the location, then each parameter: time bounds, and an id for the unfolded readings
+    private static void addRows(AirQualitySummary summary, Connection conn, String sql, String location,
+                                Object... params) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, location);
+            for (int i = 0; i < params.length; i++) {
+                if (params[i] instanceof LocalDateTime) {
+                    pstmt.setTimestamp(i + 2, Timestamp.valueOf((LocalDateTime) params[i]));
+                } else {
+                    pstmt.setLong(i + 2, (Long) params[i]);
+                }
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    summary.add(rs);
+                }
+            }
+        }
+    }
+
+    private static LocalDateTime ceil(LocalDateTime time, ChronoUnit unit) {
+        LocalDateTime floor = time.truncatedTo(unit);
+        return floor.equals(time) ? floor : floor.plus(1, unit);
+    }
+
+    /**
+     * The hourly and daily rollups of one readings table, which share the hourly table's watermark.
+     */
+    private static final class Rollup {
+        private final String watermarkName;
+        private final String recomputeHourlySql;
+        private final String recomputeDailySql;
+        private final List<String> clearSqls;
+        private final String maxIdSql;
+
+        private Rollup(String sourceTable, String hourlyTable, String dailyTable,
+                       String columns, String aggregates, String rollupTotals) {
+            this.watermarkName = hourlyTable;
+            String replace = replaceClause(columns);
+            // Every reading up to the new watermark of each (location, hour) that has a reading in the id range
+            this.recomputeHourlySql = "INSERT INTO " + hourlyTable + " (location, period_start, " + columns + ") "
+                    + "SELECT r.location, " + HOUR_BUCKET + ", " + aggregates + " FROM " + sourceTable + " r"
+                    + " JOIN (SELECT DISTINCT location, CAST(" + HOUR_BUCKET + " AS DATETIME) AS period_start"
+                    + " FROM " + sourceTable + " WHERE id > ? AND id <= ?) touched"
+                    + " ON r.location = touched.location AND r.timestamp >= touched.period_start"
+                    + " AND r.timestamp < touched.period_start + INTERVAL 1 HOUR"
+                    + " WHERE r.id <= ?"
+                    + " GROUP BY r.location, " + HOUR_BUCKET
+                    + " ON DUPLICATE KEY UPDATE " + replace;
+            // Every hour of each (location, day) that has a reading in the id range
+            this.recomputeDailySql = "INSERT INTO " + dailyTable + " (location, period_start, " + columns + ") "
+                    + "SELECT h.location, DATE(h.period_start), " + rollupTotals + " FROM " + hourlyTable + " h"
+                    + " JOIN (SELECT DISTINCT location, " + DAY_BUCKET + " AS day_start"
+                    + " FROM " + sourceTable + " WHERE id > ? AND id <= ?) touched"
+                    + " ON h.location = touched.location AND h.period_start >= touched.day_start"
+                    + " AND h.period_start < touched.day_start + INTERVAL 1 DAY"
+                    + " GROUP BY h.location, DATE(h.period_start)"
+                    + " ON DUPLICATE KEY UPDATE " + replace;
+            this.clearSqls = List.of("DELETE FROM " + hourlyTable, "DELETE FROM " + dailyTable);
+            this.maxIdSql = "SELECT COALESCE(MAX(id), 0) FROM " + sourceTable;
+        }
+
+        // A recomputed bucket replaces the stored one: "col = VALUES(col)" for every column
+        private static String replaceClause(String columns) {
+            StringJoiner replace = new StringJoiner(", ");
+            for (String column : columns.split(",\\s*")) {
+                replace.add(column + " = VALUES(" + column + ")");
+            }
+            return replace.toString();
+        }
+    }
+
+    /**
+     * Air quality totals of one location over a window, merged from rollups and raw rows.
+     */
+    static final class AirQualitySummary {
+        private long readingCount;
+        private double pm25Sum;
+        private double pm10Sum;
+        private double ozoneSum;
+        private double pm25Min = Double.POSITIVE_INFINITY;
+        private double pm25Max = Double.NEGATIVE_INFINITY;
+        private double pm10Min = Double.POSITIVE_INFINITY;
+        private double pm10Max = Double.NEGATIVE_INFINITY;
+        private double ozoneMin = Double.POSITIVE_INFINITY;
+        private double ozoneMax = Double.NEGATIVE_INFINITY;
+        private long goodCount;
+        private long moderateCount;
+        private long poorCount;
+        private long hazardousCount;
+
+        // Columns in the order of AIR_QUALITY_AGGREGATES / AIR_QUALITY_ROLLUP_TOTALS
+        private void add(ResultSet rs) throws SQLException {
+            long count = rs.getLong(1);
+            if (count == 0) {
+                return;
+            }
+            readingCount += count;
+            pm25Sum += rs.getDouble(2);
+            pm25Min = Math.min(pm25Min, rs.getDouble(3));
+            pm25Max = Math.max(pm25Max, rs.getDouble(4));
+            pm10Sum += rs.getDouble(5);
+            pm10Min = Math.min(pm10Min, rs.getDouble(6));
+            pm10Max = Math.max(pm10Max, rs.getDouble(7));
+            ozoneSum += rs.getDouble(8);
+            ozoneMin = Math.min(ozoneMin, rs.getDouble(9));
+            ozoneMax = Math.max(ozoneMax, rs.getDouble(10));
+            goodCount += rs.getLong(11);
+            moderateCount += rs.getLong(12);
+            poorCount += rs.getLong(13);
+            hazardousCount += rs.getLong(14);
+        }
+
+        long getReadingCount() { return readingCount; }
+        double getAvgPm25() { return readingCount == 0 ? 0 : pm25Sum / readingCount; }
+        double getAvgPm10() { return readingCount == 0 ? 0 : pm10Sum / readingCount; }
+        double getAvgOzone() { return readingCount == 0 ? 0 : ozoneSum / readingCount; }
+        double getPm25Min() { return pm25Min; }
+        double getPm25Max() { return pm25Max; }
+        double getPm10Min() { return pm10Min; }
+        double getPm10Max() { return pm10Max; }
+        double getOzoneMin() { return ozoneMin; }
+        double getOzoneMax() { return ozoneMax; }
+        long getGoodCount() { return goodCount; }
+        long getModerateCount() { return moderateCount; }
+        long getPoorCount() { return poorCount; }
+        long getHazardousCount() { return hazardousCount; }
+    }
+}
@@ -7,42 +7,61 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class EnvironmentalService {
 
     private static final Dotenv dotenv;
-    private static final String DB_URL;
-    private static final String DB_USER;
-    private static final String DB_PASSWORD;
     private static final String AIR_QUALITY_TABLE;
     private static final String NOISE_LEVEL_TABLE;
+    private static final int LATEST_POLL_BATCH_SIZE;
+    private static final int LATEST_POLL_OVERLAP;
+    private static final String AIR_QUALITY_LATEST_TABLE;
+    private static final String NOISE_LEVEL_LATEST_TABLE;
+    private static final boolean READ_LATEST_FROM_TABLE;
+    private static final long ROLLUP_INTERVAL_MS;
+    private static final int ROLLUP_FOLD_BATCH_SIZE;
+    private static final int ROLLUP_OVERLAP;
 
     static {
         try {
             dotenv = Dotenv.configure().ignoreIfMissing().load();
 
-            DB_URL = dotenv.get("DB_URL");
-            DB_USER = dotenv.get("DB_USER");
-            DB_PASSWORD = dotenv.get("DB_PASSWORD");
             AIR_QUALITY_TABLE = "air_quality_readings";
             NOISE_LEVEL_TABLE = "noise_level_readings";
 
-            if (DB_URL == null || DB_USER == null || DB_PASSWORD == null) {
-                throw new RuntimeException("Error: One or more required environment variables (DB_URL, DB_USER, DB_PASSWORD) are missing. Check .env file or system environment.");
-            }
+            LATEST_POLL_BATCH_SIZE = Integer.parseInt(dotenv.get("ENV_LATEST_POLL_BATCH_SIZE", "5000"));
+            LATEST_POLL_OVERLAP = Integer.parseInt(dotenv.get("ENV_LATEST_POLL_OVERLAP", "100"));
+
+            // "table" reads the trigger-maintained *_latest tables, "memory" the in-process stores.
+            AIR_QUALITY_LATEST_TABLE = "air_quality_latest";
+            NOISE_LEVEL_LATEST_TABLE = "noise_level_latest";
+            READ_LATEST_FROM_TABLE = "table".equalsIgnoreCase(dotenv.get("ENV_LATEST_READINGS_SOURCE", "table"));
 
-            Class.forName("com.mysql.cj.jdbc.Driver");
+            // Air quality rollup refresh interval (0 disables it; reports then read more raw rows)
+            ROLLUP_INTERVAL_MS = Long.parseLong(dotenv.get("ENV_ROLLUP_INTERVAL_MS", "60000"));
+            // Readings folded into the hourly/daily rollups per transaction
+            ROLLUP_FOLD_BATCH_SIZE = Integer.parseInt(dotenv.get("ENV_ROLLUP_FOLD_BATCH_SIZE", "50000"));
+            // Ids below the rollup watermark re-read each time, for readings that committed late
+            ROLLUP_OVERLAP = Integer.parseInt(dotenv.get("ENV_ROLLUP_OVERLAP", "1000"));
 
         } catch (RuntimeException e) {
             System.err.println("Error during static initialization: " + e.getMessage());
             e.printStackTrace();
             throw new RuntimeException("Error during static initialization.", e);
-        } catch (ClassNotFoundException e) {
-            throw new RuntimeException("Error: MySQL JDBC Driver not found.", e);
         } catch (Exception e) {
             System.err.println("Unexpected error during static initialization: " + e.getMessage());
             e.printStackTrace();
@@ -50,20 +69,137 @@ public class EnvironmentalService {
         }
     }
 
+    // Fixed statements, built once so every call prepares the identical SQL text and the
+    // pooled connection's statement cache can reuse the server-side prepared statement.
+    private static final String LATEST_AIR_QUALITY_SQL =
+            "SELECT * FROM " + AIR_QUALITY_TABLE +
+            " WHERE (location, timestamp) IN " +
+            "(SELECT location, MAX(timestamp) FROM " + AIR_QUALITY_TABLE +
+            " GROUP BY location)";
+    private static final String LATEST_NOISE_LEVEL_SQL =
+            "SELECT * FROM " + NOISE_LEVEL_TABLE +
+            " WHERE (location, timestamp) IN " +
+            "(SELECT location, MAX(timestamp) FROM " + NOISE_LEVEL_TABLE +
+            " GROUP BY location)";
+    private static final String AIR_QUALITY_LATEST_TABLE_SQL =
+            "SELECT reading_id AS id, timestamp, location, pm25_level, pm10_level, ozone_level, quality_index" +
+            " FROM " + AIR_QUALITY_LATEST_TABLE;
+    private static final String NOISE_LEVEL_LATEST_TABLE_SQL =
+            "SELECT reading_id AS id, timestamp, location, decibel_level, zone_type, exceeds_limit" +
+            " FROM " + NOISE_LEVEL_LATEST_TABLE;
+    private static final String DELETE_OLD_AIR_QUALITY_LATEST_SQL =
+            "DELETE FROM " + AIR_QUALITY_LATEST_TABLE + " WHERE timestamp < ?";
+    private static final String DELETE_OLD_NOISE_LEVEL_LATEST_SQL =
+            "DELETE FROM " + NOISE_LEVEL_LATEST_TABLE + " WHERE timestamp < ?";
+    private static final String AIR_QUALITY_ALERTS_SQL =
+            "SELECT * FROM " + AIR_QUALITY_TABLE +
+            " WHERE timestamp >= ? AND (quality_index = 'Poor' OR quality_index = 'Hazardous')" +
+            " ORDER BY timestamp DESC";
+    private static final String NOISE_VIOLATIONS_SQL =
+            "SELECT * FROM " + NOISE_LEVEL_TABLE +
+            " WHERE timestamp >= ? AND exceeds_limit = true" +
+            " ORDER BY timestamp DESC";
+    private static final String AIR_QUALITY_RETENTION_POLICY = "air-quality";
+    private static final String NOISE_LEVEL_RETENTION_POLICY = "noise-level";
+    private static final String LATEST_AIR_QUALITY_KEY = "latestAirQuality";
+    private static final String LATEST_NOISE_LEVEL_KEY = "latestNoiseLevel";
+
+    // MySQL error for a missing table
+    private static final int ER_NO_SUCH_TABLE = 1146;
+
     private static EnvironmentalService instance;
+    private static final ServiceMetrics METRICS = ServiceMetrics.forService("environmental");
+
+    // Latest-reading lookups are shared by every open view; see TtlCache for the settings.
+    private final TtlCache<String, Object> readCache = TtlCache.configured("ENVIRONMENTAL");
+
+    // Kept current from rows above a high-water mark instead of re-running the GROUP BY query.
+    private final LatestReadingStore<AirQualityReading> airQualityLatest = new LatestReadingStore<>(
+            AIR_QUALITY_TABLE, LATEST_AIR_QUALITY_SQL, EnvironmentalService::mapAirQualityReading,
+            AirQualityReading::getLocation, AirQualityReading::getId, AirQualityReading::getTimestamp,
+            LATEST_POLL_BATCH_SIZE, LATEST_POLL_OVERLAP);
+    private final LatestReadingStore<NoiseLevelReading> noiseLevelLatest = new LatestReadingStore<>(
+            NOISE_LEVEL_TABLE, LATEST_NOISE_LEVEL_SQL, EnvironmentalService::mapNoiseLevelReading,
+            NoiseLevelReading::getLocation, NoiseLevelReading::getId, NoiseLevelReading::getTimestamp,
+            LATEST_POLL_BATCH_SIZE, LATEST_POLL_OVERLAP);
+
+    // Last rows read from the *_latest tables, served when a read fails for another reason.
+    private volatile Map<String, AirQualityReading> lastAirQualityFromTable = Collections.emptyMap();
+    private volatile List<NoiseLevelReading> lastNoiseLevelsFromTable = Collections.emptyList();
+
+    // Cleared when the *_latest tables turn out to be missing, e.g. on an older schema.
+    private volatile boolean latestTablesAvailable = READ_LATEST_FROM_TABLE;
+
+    // Reports read these instead of scanning the readings; cleared when the tables are missing.
+    private final EnvironmentalRollups rollups =
+            new EnvironmentalRollups(AIR_QUALITY_TABLE, ROLLUP_FOLD_BATCH_SIZE, ROLLUP_OVERLAP);
+    private volatile boolean rollupsAvailable = true;
+    private final AtomicBoolean refreshingRollups = new AtomicBoolean();
 
     private EnvironmentalService() {
+        // Scheduled runs keep RETENTION_AIR_QUALITY_DAYS / RETENTION_NOISE_LEVEL_DAYS days when set.
+        RetentionEngine engine = RetentionEngine.getInstance();
+        engine.register(new RetentionEngine.Policy(
+                AIR_QUALITY_RETENTION_POLICY, AIR_QUALITY_TABLE, "id", "timestamp < ?", true,
+                RetentionEngine.keepDays(AIR_QUALITY_RETENTION_POLICY),
+                cutoff -> afterRetention(airQualityLatest, DELETE_OLD_AIR_QUALITY_LATEST_SQL, cutoff)));
+        engine.register(new RetentionEngine.Policy(
+                NOISE_LEVEL_RETENTION_POLICY, NOISE_LEVEL_TABLE, "id", "timestamp < ?", true,
+                RetentionEngine.keepDays(NOISE_LEVEL_RETENTION_POLICY),
+                cutoff -> afterRetention(noiseLevelLatest, DELETE_OLD_NOISE_LEVEL_LATEST_SQL, cutoff)));
     }
 
     public static synchronized EnvironmentalService getInstance() {
         if (instance == null) {
             instance = new EnvironmentalService();
+            if (ROLLUP_INTERVAL_MS > 0) {
+                ServiceExecutor.scheduleAtFixedRate(instance::refreshRollupsInBackground, 0, ROLLUP_INTERVAL_MS);
+            }
         }
         return instance;
     }
 
+    private void refreshRollupsInBackground() {
+        if (rollupsAvailable && refreshingRollups.compareAndSet(false, true)) {
+            ServiceExecutor.get().execute(() -> {
+                try {
+                    refreshRollups();
+                } finally {
+                    refreshingRollups.set(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * Folds the air quality readings inserted since the last refresh into the hourly and daily rollups.
+     */
+    public void refreshRollups() {
+        METRICS.run("refreshRollups", () -> {
+            try (Connection conn = getConnection()) {
+                rollups.refresh(conn);
+            } catch (SQLException e) {
+                if (e.getErrorCode() == ER_NO_SUCH_TABLE) {
+                    rollupsMissing(e);
+                    return;
+                }
+                System.err.println("Error refreshing air quality rollups: " + e.getMessage());
+                ServiceMetrics.recordError();
+                e.printStackTrace();
+            }
+        });
+    }
+
+    private void rollupsMissing(SQLException e) {
+        if (rollupsAvailable) {
+            System.err.println("Rollup tables not found (" + e.getMessage() +
+                    "); reports will scan the readings. Apply smart_city_db.sql to create them.");
+            rollupsAvailable = false;
+        }
+    }
+
     private Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
+        return ConnectionPool.getInstance().getConnection();
     }
 
     public static class AirQualityReading {
@@ -122,233 +258,433 @@ public class EnvironmentalService {
         public boolean isExceedsLimit() { return exceedsLimit; }
     }
 
-    public Map<String, AirQualityReading> getLatestAirQualityReadings() {
-        Map<String, AirQualityReading> latestReadings = new HashMap<>();
+    /**
+     * Drops the cached latest-reading lookups. Call after writing environmental data.
+     */
+    public void invalidateCachedReads() {
+        readCache.invalidateAll();
+    }
 
-        String sql = "SELECT * FROM " + AIR_QUALITY_TABLE +
-                     " WHERE (location, timestamp) IN " +
-                     "(SELECT location, MAX(timestamp) FROM " + AIR_QUALITY_TABLE +
-                     " GROUP BY location)";
+    @SuppressWarnings("unchecked")
+    private <T> T cached(String key, Supplier<T> loader) {
+        return (T) readCache.get(key, loader::get);
+    }
 
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql);
-             ResultSet rs = pstmt.executeQuery()) {
+    /**
+     * @return the latest reading per location; the map is shared and unmodifiable
+     */
+    public Map<String, AirQualityReading> getLatestAirQualityReadings() {
+        return METRICS.time("getLatestAirQualityReadings",
+                () -> cached(LATEST_AIR_QUALITY_KEY, () -> Collections.unmodifiableMap(loadLatestAirQualityReadings())));
+    }
 
-            while (rs.next()) {
-                int id = rs.getInt("id");
-                LocalDateTime timestamp = rs.getTimestamp("timestamp").toLocalDateTime();
-                String location = rs.getString("location");
-                double pm25Level = rs.getDouble("pm25_level");
-                double pm10Level = rs.getDouble("pm10_level");
-                double ozoneLevel = rs.getDouble("ozone_level");
-                String qualityIndex = rs.getString("quality_index");
-
-                AirQualityReading reading = new AirQualityReading(
-                    id, timestamp, location, pm25Level, pm10Level, ozoneLevel, qualityIndex
-                );
-                latestReadings.put(location, reading);
+    /**
+     * @return the latest reading per location; the list is shared and unmodifiable
+     */
+    public List<NoiseLevelReading> getLatestNoiseLevelReadings() {
+        return METRICS.time("getLatestNoiseLevelReadings",
+                () -> cached(LATEST_NOISE_LEVEL_KEY, () -> Collections.unmodifiableList(loadLatestNoiseLevelReadings())));
+    }
+
+    private Map<String, AirQualityReading> loadLatestAirQualityReadings() {
+        if (latestTablesAvailable) {
+            try {
+                Map<String, AirQualityReading> latestReadings = new HashMap<>();
+                for (AirQualityReading reading : readLatestTable(AIR_QUALITY_LATEST_TABLE_SQL, EnvironmentalService::mapAirQualityReading)) {
+                    latestReadings.put(reading.getLocation(), reading);
+                }
+                lastAirQualityFromTable = Collections.unmodifiableMap(new HashMap<>(latestReadings));
+                return latestReadings;
+            } catch (SQLException e) {
+                if (!handleLatestTableFailure(e)) {
+                    return new HashMap<>(lastAirQualityFromTable);
+                }
             }
+        }
 
+        try (Connection conn = getConnection()) {
+            return airQualityLatest.refresh(conn);
         } catch (SQLException e) {
+            ServiceMetrics.recordError();
             e.printStackTrace();
+            // Serve the last known readings rather than an empty grid.
+            return airQualityLatest.getSnapshot();
         }
-
-        return latestReadings;
     }
 
-    public List<NoiseLevelReading> getLatestNoiseLevelReadings() {
-        List<NoiseLevelReading> readings = new ArrayList<>();
+    private List<NoiseLevelReading> loadLatestNoiseLevelReadings() {
+        if (latestTablesAvailable) {
+            try {
+                List<NoiseLevelReading> latestReadings =
+                        readLatestTable(NOISE_LEVEL_LATEST_TABLE_SQL, EnvironmentalService::mapNoiseLevelReading);
+                lastNoiseLevelsFromTable = Collections.unmodifiableList(new ArrayList<>(latestReadings));
+                return latestReadings;
+            } catch (SQLException e) {
+                if (!handleLatestTableFailure(e)) {
+                    return new ArrayList<>(lastNoiseLevelsFromTable);
+                }
+            }
+        }
 
-        String sql = "SELECT * FROM " + NOISE_LEVEL_TABLE +
-                     " WHERE (location, timestamp) IN " +
-                     "(SELECT location, MAX(timestamp) FROM " + NOISE_LEVEL_TABLE +
-                     " GROUP BY location)";
+        Map<String, NoiseLevelReading> latestReadings;
+        try (Connection conn = getConnection()) {
+            latestReadings = noiseLevelLatest.refresh(conn);
+        } catch (SQLException e) {
+            ServiceMetrics.recordError();
+            e.printStackTrace();
+            latestReadings = noiseLevelLatest.getSnapshot();
+        }
+        return new ArrayList<>(latestReadings.values());
+    }
 
+    private <R> List<R> readLatestTable(String sql, RowMapper<R> mapper) throws SQLException {
+        List<R> readings = new ArrayList<>();
         try (Connection conn = getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql);
              ResultSet rs = pstmt.executeQuery()) {
-
             while (rs.next()) {
-                int id = rs.getInt("id");
-                LocalDateTime timestamp = rs.getTimestamp("timestamp").toLocalDateTime();
-                String location = rs.getString("location");
-                double decibelLevel = rs.getDouble("decibel_level");
-                String zoneType = rs.getString("zone_type");
-                boolean exceedsLimit = rs.getBoolean("exceeds_limit");
-
-                NoiseLevelReading reading = new NoiseLevelReading(
-                    id, timestamp, location, decibelLevel, zoneType, exceedsLimit
-                );
-                readings.add(reading);
+                readings.add(mapper.map(rs));
             }
+        }
+        return readings;
+    }
 
-        } catch (SQLException e) {
-            e.printStackTrace();
+    /**
+     * @return true when the *_latest tables are missing and the caller should fall back to the
+     *         in-memory stores; any other error is transient, and a cold store's bootstrap scan
+     *         is the last thing a struggling database needs, so the caller serves its last result
+     */
+    private boolean handleLatestTableFailure(SQLException e) {
+        if (e.getErrorCode() == ER_NO_SUCH_TABLE) {
+            System.err.println("Latest-reading tables not found (" + e.getMessage() +
+                    "); falling back to in-memory latest readings. Apply smart_city_db.sql to create them.");
+            latestTablesAvailable = false;
+            return true;
         }
+        ServiceMetrics.recordError();
+        e.printStackTrace();
+        return false;
+    }
 
-        return readings;
+    private static AirQualityReading mapAirQualityReading(ResultSet rs) throws SQLException {
+        return new AirQualityReading(
+            rs.getInt("id"),
+            rs.getTimestamp("timestamp").toLocalDateTime(),
+            rs.getString("location"),
+            rs.getDouble("pm25_level"),
+            rs.getDouble("pm10_level"),
+            rs.getDouble("ozone_level"),
+            rs.getString("quality_index")
+        );
     }
 
-    public List<AirQualityReading> getAirQualityAlerts(int daysBack) {
-        List<AirQualityReading> alerts = new ArrayList<>();
-        LocalDateTime cutoffDate = LocalDateTime.now().minusDays(daysBack);
+    private static NoiseLevelReading mapNoiseLevelReading(ResultSet rs) throws SQLException {
+        return new NoiseLevelReading(
+            rs.getInt("id"),
+            rs.getTimestamp("timestamp").toLocalDateTime(),
+            rs.getString("location"),
+            rs.getDouble("decibel_level"),
+            rs.getString("zone_type"),
+            rs.getBoolean("exceeds_limit")
+        );
+    }
 
-        String sql = "SELECT * FROM " + AIR_QUALITY_TABLE +
-                     " WHERE timestamp >= ? AND (quality_index = 'Poor' OR quality_index = 'Hazardous')" +
-                     " ORDER BY timestamp DESC";
+    public List<AirQualityReading> getAirQualityAlerts(int daysBack) {
+        return METRICS.time("getAirQualityAlerts", () -> {
+            List<AirQualityReading> alerts = new ArrayList<>();
+            LocalDateTime cutoffDate = LocalDateTime.now().minusDays(daysBack);
 
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            try (Connection conn = getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(AIR_QUALITY_ALERTS_SQL)) {
 
-            pstmt.setTimestamp(1, Timestamp.valueOf(cutoffDate));
+                pstmt.setTimestamp(1, Timestamp.valueOf(cutoffDate));
 
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    int id = rs.getInt("id");
-                    LocalDateTime timestamp = rs.getTimestamp("timestamp").toLocalDateTime();
-                    String location = rs.getString("location");
-                    double pm25Level = rs.getDouble("pm25_level");
-                    double pm10Level = rs.getDouble("pm10_level");
-                    double ozoneLevel = rs.getDouble("ozone_level");
-                    String qualityIndex = rs.getString("quality_index");
-
-                    AirQualityReading reading = new AirQualityReading(
-                        id, timestamp, location, pm25Level, pm10Level, ozoneLevel, qualityIndex
-                    );
-                    alerts.add(reading);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        alerts.add(mapAirQualityReading(rs));
+                    }
                 }
-            }
 
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+            } catch (SQLException e) {
+                ServiceMetrics.recordError();
+                e.printStackTrace();
+            }
 
-        return alerts;
+            return alerts;
+        });
     }
 
     public List<NoiseLevelReading> getNoiseViolations(int daysBack) {
-        List<NoiseLevelReading> violations = new ArrayList<>();
-        LocalDateTime cutoffDate = LocalDateTime.now().minusDays(daysBack);
+        return METRICS.time("getNoiseViolations", () -> {
+            List<NoiseLevelReading> violations = new ArrayList<>();
+            LocalDateTime cutoffDate = LocalDateTime.now().minusDays(daysBack);
 
-        String sql = "SELECT * FROM " + NOISE_LEVEL_TABLE +
-                     " WHERE timestamp >= ? AND exceeds_limit = true" +
-                     " ORDER BY timestamp DESC";
+            try (Connection conn = getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(NOISE_VIOLATIONS_SQL)) {
 
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setTimestamp(1, Timestamp.valueOf(cutoffDate));
 
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        violations.add(mapNoiseLevelReading(rs));
+                    }
+                }
+
+            } catch (SQLException e) {
+                ServiceMetrics.recordError();
+                e.printStackTrace();
+            }
+
+            return violations;
+        });
+    }
+
+    /**
+     * Streams the air quality alerts of the last {@code daysBack} days one row at a time,
+     * newest first, without materializing the window in memory.
+     * <p>
+     * The stream holds a pooled connection until it is closed, so use it in a
+     * try-with-resources block.
+     */
+    public Stream<AirQualityReading> streamAirQualityAlerts(int daysBack) {
+        return streamSince("streamAirQualityAlerts", AIR_QUALITY_ALERTS_SQL,
+                LocalDateTime.now().minusDays(daysBack), EnvironmentalService::mapAirQualityReading);
+    }
+
+    /**
+     * Streams the noise violations of the last {@code daysBack} days one row at a time,
+     * newest first. Close the stream to release its connection.
+     */
+    public Stream<NoiseLevelReading> streamNoiseViolations(int daysBack) {
+        return streamSince("streamNoiseViolations", NOISE_VIOLATIONS_SQL,
+                LocalDateTime.now().minusDays(daysBack), EnvironmentalService::mapNoiseLevelReading);
+    }
+
+    /**
+     * Runs a query with a single timestamp parameter as a MySQL streaming result set
+     * (forward-only, read-only, fetch size {@link Integer#MIN_VALUE}), so the driver hands
+     * rows over as they arrive instead of buffering the whole result. The statement is
+     * prepared with explicit result set options, which keeps it out of the statement cache.
+     * <p>
+     * The call is timed under {@code method} from the query until the stream is closed, with
+     * the rows the caller actually consumed.
+     */
+    private <R> Stream<R> streamSince(String method, String sql, LocalDateTime cutoffDate, RowMapper<R> mapper) {
+        ServiceMetrics.Span span = METRICS.start(method);
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs;
+        try {
+            conn = getConnection();
+            pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            pstmt.setFetchSize(Integer.MIN_VALUE);
             pstmt.setTimestamp(1, Timestamp.valueOf(cutoffDate));
+            rs = pstmt.executeQuery();
+        } catch (SQLException e) {
+            span.fail();
+            span.stop();
+            e.printStackTrace();
+            closeQuietly(pstmt, conn);
+            return Stream.empty();
+        }
 
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    int id = rs.getInt("id");
-                    LocalDateTime timestamp = rs.getTimestamp("timestamp").toLocalDateTime();
-                    String location = rs.getString("location");
-                    double decibelLevel = rs.getDouble("decibel_level");
-                    String zoneType = rs.getString("zone_type");
-                    boolean exceedsLimit = rs.getBoolean("exceeds_limit");
-
-                    NoiseLevelReading reading = new NoiseLevelReading(
-                        id, timestamp, location, decibelLevel, zoneType, exceedsLimit
-                    );
-                    violations.add(reading);
+        Connection openConn = conn;
+        PreparedStatement openStmt = pstmt;
+        Spliterator<R> rows = new Spliterators.AbstractSpliterator<R>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super R> action) {
+                try {
+                    if (!rs.next()) {
+                        return false;
+                    }
+                    span.addRows(1);
+                    action.accept(mapper.map(rs));
+                    return true;
+                } catch (SQLException e) {
+                    span.fail();
+                    throw new RuntimeException("Error reading streamed rows: " + e.getMessage(), e);
                 }
             }
+        };
+        return StreamSupport.stream(rows, false).onClose(() -> {
+            try {
+                rs.close();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+            closeQuietly(openStmt, openConn);
+            span.stop();
+        });
+    }
 
+    private static void closeQuietly(Statement stmt, Connection conn) {
+        try {
+            if (stmt != null) {
+                stmt.close();
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        try {
+            if (conn != null) {
+                conn.close();
+            }
         } catch (SQLException e) {
             e.printStackTrace();
         }
-
-        return violations;
     }
 
     public String deleteOldEnvironmentalData(int daysToKeep) {
-        LocalDateTime cutoffDate = LocalDateTime.now().minusDays(daysToKeep);
-        int airQualityRowsDeleted = 0;
-        int noiseLevelRowsDeleted = 0;
-
-        try (Connection conn = getConnection()) {
-            String airQualitySql = "DELETE FROM " + AIR_QUALITY_TABLE + " WHERE timestamp < ?";
-            try (PreparedStatement pstmt = conn.prepareStatement(airQualitySql)) {
-                pstmt.setTimestamp(1, Timestamp.valueOf(cutoffDate));
-                airQualityRowsDeleted = pstmt.executeUpdate();
+        return METRICS.time("deleteOldEnvironmentalData", () -> {
+            LocalDateTime cutoffDate = LocalDateTime.now().minusDays(daysToKeep);
+            RetentionEngine engine = RetentionEngine.getInstance();
+            RetentionEngine.Progress airQuality = engine.run(AIR_QUALITY_RETENTION_POLICY, cutoffDate);
+            RetentionEngine.Progress noiseLevel = engine.run(NOISE_LEVEL_RETENTION_POLICY, cutoffDate);
+            ServiceMetrics.recordRows(airQuality.getRowsDeleted() + noiseLevel.getRowsDeleted());
+
+            String error = airQuality.getError() != null ? airQuality.getError() : noiseLevel.getError();
+            if (error != null) {
+                ServiceMetrics.recordError();
+                return "Error deleting old environmental data: " + error;
+            }
+            if (airQuality.isRunning() || noiseLevel.isRunning()) {
+                return "Environmental data cleanup is already running; try again when it has finished.";
             }
 
-            String noiseLevelSql = "DELETE FROM " + NOISE_LEVEL_TABLE + " WHERE timestamp < ?";
-            try (PreparedStatement pstmt = conn.prepareStatement(noiseLevelSql)) {
-                pstmt.setTimestamp(1, Timestamp.valueOf(cutoffDate));
-                noiseLevelRowsDeleted = pstmt.executeUpdate();
+            String message = String.format("Successfully deleted %d air quality readings and %d noise level readings older than %s.",
+                    airQuality.getRowsDeleted(), noiseLevel.getRowsDeleted(),
+                    cutoffDate.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
+            int partitionsDropped = airQuality.getPartitionsDropped() + noiseLevel.getPartitionsDropped();
+            if (partitionsDropped > 0) {
+                message += String.format(" %d daily partition(s) dropped; counts for them are estimates.", partitionsDropped);
             }
+            return message;
+        });
+    }
 
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return "Error deleting old environmental data: " + e.getMessage();
+    /**
+     * Runs after a retention run on a readings table. Deleted rows may have been some
+     * location's latest reading, so the in-memory view is rebuilt on the next read, and a
+     * location whose latest reading is older than the cutoff has no readings left.
+     */
+    private void afterRetention(LatestReadingStore<?> latest, String deleteLatestSql, LocalDateTime cutoff) {
+        latest.reset();
+        if (latestTablesAvailable) {
+            try (Connection conn = getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(deleteLatestSql)) {
+                pstmt.setTimestamp(1, Timestamp.valueOf(cutoff));
+                pstmt.executeUpdate();
+            } catch (SQLException e) {
+                handleLatestTableFailure(e);
+            }
         }
-
-        return String.format("Successfully deleted %d air quality readings and %d noise level readings older than %s.",
-                airQualityRowsDeleted, noiseLevelRowsDeleted,
-                cutoffDate.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
+        invalidateCachedReads();
     }
 
     public String generateAirQualityReport(String location, int daysBack) {
-        LocalDateTime cutoffDate = LocalDateTime.now().minusDays(daysBack);
+        return METRICS.time("generateAirQualityReport", () -> {
+            LocalDateTime cutoffDate = LocalDateTime.now().minusDays(daysBack);
+
+            EnvironmentalRollups.AirQualitySummary summary;
+            try (Connection conn = getConnection()) {
+                summary = summarizeAirQuality(conn, location, cutoffDate);
+            } catch (SQLException e) {
+                ServiceMetrics.recordError();
+                e.printStackTrace();
+                return "Error generating air quality report: " + e.getMessage();
+            }
 
-        String sql = "SELECT AVG(pm25_level) as avg_pm25, AVG(pm10_level) as avg_pm10, " +
-                     "AVG(ozone_level) as avg_ozone, COUNT(*) as reading_count, " +
-                     "SUM(CASE WHEN quality_index = 'Good' THEN 1 ELSE 0 END) as good_count, " +
-                     "SUM(CASE WHEN quality_index = 'Moderate' THEN 1 ELSE 0 END) as moderate_count, " +
-                     "SUM(CASE WHEN quality_index = 'Poor' THEN 1 ELSE 0 END) as poor_count, " +
-                     "SUM(CASE WHEN quality_index = 'Hazardous' THEN 1 ELSE 0 END) as hazardous_count " +
-                     "FROM " + AIR_QUALITY_TABLE + " WHERE location = ? AND timestamp >= ?";
+            long readingCount = summary.getReadingCount();
+            if (readingCount == 0) {
+                return "No air quality data available for " + location + " in the last " + daysBack + " days.";
+            }
 
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setString(1, location);
-            pstmt.setTimestamp(2, Timestamp.valueOf(cutoffDate));
-
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    double avgPm25 = rs.getDouble("avg_pm25");
-                    double avgPm10 = rs.getDouble("avg_pm10");
-                    double avgOzone = rs.getDouble("avg_ozone");
-                    int readingCount = rs.getInt("reading_count");
-                    int goodCount = rs.getInt("good_count");
-                    int moderateCount = rs.getInt("moderate_count");
-                    int poorCount = rs.getInt("poor_count");
-                    int hazardousCount = rs.getInt("hazardous_count");
-
-                    if (readingCount == 0) {
-                        return "No air quality data available for " + location + " in the last " + daysBack + " days.";
-                    }
+            return String.format(
+                "Air Quality Report for %s (Last %d Days):\n" +
+                "--------------------------------------------------\n" +
+                "Total Readings: %d\n" +
+                "Average PM2.5 Level: %.2f μg/m³ (min %.2f, max %.2f)\n" +
+                "Average PM10 Level: %.2f μg/m³ (min %.2f, max %.2f)\n" +
+                "Average Ozone Level: %.2f ppb (min %.2f, max %.2f)\n\n" +
+                "Quality Index Distribution:\n" +
+                "  Good: %d (%.1f%%)\n" +
+                "  Moderate: %d (%.1f%%)\n" +
+                "  Poor: %d (%.1f%%)\n" +
+                "  Hazardous: %d (%.1f%%)\n" +
+                "--------------------------------------------------",
+                location, daysBack, readingCount,
+                summary.getAvgPm25(), summary.getPm25Min(), summary.getPm25Max(),
+                summary.getAvgPm10(), summary.getPm10Min(), summary.getPm10Max(),
+                summary.getAvgOzone(), summary.getOzoneMin(), summary.getOzoneMax(),
+                summary.getGoodCount(), (summary.getGoodCount() * 100.0 / readingCount),
+                summary.getModerateCount(), (summary.getModerateCount() * 100.0 / readingCount),
+                summary.getPoorCount(), (summary.getPoorCount() * 100.0 / readingCount),
+                summary.getHazardousCount(), (summary.getHazardousCount() * 100.0 / readingCount)
+            );
+        });
+    }
 
-                    return String.format(
-                        "Air Quality Report for %s (Last %d Days):\n" +
-                        "--------------------------------------------------\n" +
-                        "Total Readings: %d\n" +
-                        "Average PM2.5 Level: %.2f μg/m³\n" +
-                        "Average PM10 Level: %.2f μg/m³\n" +
-                        "Average Ozone Level: %.2f ppb\n\n" +
-                        "Quality Index Distribution:\n" +
-                        "  Good: %d (%.1f%%)\n" +
-                        "  Moderate: %d (%.1f%%)\n" +
-                        "  Poor: %d (%.1f%%)\n" +
-                        "  Hazardous: %d (%.1f%%)\n" +
-                        "--------------------------------------------------",
-                        location, daysBack, readingCount, avgPm25, avgPm10, avgOzone,
-                        goodCount, (goodCount * 100.0 / readingCount),
-                        moderateCount, (moderateCount * 100.0 / readingCount),
-                        poorCount, (poorCount * 100.0 / readingCount),
-                        hazardousCount, (hazardousCount * 100.0 / readingCount)
-                    );
-                } else {
-                    return "No air quality data available for " + location + " in the last " + daysBack + " days.";
+    /**
+     * Summarizes from the rollups kept current in the background, or from the raw readings
+     * when the rollup tables have not been created.
+     */
+    private EnvironmentalRollups.AirQualitySummary summarizeAirQuality(Connection conn, String location,
+                                                                      LocalDateTime from) throws SQLException {
+        if (rollupsAvailable) {
+            try {
+                return rollups.summarizeAirQuality(conn, location, from);
+            } catch (SQLException e) {
+                if (e.getErrorCode() != ER_NO_SUCH_TABLE) {
+                    throw e;
                 }
+                rollupsMissing(e);
             }
-
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return "Error generating air quality report: " + e.getMessage();
         }
+        return rollups.summarizeAirQualityFromReadings(conn, location, from);
+    }
+
+    // --- Asynchronous variants (run on ServiceExecutor, never on the UI thread) ---
+
+    public CompletableFuture<Map<String, AirQualityReading>> getLatestAirQualityReadingsAsync() {
+        return ServiceExecutor.supply(this::getLatestAirQualityReadings);
+    }
+
+    public CompletableFuture<List<NoiseLevelReading>> getLatestNoiseLevelReadingsAsync() {
+        return ServiceExecutor.supply(this::getLatestNoiseLevelReadings);
+    }
+
+    public CompletableFuture<List<AirQualityReading>> getAirQualityAlertsAsync(int daysBack) {
+        return ServiceExecutor.supply(() -> getAirQualityAlerts(daysBack));
+    }
+
+    public CompletableFuture<List<NoiseLevelReading>> getNoiseViolationsAsync(int daysBack) {
+        return ServiceExecutor.supply(() -> getNoiseViolations(daysBack));
+    }
+
+    /**
+     * Streams the alerts into {@code reader} on the service executor and closes the stream afterwards.
+     */
+    public <T> CompletableFuture<T> readAirQualityAlertsAsync(int daysBack, Function<Stream<AirQualityReading>, T> reader) {
+        return ServiceExecutor.supply(() -> {
+            try (Stream<AirQualityReading> alerts = streamAirQualityAlerts(daysBack)) {
+                return reader.apply(alerts);
+            }
+        });
+    }
+
+    public <T> CompletableFuture<T> readNoiseViolationsAsync(int daysBack, Function<Stream<NoiseLevelReading>, T> reader) {
+        return ServiceExecutor.supply(() -> {
+            try (Stream<NoiseLevelReading> violations = streamNoiseViolations(daysBack)) {
+                return reader.apply(violations);
+            }
+        });
+    }
+
+    public CompletableFuture<String> deleteOldEnvironmentalDataAsync(int daysToKeep) {
+        return ServiceExecutor.supply(() -> deleteOldEnvironmentalData(daysToKeep));
+    }
+
+    public CompletableFuture<String> generateAirQualityReportAsync(String location, int daysBack) {
+        return ServiceExecutor.supply(() -> generateAirQualityReport(location, daysBack));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,430 @@
+package com.example.model;
+
+import com.example.model.EnvironmentalService.AirQualityReading;
+import com.example.model.EnvironmentalService.NoiseLevelReading;
+
+import io.github.cdimascio.dotenv.Dotenv;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Write path for sensor readings and live traffic/parking state.
+ * <p>
+ * Submitted rows are buffered per table and written with JDBC batches, which the pool's
+ * {@code rewriteBatchedStatements} setting turns into multi-row INSERTs. A buffer is flushed
+ * on the submitting thread once it holds INGEST_BATCH_SIZE rows (so producers slow down when
+ * the database does), and every buffer is flushed in the background every
+ * INGEST_FLUSH_INTERVAL_MS. Junction and parking updates are keyed: only the newest state per
+ * junction or spot waiting in a buffer is written.
+ * <p>
+ * Rows from a failed flush go back to the front of their buffer and are retried with the next
+ * one; once a buffer holds more than INGEST_MAX_BUFFERED rows the oldest are dropped and
+ * counted in {@link Stats#getDropped()}.
+ */
+public final class IngestionService {
+
+    private static final int BATCH_SIZE;
+    private static final long FLUSH_INTERVAL_MS;
+    private static final int MAX_BUFFERED;
+    private static final String POWER_TABLE;
+    private static final String JUNCTION_TABLE;
+    private static final String PARKING_TABLE;
+
+    static {
+        Dotenv dotenv = Dotenv.configure().ignoreIfMissing().load();
+        BATCH_SIZE = Integer.parseInt(dotenv.get("INGEST_BATCH_SIZE", "500"));
+        FLUSH_INTERVAL_MS = Long.parseLong(dotenv.get("INGEST_FLUSH_INTERVAL_MS", "1000"));
+        MAX_BUFFERED = Integer.parseInt(dotenv.get("INGEST_MAX_BUFFERED", "50000"));
+        POWER_TABLE = dotenv.get("DB_TABLE", "power_readings");
+        JUNCTION_TABLE = dotenv.get("DB_JUNCTION_TABLE", "junction_state");
+        PARKING_TABLE = dotenv.get("DB_PARKING_TABLE", "parking_spots");
+    }
+
+    private static final String INSERT_POWER_READING_SQL = "INSERT INTO " + POWER_TABLE +
+            " (reading_date, power_consumed, fault_detected) VALUES (?, ?, ?)";
+    private static final String INSERT_AIR_QUALITY_SQL = "INSERT INTO air_quality_readings" +
+            " (timestamp, location, pm25_level, pm10_level, ozone_level, quality_index) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_NOISE_LEVEL_SQL = "INSERT INTO noise_level_readings" +
+            " (timestamp, location, decibel_level, zone_type, exceeds_limit) VALUES (?, ?, ?, ?, ?)";
+    private static final String UPSERT_JUNCTION_STATE_SQL = "INSERT INTO " + JUNCTION_TABLE +
+            " (junction_id, lane_1_vehicles, lane_2_vehicles, lane_3_vehicles, lane_4_vehicles, green_lane_id, last_updated)" +
+            " VALUES (?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE" +
+            " lane_1_vehicles = VALUES(lane_1_vehicles), lane_2_vehicles = VALUES(lane_2_vehicles)," +
+            " lane_3_vehicles = VALUES(lane_3_vehicles), lane_4_vehicles = VALUES(lane_4_vehicles)," +
+            " green_lane_id = VALUES(green_lane_id), last_updated = VALUES(last_updated)";
+    private static final String UPSERT_PARKING_SPOT_SQL = "INSERT INTO " + PARKING_TABLE +
+            " (spot_id, location_description, is_occupied, last_updated) VALUES (?, ?, ?, ?)" +
+            " ON DUPLICATE KEY UPDATE is_occupied = VALUES(is_occupied), last_updated = VALUES(last_updated)," +
+            " location_description = COALESCE(VALUES(location_description), location_description)";
+
+    private static IngestionService instance;
+
+    private final Buffer<PowerReading> powerReadings = new Buffer<>("power", INSERT_POWER_READING_SQL, null,
+            (pstmt, reading) -> {
+                pstmt.setDate(1, Date.valueOf(reading.getDate()));
+                pstmt.setDouble(2, reading.getPowerConsumed());
+                pstmt.setBoolean(3, reading.isFaultDetected());
+            }, null);
+    private final Buffer<AirQualityReading> airQualityReadings = new Buffer<>("air-quality", INSERT_AIR_QUALITY_SQL, null,
+            (pstmt, reading) -> {
+                pstmt.setTimestamp(1, Timestamp.valueOf(reading.getTimestamp()));
+                pstmt.setString(2, reading.getLocation());
+                pstmt.setDouble(3, reading.getPm25Level());
+                pstmt.setDouble(4, reading.getPm10Level());
+                pstmt.setDouble(5, reading.getOzoneLevel());
+                pstmt.setString(6, reading.getQualityIndex());
+            }, () -> EnvironmentalService.getInstance().invalidateCachedReads());
+    private final Buffer<NoiseLevelReading> noiseLevelReadings = new Buffer<>("noise", INSERT_NOISE_LEVEL_SQL, null,
+            (pstmt, reading) -> {
+                pstmt.setTimestamp(1, Timestamp.valueOf(reading.getTimestamp()));
+                pstmt.setString(2, reading.getLocation());
+                pstmt.setDouble(3, reading.getDecibelLevel());
+                pstmt.setString(4, reading.getZoneType());
+                pstmt.setBoolean(5, reading.isExceedsLimit());
+            }, () -> EnvironmentalService.getInstance().invalidateCachedReads());
+    private final Buffer<JunctionState> junctionStates = new Buffer<>("junctions", UPSERT_JUNCTION_STATE_SQL,
+            JunctionState::getJunctionId,
+            (pstmt, state) -> {
+                pstmt.setString(1, state.getJunctionId());
+                pstmt.setInt(2, state.getLane1Vehicles());
+                pstmt.setInt(3, state.getLane2Vehicles());
+                pstmt.setInt(4, state.getLane3Vehicles());
+                pstmt.setInt(5, state.getLane4Vehicles());
+                pstmt.setInt(6, state.getGreenLaneId());
+                pstmt.setTimestamp(7, timestampOrNow(state.getLastUpdated()));
+            }, () -> TrafficService.getInstance().invalidateCachedReads());
+    private final Buffer<ParkingSpot> parkingSpots = new Buffer<>("parking", UPSERT_PARKING_SPOT_SQL,
+            ParkingSpot::getSpotId,
+            (pstmt, spot) -> {
+                pstmt.setString(1, spot.getSpotId());
+                pstmt.setString(2, spot.getLocationDescription());
+                pstmt.setBoolean(3, spot.isOccupied());
+                pstmt.setTimestamp(4, timestampOrNow(spot.getLastUpdated()));
+            }, () -> TrafficService.getInstance().invalidateCachedReads());
+
+    private final List<Buffer<?>> buffers = List.of(
+            powerReadings, airQualityReadings, noiseLevelReadings, junctionStates, parkingSpots);
+    private final AtomicBoolean flushing = new AtomicBoolean();
+    private ScheduledFuture<?> schedule;
+
+    private IngestionService() {
+    }
+
+    public static synchronized IngestionService getInstance() {
+        if (instance == null) {
+            instance = new IngestionService();
+            if (FLUSH_INTERVAL_MS > 0) {
+                instance.schedule = ServiceExecutor.scheduleAtFixedRate(
+                        instance::flushInBackground, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS);
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Counters of the running service, without creating it (and starting its flusher) when
+     * nothing has submitted rows yet.
+     *
+     * @return per-table counters, or an empty map when the service is not running
+     */
+    public static synchronized Map<String, Stats> getStatsIfRunning() {
+        return instance != null ? instance.getStats() : Collections.emptyMap();
+    }
+
+    /**
+     * Stops the periodic flush and writes whatever is still buffered.
+     */
+    public static synchronized void shutdownInstance() {
+        if (instance != null) {
+            if (instance.schedule != null) {
+                instance.schedule.cancel(false);
+            }
+            instance.flush();
+            instance = null;
+        }
+    }
+
+    public void submitPowerReading(PowerReading reading) { powerReadings.add(reading); }
+    public void submitAirQualityReading(AirQualityReading reading) { airQualityReadings.add(reading); }
+    public void submitNoiseLevelReading(NoiseLevelReading reading) { noiseLevelReadings.add(reading); }
+    public void submitJunctionState(JunctionState state) { junctionStates.add(state); }
+    public void submitParkingSpot(ParkingSpot spot) { parkingSpots.add(spot); }
+
+    /**
+     * Writes every buffer now, on the calling thread.
+     *
+     * @return the number of rows written
+     */
+    public int flush() {
+        int written = 0;
+        for (Buffer<?> buffer : buffers) {
+            written += buffer.flush();
+        }
+        return written;
+    }
+
+    // Runs on the scheduler thread, which must not block: the flush itself goes to the executor.
+    private void flushInBackground() {
+        if (!flushing.compareAndSet(false, true)) {
+            return;
+        }
+        ServiceExecutor.supply(this::flush).whenComplete((written, error) -> {
+            flushing.set(false);
+            if (error != null) {
+                System.err.println("Error flushing ingestion buffers: " + error.getMessage());
+            }
+        });
+    }
+
+    /**
+     * @return per-table counters, keyed by buffer name
+     */
+    public Map<String, Stats> getStats() {
+        Map<String, Stats> stats = new LinkedHashMap<>();
+        for (Buffer<?> buffer : buffers) {
+            stats.put(buffer.name, buffer.stats());
+        }
+        return stats;
+    }
+
+    private static Timestamp timestampOrNow(LocalDateTime value) {
+        return Timestamp.valueOf(value != null ? value : LocalDateTime.now());
+    }
+
+    @FunctionalInterface
+    private interface Binder<T> {
+        void bind(PreparedStatement pstmt, T row) throws SQLException;
+    }
+
+    private static final class Buffer<T> {
+        private final String name;
+        private final String sql;
+        private final Function<T, String> key;
+        private final Binder<T> binder;
+        private final Runnable afterWrite;
+
+        // Keyed buffers keep only the newest row per key; the others keep every row in order.
+        private LinkedHashMap<String, T> keyed = new LinkedHashMap<>();
+        private List<T> rows = new ArrayList<>();
+        // Serializes flushes of this buffer so batches reach the table in submission order.
+        private final Object flushLock = new Object();
+
+        private final long startedAt = System.currentTimeMillis();
+        private final AtomicLong rowsWritten = new AtomicLong();
+        private final AtomicLong batches = new AtomicLong();
+        private final AtomicLong flushes = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong dropped = new AtomicLong();
+        private final AtomicLong flushNanos = new AtomicLong();
+        private final AtomicLong maxFlushNanos = new AtomicLong();
+
+        Buffer(String name, String sql, Function<T, String> key, Binder<T> binder, Runnable afterWrite) {
+            this.name = name;
+            this.sql = sql;
+            this.key = key;
+            this.binder = binder;
+            this.afterWrite = afterWrite;
+        }
+
+        void add(T row) {
+            boolean full;
+            synchronized (this) {
+                if (key != null) {
+                    keyed.remove(key.apply(row));
+                    keyed.put(key.apply(row), row);
+                } else {
+                    rows.add(row);
+                }
+                full = size() >= BATCH_SIZE;
+            }
+            if (full) {
+                flush();
+            }
+        }
+
+        private int size() {
+            return key != null ? keyed.size() : rows.size();
+        }
+
+        private synchronized List<T> drain() {
+            List<T> drained;
+            if (key != null) {
+                drained = new ArrayList<>(keyed.values());
+                keyed = new LinkedHashMap<>();
+            } else {
+                drained = rows;
+                rows = new ArrayList<>();
+            }
+            return drained;
+        }
+
+        // Puts the rows of a failed flush back in front of anything submitted since.
+        private synchronized void requeue(List<T> failed) {
+            if (key != null) {
+                LinkedHashMap<String, T> merged = new LinkedHashMap<>();
+                for (T row : failed) {
+                    merged.put(key.apply(row), row);
+                }
+                for (Map.Entry<String, T> newer : keyed.entrySet()) {
+                    merged.remove(newer.getKey());
+                    merged.put(newer.getKey(), newer.getValue());
+                }
+                keyed = merged;
+            } else {
+                List<T> merged = new ArrayList<>(failed.size() + rows.size());
+                merged.addAll(failed);
+                merged.addAll(rows);
+                rows = merged;
+            }
+            int excess = size() - MAX_BUFFERED;
+            if (excess > 0) {
+                dropOldest(excess);
+                dropped.addAndGet(excess);
+                System.err.println("Ingestion buffer " + name + " is full; dropped " + excess + " row(s).");
+            }
+        }
+
+        private void dropOldest(int count) {
+            if (key != null) {
+                Iterator<Map.Entry<String, T>> it = keyed.entrySet().iterator();
+                for (int i = 0; i < count && it.hasNext(); i++) {
+                    it.next();
+                    it.remove();
+                }
+            } else {
+                rows.subList(0, Math.min(count, rows.size())).clear();
+            }
+        }
+
+        int flush() {
+            synchronized (flushLock) {
+                List<T> pending = drain();
+                if (pending.isEmpty()) {
+                    return 0;
+                }
+                long start = System.nanoTime();
+                try {
+                    write(pending);
+                } catch (SQLException e) {
+                    failures.incrementAndGet();
+                    System.err.println("Error writing " + pending.size() + " " + name + " row(s): " + e.getMessage());
+                    requeue(pending);
+                    return 0;
+                }
+                long elapsed = System.nanoTime() - start;
+                rowsWritten.addAndGet(pending.size());
+                flushes.incrementAndGet();
+                flushNanos.addAndGet(elapsed);
+                maxFlushNanos.accumulateAndGet(elapsed, Math::max);
+                if (afterWrite != null) {
+                    afterWrite.run();
+                }
+                return pending.size();
+            }
+        }
+
+        private void write(Collection<T> pending) throws SQLException {
+            try (Connection conn = ConnectionPool.getInstance().getConnection()) {
+                boolean autoCommit = conn.getAutoCommit();
+                conn.setAutoCommit(false);
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    int inBatch = 0;
+                    for (T row : pending) {
+                        binder.bind(pstmt, row);
+                        pstmt.addBatch();
+                        if (++inBatch == BATCH_SIZE) {
+                            pstmt.executeBatch();
+                            batches.incrementAndGet();
+                            inBatch = 0;
+                        }
+                    }
+                    if (inBatch > 0) {
+                        pstmt.executeBatch();
+                        batches.incrementAndGet();
+                    }
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(autoCommit);
+                }
+            }
+        }
+
+        Stats stats() {
+            int buffered;
+            synchronized (this) {
+                buffered = size();
+            }
+            long written = rowsWritten.get();
+            long flushCount = flushes.get();
+            double seconds = Math.max(1, System.currentTimeMillis() - startedAt) / 1000.0;
+            return new Stats(written, buffered, batches.get(), flushCount, failures.get(), dropped.get(),
+                    written / seconds, flushCount == 0 ? 0 : flushNanos.get() / 1_000_000.0 / flushCount,
+                    maxFlushNanos.get() / 1_000_000.0);
+        }
+    }
+
+    /**
+     * Point-in-time counters for one ingestion buffer.
+     */
+    public static final class Stats {
+        private final long rowsWritten;
+        private final int buffered;
+        private final long batches;
+        private final long flushes;
+        private final long failures;
+        private final long dropped;
+        private final double rowsPerSecond;
+        private final double averageFlushMillis;
+        private final double maxFlushMillis;
+
+        Stats(long rowsWritten, int buffered, long batches, long flushes, long failures, long dropped,
+              double rowsPerSecond, double averageFlushMillis, double maxFlushMillis) {
+            this.rowsWritten = rowsWritten;
+            this.buffered = buffered;
+            this.batches = batches;
+            this.flushes = flushes;
+            this.failures = failures;
+            this.dropped = dropped;
+            this.rowsPerSecond = rowsPerSecond;
+            this.averageFlushMillis = averageFlushMillis;
+            this.maxFlushMillis = maxFlushMillis;
+        }
+
+        public long getRowsWritten() { return rowsWritten; }
+        public int getBuffered() { return buffered; }
+        public long getBatches() { return batches; }
+        public long getFlushes() { return flushes; }
+        public long getFailures() { return failures; }
+        public long getDropped() { return dropped; }
+        public double getRowsPerSecond() { return rowsPerSecond; }
+        public double getAverageFlushMillis() { return averageFlushMillis; }
+        public double getMaxFlushMillis() { return maxFlushMillis; }
+
+        @Override
+        public String toString() {
+            return String.format("%d rows written (%.1f rows/s) in %d batches, %d flushes (avg %.1f ms, max %.1f ms), "
+                    + "%d buffered, %d failed flushes, %d dropped",
+                    rowsWritten, rowsPerSecond, batches, flushes, averageFlushMillis, maxFlushMillis,
+                    buffered, failures, dropped);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.example.model;
 
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.Objects;
 
 public class JunctionState {
     private String junctionId;
@@ -30,6 +31,25 @@ public class JunctionState {
     public int getGreenLaneId() { return greenLaneId; }
     public LocalDateTime getLastUpdated() { return lastUpdated; }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof JunctionState)) return false;
+        JunctionState that = (JunctionState) o;
+        return lane1Vehicles == that.lane1Vehicles &&
+                lane2Vehicles == that.lane2Vehicles &&
+                lane3Vehicles == that.lane3Vehicles &&
+                lane4Vehicles == that.lane4Vehicles &&
+                greenLaneId == that.greenLaneId &&
+                Objects.equals(junctionId, that.junctionId) &&
+                Objects.equals(lastUpdated, that.lastUpdated);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(junctionId, lane1Vehicles, lane2Vehicles, lane3Vehicles, lane4Vehicles, greenLaneId, lastUpdated);
+    }
+
     @Override
     public String toString() {
         return "JunctionState{" +
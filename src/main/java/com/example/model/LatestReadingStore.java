@@ -0,0 +1,133 @@
+package com.example.model;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * In-memory "latest reading per location" view of an append-only readings table.
+ * <p>
+ * The first {@link #refresh} runs the full latest-per-location query once and records the
+ * highest id seen. Every later refresh only reads rows above that high-water mark and merges
+ * them, so keeping the view current costs O(new rows) instead of a scan of the whole table.
+ * A small window below the mark is re-read each time to pick up rows whose transactions
+ * committed out of id order; merging is idempotent, so re-reading them is harmless.
+ * <p>
+ * Deleting rows can remove a location's latest reading, so callers {@link #reset} the store
+ * after deletes and the next refresh bootstraps again.
+ */
+final class LatestReadingStore<R> {
+
+    private final String bootstrapSql;
+    private final String maxIdSql;
+    private final String newRowsSql;
+    private final RowMapper<R> mapper;
+    private final Function<R, String> location;
+    private final ToIntFunction<R> id;
+    private final Function<R, LocalDateTime> timestamp;
+    private final int batchSize;
+    private final int overlap;
+
+    private final Map<String, R> latest = new HashMap<>();
+    private volatile Map<String, R> snapshot = Collections.emptyMap();
+    private boolean bootstrapped;
+    private long highWaterMark;
+
+    LatestReadingStore(String table, String bootstrapSql, RowMapper<R> mapper,
+                       Function<R, String> location, ToIntFunction<R> id, Function<R, LocalDateTime> timestamp,
+                       int batchSize, int overlap) {
+        this.bootstrapSql = bootstrapSql;
+        this.maxIdSql = "SELECT COALESCE(MAX(id), 0) FROM " + table;
+        this.newRowsSql = "SELECT * FROM " + table + " WHERE id > ? ORDER BY id LIMIT " + batchSize;
+        this.mapper = mapper;
+        this.location = location;
+        this.id = id;
+        this.timestamp = timestamp;
+        this.batchSize = batchSize;
+        this.overlap = overlap;
+    }
+
+    /**
+     * Brings the store up to date and returns the latest reading per location.
+     *
+     * @return an unmodifiable snapshot that later refreshes do not change
+     */
+    synchronized Map<String, R> refresh(Connection conn) throws SQLException {
+        if (!bootstrapped) {
+            bootstrap(conn);
+        } else {
+            advance(conn, Math.max(0, highWaterMark - overlap));
+        }
+        snapshot = Collections.unmodifiableMap(new HashMap<>(latest));
+        return snapshot;
+    }
+
+    /**
+     * @return the snapshot from the last successful refresh
+     */
+    Map<String, R> getSnapshot() {
+        return snapshot;
+    }
+
+    synchronized void reset() {
+        latest.clear();
+        bootstrapped = false;
+        highWaterMark = 0;
+    }
+
+    private void bootstrap(Connection conn) throws SQLException {
+        latest.clear();
+        // Read the mark first: rows inserted while the bootstrap query runs are read again
+        // by the next refresh, and merge() keeps whichever reading is newer.
+        long mark;
+        try (PreparedStatement pstmt = conn.prepareStatement(maxIdSql);
+             ResultSet rs = pstmt.executeQuery()) {
+            mark = rs.next() ? rs.getLong(1) : 0;
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(bootstrapSql);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                merge(mapper.map(rs));
+            }
+        }
+        highWaterMark = mark;
+        bootstrapped = true;
+    }
+
+    private void advance(Connection conn, long fromId) throws SQLException {
+        long after = fromId;
+        int read;
+        do {
+            read = 0;
+            try (PreparedStatement pstmt = conn.prepareStatement(newRowsSql)) {
+                pstmt.setLong(1, after);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        R reading = mapper.map(rs);
+                        merge(reading);
+                        after = id.applyAsInt(reading);
+                        read++;
+                    }
+                }
+            }
+            highWaterMark = Math.max(highWaterMark, after);
+        } while (read == batchSize);
+    }
+
+    private void merge(R reading) {
+        latest.merge(location.apply(reading), reading, (current, candidate) -> {
+            int byTime = timestamp.apply(candidate).compareTo(timestamp.apply(current));
+            if (byTime > 0 || (byTime == 0 && id.applyAsInt(candidate) > id.applyAsInt(current))) {
+                return candidate;
+            }
+            return current;
+        });
+    }
+}
@@ -0,0 +1,316 @@
+package com.example.model;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Compact in-memory occupancy index over the parking spots.
+ * <p>
+ * Every spot gets a dense integer id on first sight; occupancy is one bit per id and each
+ * spot's lot and zone are small integer codes. Free and total counts per lot and per zone
+ * are adjusted as individual spots change, so summary questions such as "free spots in zone
+ * X" are answered from a few array reads without creating {@link ParkingSpot} objects.
+ * <p>
+ * {@link #refresh} loads everything once and afterwards only the rows whose
+ * {@code last_updated} moved past the previous refresh. Deleted spots never show up in those
+ * reads, so each refresh also compares the table's row count with the index and reports a
+ * mismatch; the owner then replaces the index with a fresh one.
+ */
+public final class ParkingOccupancyIndex {
+
+    // Spots without a lot or zone are counted under this name.
+    public static final String UNASSIGNED = "(unassigned)";
+
+    // TIMESTAMP has second precision, so re-read the last second to catch rows written during it.
+    private static final long OVERLAP_MILLIS = 1000;
+
+    private final String allSpotsSql;
+    private final String changedSpotsSql;
+    private final String countSql;
+    private final boolean hasLotAndZone;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> idsBySpot = new HashMap<>();
+    private final BitSet occupied = new BitSet();
+    private int[] lotOf = new int[1024];
+    private int[] zoneOf = new int[1024];
+    private int spotCount;
+    private int occupiedCount;
+
+    private final Codes lots = new Codes();
+    private final Codes zones = new Codes();
+
+    private boolean loaded;
+    private Timestamp highWaterMark;
+
+    ParkingOccupancyIndex(String table, boolean hasLotAndZone) {
+        String columns = hasLotAndZone
+                ? "spot_id, lot_id, zone, is_occupied, last_updated"
+                : "spot_id, NULL AS lot_id, NULL AS zone, is_occupied, last_updated";
+        this.allSpotsSql = "SELECT " + columns + " FROM " + table;
+        this.changedSpotsSql = "SELECT " + columns + " FROM " + table + " WHERE last_updated >= ?";
+        this.countSql = "SELECT COUNT(*) FROM " + table;
+        this.hasLotAndZone = hasLotAndZone;
+    }
+
+    boolean hasLotAndZone() {
+        return hasLotAndZone;
+    }
+
+    /**
+     * Applies the spots changed since the last refresh, loading everything on the first call.
+     *
+     * @return false when the table holds a different number of spots than the index, i.e.
+     *         spots were deleted or inserted with an old {@code last_updated}
+     */
+    boolean refresh(Connection conn) throws SQLException {
+        Timestamp since;
+        lock.readLock().lock();
+        try {
+            since = loaded ? new Timestamp(highWaterMark.getTime() - OVERLAP_MILLIS) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // Read the rows before taking the write lock so summary reads are not blocked on the network.
+        List<SpotRow> rows = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(since == null ? allSpotsSql : changedSpotsSql)) {
+            if (since != null) {
+                pstmt.setTimestamp(1, since);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(new SpotRow(rs.getString("spot_id"), rs.getString("lot_id"), rs.getString("zone"),
+                            rs.getBoolean("is_occupied"), rs.getTimestamp("last_updated")));
+                }
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (SpotRow row : rows) {
+                apply(row.spotId, row.lot, row.zone, row.occupied);
+                if (row.lastUpdated != null && (highWaterMark == null || row.lastUpdated.after(highWaterMark))) {
+                    highWaterMark = row.lastUpdated;
+                }
+            }
+            if (highWaterMark == null) {
+                highWaterMark = new Timestamp(0);
+            }
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try (PreparedStatement pstmt = conn.prepareStatement(countSql);
+             ResultSet rs = pstmt.executeQuery()) {
+            return !rs.next() || rs.getInt(1) == getTotalCount();
+        }
+    }
+
+    private void apply(String spotId, String lot, String zone, boolean isOccupied) {
+        int lotCode = lots.codeOf(lot == null || lot.isEmpty() ? UNASSIGNED : lot);
+        int zoneCode = zones.codeOf(zone == null || zone.isEmpty() ? UNASSIGNED : zone);
+
+        Integer id = idsBySpot.get(spotId);
+        if (id == null) {
+            id = spotCount++;
+            idsBySpot.put(spotId, id);
+            ensureCapacity(spotCount);
+            lotOf[id] = lotCode;
+            zoneOf[id] = zoneCode;
+            lots.add(lotCode, 1, isOccupied ? 0 : 1);
+            zones.add(zoneCode, 1, isOccupied ? 0 : 1);
+            if (isOccupied) {
+                occupied.set(id);
+                occupiedCount++;
+            }
+            return;
+        }
+
+        boolean wasOccupied = occupied.get(id);
+        int wasFree = wasOccupied ? 0 : 1;
+        int nowFree = isOccupied ? 0 : 1;
+        if (lotOf[id] != lotCode || zoneOf[id] != zoneCode) {
+            // Moved to another lot or zone: take it out of the old counters, add it to the new.
+            lots.add(lotOf[id], -1, -wasFree);
+            zones.add(zoneOf[id], -1, -wasFree);
+            lotOf[id] = lotCode;
+            zoneOf[id] = zoneCode;
+            lots.add(lotCode, 1, nowFree);
+            zones.add(zoneCode, 1, nowFree);
+        } else if (wasOccupied != isOccupied) {
+            lots.add(lotCode, 0, nowFree - wasFree);
+            zones.add(zoneCode, 0, nowFree - wasFree);
+        }
+        if (wasOccupied != isOccupied) {
+            occupied.set(id, isOccupied);
+            occupiedCount += isOccupied ? 1 : -1;
+        }
+    }
+
+    private void ensureCapacity(int size) {
+        if (size > lotOf.length) {
+            int newLength = Math.max(size, lotOf.length * 2);
+            lotOf = Arrays.copyOf(lotOf, newLength);
+            zoneOf = Arrays.copyOf(zoneOf, newLength);
+        }
+    }
+
+    public int getTotalCount() {
+        lock.readLock().lock();
+        try {
+            return spotCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the newest {@code last_updated} seen, in epoch milliseconds; 0 before the first refresh
+     */
+    public long getLastUpdatedMillis() {
+        lock.readLock().lock();
+        try {
+            return highWaterMark == null ? 0 : highWaterMark.getTime();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getFreeCount() {
+        lock.readLock().lock();
+        try {
+            return spotCount - occupiedCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getFreeInLot(String lot) {
+        return freeIn(lots, lot);
+    }
+
+    public int getTotalInLot(String lot) {
+        return totalIn(lots, lot);
+    }
+
+    public int getFreeInZone(String zone) {
+        return freeIn(zones, zone);
+    }
+
+    public int getTotalInZone(String zone) {
+        return totalIn(zones, zone);
+    }
+
+    /**
+     * @return null when the spot is unknown
+     */
+    public Boolean isOccupied(String spotId) {
+        lock.readLock().lock();
+        try {
+            Integer id = idsBySpot.get(spotId);
+            return id == null ? null : occupied.get(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<String> getLots() {
+        return names(lots);
+    }
+
+    public List<String> getZones() {
+        return names(zones);
+    }
+
+    private int freeIn(Codes codes, String name) {
+        lock.readLock().lock();
+        try {
+            Integer code = codes.find(name);
+            return code == null ? 0 : codes.free[code];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int totalIn(Codes codes, String name) {
+        lock.readLock().lock();
+        try {
+            Integer code = codes.find(name);
+            return code == null ? 0 : codes.total[code];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<String> names(Codes codes) {
+        lock.readLock().lock();
+        try {
+            return Collections.unmodifiableList(new ArrayList<>(codes.names));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static final class SpotRow {
+        private final String spotId;
+        private final String lot;
+        private final String zone;
+        private final boolean occupied;
+        private final Timestamp lastUpdated;
+
+        private SpotRow(String spotId, String lot, String zone, boolean occupied, Timestamp lastUpdated) {
+            this.spotId = spotId;
+            this.lot = lot;
+            this.zone = zone;
+            this.occupied = occupied;
+            this.lastUpdated = lastUpdated;
+        }
+    }
+
+    /**
+     * Dense codes for lot or zone names, with a free and total counter per code.
+     */
+    private static final class Codes {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> names = new ArrayList<>();
+        private int[] free = new int[16];
+        private int[] total = new int[16];
+
+        private int codeOf(String name) {
+            Integer code = codes.get(name);
+            if (code == null) {
+                code = names.size();
+                codes.put(name, code);
+                names.add(name);
+                if (code >= free.length) {
+                    free = Arrays.copyOf(free, free.length * 2);
+                    total = Arrays.copyOf(total, total.length * 2);
+                }
+            }
+            return code;
+        }
+
+        private Integer find(String name) {
+            return codes.get(name);
+        }
+
+        private void add(int code, int totalDelta, int freeDelta) {
+            total[code] += totalDelta;
+            free[code] += freeDelta;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.example.model;
 
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.Objects;
 
 public class ParkingSpot {
     private String spotId;
@@ -32,6 +33,22 @@ public class ParkingSpot {
         return lastUpdated;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ParkingSpot)) return false;
+        ParkingSpot that = (ParkingSpot) o;
+        return occupied == that.occupied &&
+                Objects.equals(spotId, that.spotId) &&
+                Objects.equals(locationDescription, that.locationDescription) &&
+                Objects.equals(lastUpdated, that.lastUpdated);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(spotId, locationDescription, occupied, lastUpdated);
+    }
+
     @Override
     public String toString() {
         return "ParkingSpot{" +
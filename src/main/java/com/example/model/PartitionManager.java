@@ -0,0 +1,333 @@
+package com.example.model;
+
+import io.github.cdimascio.dotenv.Dotenv;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps the RANGE-partitioned reading tables from smart_city_db.sql supplied with future
+ * partitions and drops whole partitions for retention.
+ * <p>
+ * air_quality_readings and noise_level_readings have one partition per day and the power
+ * readings table one per month, followed by a {@code p_future} MAXVALUE partition. Every
+ * PARTITION_MAINTENANCE_INTERVAL_MS (default one hour, 0 disables) the manager splits
+ * {@code p_future} so that partitions exist PARTITION_DAYS_AHEAD days (default 7) or
+ * PARTITION_MONTHS_AHEAD months (default 2) ahead. When the last boundary lies in the past, a
+ * single partition covers the gap up to the current day or month rather than one per day.
+ * <p>
+ * Rows written before the first maintenance run (data generators, a backfill, a table
+ * converted with a {@code p_history} bound older than its data) land in {@code p_future}.
+ * The catch-up partition then ends after the newest of them, so the split leaves
+ * {@code p_future} empty again. Reorganizing copies those rows once while holding a metadata
+ * lock on the table; later splits of the empty {@code p_future} copy nothing.
+ * <p>
+ * Dropping a partition is a metadata operation, unlike a DELETE of the same rows. DDL waits
+ * for queries already running on the table and blocks the ones arriving after it, so it runs
+ * with a lock_wait_timeout of PARTITION_LOCK_WAIT_TIMEOUT_S (default 5) and gives up rather
+ * than stalling the dashboards. Tables that are not partitioned are left alone; callers fall
+ * back to deleting rows.
+ */
+public final class PartitionManager {
+
+    static final String FUTURE_PARTITION = "p_future";
+
+    private static final int DAYS_AHEAD;
+    private static final int MONTHS_AHEAD;
+    private static final long MAINTENANCE_INTERVAL_MS;
+    private static final int LOCK_WAIT_TIMEOUT_S;
+    private static final String POWER_TABLE;
+
+    static {
+        Dotenv dotenv = Dotenv.configure().ignoreIfMissing().load();
+        DAYS_AHEAD = Integer.parseInt(dotenv.get("PARTITION_DAYS_AHEAD", "7"));
+        MONTHS_AHEAD = Integer.parseInt(dotenv.get("PARTITION_MONTHS_AHEAD", "2"));
+        MAINTENANCE_INTERVAL_MS = Long.parseLong(dotenv.get("PARTITION_MAINTENANCE_INTERVAL_MS", "3600000"));
+        LOCK_WAIT_TIMEOUT_S = Integer.parseInt(dotenv.get("PARTITION_LOCK_WAIT_TIMEOUT_S", "5"));
+        POWER_TABLE = dotenv.get("DB_TABLE", "power_readings");
+    }
+
+    private static final String NEWEST_IN_FUTURE_SQL = "SELECT MAX(%s) FROM %s PARTITION (" + FUTURE_PARTITION + ")";
+    private static final String PARTITIONS_SQL = "SELECT PARTITION_NAME, PARTITION_DESCRIPTION, TABLE_ROWS"
+            + " FROM information_schema.PARTITIONS"
+            + " WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL"
+            + " ORDER BY PARTITION_ORDINAL_POSITION";
+    private static final DateTimeFormatter BOUNDARY_FORMAT = DateTimeFormatter.ISO_LOCAL_DATE;
+
+    private static PartitionManager instance;
+
+    private final List<Layout> layouts = List.of(
+            new Layout("air_quality_readings", "timestamp", Granularity.DAY),
+            new Layout("noise_level_readings", "timestamp", Granularity.DAY),
+            new Layout(POWER_TABLE, "reading_date", Granularity.MONTH));
+    private final AtomicBoolean maintaining = new AtomicBoolean();
+
+    private PartitionManager() {
+    }
+
+    /**
+     * Returns the manager, starting the periodic maintenance on first use.
+     */
+    public static synchronized PartitionManager getInstance() {
+        if (instance == null) {
+            instance = new PartitionManager();
+            if (MAINTENANCE_INTERVAL_MS > 0) {
+                ServiceExecutor.scheduleAtFixedRate(
+                        instance::maintainInBackground, 0, MAINTENANCE_INTERVAL_MS);
+            }
+        }
+        return instance;
+    }
+
+    private void maintainInBackground() {
+        if (maintaining.compareAndSet(false, true)) {
+            ServiceExecutor.get().execute(() -> {
+                try {
+                    ensureFuturePartitions();
+                } finally {
+                    maintaining.set(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * Adds the partitions missing between each table's last boundary and the configured
+     * horizon. Failures are logged per table.
+     */
+    public void ensureFuturePartitions() {
+        try (Connection conn = ConnectionPool.getInstance().getConnection()) {
+            for (Layout layout : layouts) {
+                try {
+                    ensureFuturePartitions(conn, layout);
+                } catch (SQLException e) {
+                    System.err.println("Error adding partitions to " + layout.table + ": " + e.getMessage());
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error during partition maintenance: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    private void ensureFuturePartitions(Connection conn, Layout layout) throws SQLException {
+        List<Partition> partitions = readPartitions(conn, layout.table);
+        if (partitions.isEmpty()) {
+            return;
+        }
+
+        LocalDate boundary = null;
+        boolean hasFuture = false;
+        for (Partition partition : partitions) {
+            if (partition.upperBound == null) {
+                hasFuture = true;
+            } else if (boundary == null || partition.upperBound.isAfter(boundary)) {
+                boundary = partition.upperBound;
+            }
+        }
+        LocalDate horizon = layout.granularity.horizon(LocalDate.now());
+        LocalDate current = layout.granularity.floor(LocalDate.now());
+        if (boundary == null) {
+            boundary = current;
+        }
+        if (!boundary.isBefore(horizon)) {
+            return;
+        }
+        // The catch-up partition reaches past any rows already in p_future.
+        LocalDate covered = current;
+        LocalDate newest = hasFuture ? newestInFuture(conn, layout) : null;
+        if (newest != null) {
+            LocalDate pastNewest = layout.granularity.next(layout.granularity.floor(newest));
+            if (pastNewest.isAfter(covered)) {
+                covered = pastNewest;
+            }
+            System.out.println("Moving rows up to " + newest + " out of " + FUTURE_PARTITION + " of " + layout.table);
+        }
+
+        StringJoiner definitions = new StringJoiner(", ");
+        int added = 0;
+        if (boundary.isBefore(covered)) {
+            definitions.add("PARTITION " + layout.granularity.name(boundary)
+                    + " VALUES LESS THAN ('" + covered.format(BOUNDARY_FORMAT) + "')");
+            boundary = covered;
+            added++;
+        }
+        while (boundary.isBefore(horizon)) {
+            LocalDate upper = layout.granularity.next(boundary);
+            definitions.add("PARTITION " + layout.granularity.name(boundary)
+                    + " VALUES LESS THAN ('" + upper.format(BOUNDARY_FORMAT) + "')");
+            boundary = upper;
+            added++;
+        }
+
+        String sql;
+        if (hasFuture) {
+            definitions.add("PARTITION " + FUTURE_PARTITION + " VALUES LESS THAN (MAXVALUE)");
+            sql = "ALTER TABLE " + layout.table + " REORGANIZE PARTITION " + FUTURE_PARTITION + " INTO (" + definitions + ")";
+        } else {
+            sql = "ALTER TABLE " + layout.table + " ADD PARTITION (" + definitions + ")";
+        }
+        executeDdl(conn, sql);
+        System.out.println("Added " + added + " partition(s) to " + layout.table + " up to " + horizon);
+    }
+
+    // null when p_future is empty
+    private static LocalDate newestInFuture(Connection conn, Layout layout) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(String.format(NEWEST_IN_FUTURE_SQL, layout.column, layout.table));
+             ResultSet rs = pstmt.executeQuery()) {
+            return rs.next() && rs.getDate(1) != null ? rs.getDate(1).toLocalDate() : null;
+        }
+    }
+
+    /**
+     * Drops every partition of {@code table} that holds only rows older than {@code cutoff}.
+     * Rows older than the cutoff in the partition that straddles it are left for the caller, as
+     * are all rows when the table is not partitioned or the partitions could not be dropped.
+     *
+     * @return what was dropped; nothing when the table is not partitioned
+     */
+    public DropResult dropPartitionsBefore(Connection conn, String table, LocalDateTime cutoff) {
+        List<Partition> partitions = readPartitions(conn, table);
+        StringJoiner names = new StringJoiner(", ");
+        int count = 0;
+        long rows = 0;
+        for (Partition partition : partitions) {
+            if (partition.upperBound != null && !partition.upperBound.atStartOfDay().isAfter(cutoff)) {
+                names.add(partition.name);
+                count++;
+                rows += partition.estimatedRows;
+            }
+        }
+        if (count > 0) {
+            try {
+                executeDdl(conn, "ALTER TABLE " + table + " DROP PARTITION " + names);
+            } catch (SQLException e) {
+                // Typically the lock wait timeout; the caller's DELETE removes the rows instead.
+                System.err.println("Could not drop partitions of " + table + ", deleting rows instead: " + e.getMessage());
+                return new DropResult(true, 0, 0);
+            }
+        }
+        return new DropResult(!partitions.isEmpty(), count, rows);
+    }
+
+    /**
+     * @return the table's partitions in order, or an empty list when it is not partitioned
+     *         or partition metadata is unavailable (e.g. a database other than MySQL)
+     */
+    private List<Partition> readPartitions(Connection conn, String table) {
+        List<Partition> partitions = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(PARTITIONS_SQL)) {
+            pstmt.setString(1, table);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    partitions.add(new Partition(rs.getString(1), parseBoundary(rs.getString(2)), rs.getLong(3)));
+                }
+            }
+        } catch (SQLException e) {
+            return new ArrayList<>();
+        }
+        return partitions;
+    }
+
+    // RANGE COLUMNS bounds read back as quoted literals, e.g. '2024-05-01' or '2024-05-01 00:00:00'
+    private static LocalDate parseBoundary(String description) {
+        if (description == null || description.equalsIgnoreCase("MAXVALUE")) {
+            return null;
+        }
+        String value = description.replace("'", "").trim();
+        return LocalDate.parse(value.substring(0, Math.min(10, value.length())), BOUNDARY_FORMAT);
+    }
+
+    private static void executeDdl(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            int previousTimeout;
+            try (ResultSet rs = stmt.executeQuery("SELECT @@SESSION.lock_wait_timeout")) {
+                previousTimeout = rs.next() ? rs.getInt(1) : 31536000;
+            }
+            stmt.execute("SET SESSION lock_wait_timeout = " + LOCK_WAIT_TIMEOUT_S);
+            try {
+                stmt.execute(sql);
+            } finally {
+                stmt.execute("SET SESSION lock_wait_timeout = " + previousTimeout);
+            }
+        }
+    }
+
+    /**
+     * Outcome of {@link #dropPartitionsBefore}.
+     */
+    public static final class DropResult {
+        private final boolean partitioned;
+        private final int partitionsDropped;
+        private final long estimatedRows;
+
+        DropResult(boolean partitioned, int partitionsDropped, long estimatedRows) {
+            this.partitioned = partitioned;
+            this.partitionsDropped = partitionsDropped;
+            this.estimatedRows = estimatedRows;
+        }
+
+        public boolean isPartitioned() { return partitioned; }
+        public int getPartitionsDropped() { return partitionsDropped; }
+
+        /** Row count from the table statistics, which InnoDB only estimates. */
+        public long getEstimatedRows() { return estimatedRows; }
+    }
+
+    private enum Granularity {
+        DAY {
+            LocalDate floor(LocalDate date) { return date; }
+            LocalDate next(LocalDate lower) { return lower.plusDays(1); }
+            LocalDate horizon(LocalDate today) { return today.plusDays(DAYS_AHEAD + 1L); }
+            String name(LocalDate lower) { return "p" + lower.format(DateTimeFormatter.BASIC_ISO_DATE); }
+        },
+        MONTH {
+            LocalDate floor(LocalDate date) { return date.withDayOfMonth(1); }
+            LocalDate next(LocalDate lower) { return lower.withDayOfMonth(1).plusMonths(1); }
+            LocalDate horizon(LocalDate today) { return today.withDayOfMonth(1).plusMonths(MONTHS_AHEAD + 1L); }
+            String name(LocalDate lower) { return "p" + lower.format(DateTimeFormatter.ofPattern("yyyyMM")); }
+        };
+
+        abstract LocalDate floor(LocalDate date);
+        abstract LocalDate next(LocalDate lower);
+        // Exclusive upper bound of the last partition that should exist
+        abstract LocalDate horizon(LocalDate today);
+        abstract String name(LocalDate lower);
+    }
+
+    private static final class Layout {
+        private final String table;
+        // The RANGE COLUMNS partitioning column
+        private final String column;
+        private final Granularity granularity;
+
+        private Layout(String table, String column, Granularity granularity) {
+            this.table = table;
+            this.column = column;
+            this.granularity = granularity;
+        }
+    }
+
+    private static final class Partition {
+        private final String name;
+        // null for the MAXVALUE partition
+        private final LocalDate upperBound;
+        private final long estimatedRows;
+
+        private Partition(String name, LocalDate upperBound, long estimatedRows) {
+            this.name = name;
+            this.upperBound = upperBound;
+            this.estimatedRows = estimatedRows;
+        }
+    }
+}
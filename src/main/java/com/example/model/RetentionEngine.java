@@ -0,0 +1,374 @@
+package com.example.model;
+
+import io.github.cdimascio.dotenv.Dotenv;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Deletes expired rows in the background, in small chunks, so retention never holds locks or
+ * a connection long enough to stall the dashboards.
+ * <p>
+ * The services register one {@link Policy} per table. Each run first drops whole partitions
+ * older than the cutoff when the table is partitioned (see {@link PartitionManager}), then
+ * repeats {@code DELETE ... ORDER BY <key> LIMIT n} until a chunk comes back short. Every
+ * chunk is its own transaction on a freshly borrowed connection, followed by a pause:
+ * <ul>
+ *   <li>a chunk slower than RETENTION_MAX_CHUNK_MS halves the chunk size and doubles the
+ *       pause (up to RETENTION_MAX_PAUSE_MS); fast chunks grow both back;</li>
+ *   <li>no chunk starts while other threads are waiting for a pooled connection, for up to
+ *       RETENTION_MAX_PAUSE_MS; after that a chunk of the minimum size runs anyway.</li>
+ * </ul>
+ * Every RETENTION_INTERVAL_MS (default one hour, 0 disables) all policies with a configured
+ * retention run one after another on the service executor. A run already in progress for a
+ * policy is not started twice; callers get its progress instead.
+ */
+public final class RetentionEngine {
+
+    private static final Dotenv dotenv = Dotenv.configure().ignoreIfMissing().load();
+    private static final long INTERVAL_MS = Long.parseLong(dotenv.get("RETENTION_INTERVAL_MS", "3600000"));
+    private static final int CHUNK_SIZE = Integer.parseInt(dotenv.get("RETENTION_CHUNK_SIZE", "1000"));
+    private static final int MIN_CHUNK_SIZE = Math.min(100, CHUNK_SIZE);
+    private static final long CHUNK_PAUSE_MS = Long.parseLong(dotenv.get("RETENTION_CHUNK_PAUSE_MS", "50"));
+    private static final long MAX_CHUNK_MS = Long.parseLong(dotenv.get("RETENTION_MAX_CHUNK_MS", "250"));
+    private static final long MAX_PAUSE_MS = Long.parseLong(dotenv.get("RETENTION_MAX_PAUSE_MS", "5000"));
+    private static final long PROGRESS_LOG_INTERVAL_MS = 10_000;
+
+    private static RetentionEngine instance;
+
+    private final Map<String, PolicyState> policies = new ConcurrentHashMap<>();
+    private final AtomicBoolean scheduledRunActive = new AtomicBoolean();
+
+    private RetentionEngine() {
+    }
+
+    /**
+     * Returns the engine, starting the periodic runs on first use.
+     */
+    public static synchronized RetentionEngine getInstance() {
+        if (instance == null) {
+            instance = new RetentionEngine();
+            if (INTERVAL_MS > 0) {
+                ServiceExecutor.scheduleAtFixedRate(instance::runScheduledInBackground, INTERVAL_MS, INTERVAL_MS);
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Adds a policy, replacing any earlier one with the same name.
+     */
+    public void register(Policy policy) {
+        policies.put(policy.name, new PolicyState(policy));
+    }
+
+    /**
+     * Cutoff for a scheduled run that keeps RETENTION_&lt;POLICY&gt;_DAYS days of rows, counted
+     * from the start of today. Scheduled deletes are opt-in: when the variable is unset or
+     * negative the policy only runs on demand.
+     *
+     * @param policy policy name, e.g. {@code "emergencies"} reads RETENTION_EMERGENCIES_DAYS
+     */
+    public static Cutoff keepDays(String policy) {
+        String key = "RETENTION_" + policy.toUpperCase(Locale.ROOT).replace('-', '_') + "_DAYS";
+        int days = Integer.parseInt(dotenv.get(key, "-1"));
+        if (days < 0) {
+            return null;
+        }
+        return conn -> LocalDate.now().minusDays(days).atStartOfDay();
+    }
+
+    private void runScheduledInBackground() {
+        if (scheduledRunActive.compareAndSet(false, true)) {
+            ServiceExecutor.get().execute(() -> {
+                try {
+                    runScheduled();
+                } finally {
+                    scheduledRunActive.set(false);
+                }
+            });
+        }
+    }
+
+    private void runScheduled() {
+        for (PolicyState state : policies.values()) {
+            if (state.policy.scheduledCutoff == null || Thread.currentThread().isInterrupted()) {
+                continue;
+            }
+            LocalDateTime cutoff;
+            try (Connection conn = ConnectionPool.getInstance().getConnection()) {
+                cutoff = state.policy.scheduledCutoff.get(conn);
+            } catch (SQLException e) {
+                System.err.println("Error computing retention cutoff for " + state.policy.name + ": " + e.getMessage());
+                continue;
+            }
+            if (cutoff != null) {
+                run(state, cutoff);
+            }
+        }
+    }
+
+    /**
+     * Deletes the policy's rows older than {@code cutoff} on the calling thread, which should
+     * be a service executor thread. Errors are logged and reported in the result.
+     *
+     * @return the finished run, or the progress of the run already in progress
+     * @throws IllegalArgumentException if no policy has that name
+     */
+    public Progress run(String policy, LocalDateTime cutoff) {
+        PolicyState state = policies.get(policy);
+        if (state == null) {
+            throw new IllegalArgumentException("Unknown retention policy: " + policy);
+        }
+        return run(state, cutoff);
+    }
+
+    private Progress run(PolicyState state, LocalDateTime cutoff) {
+        if (!state.lock.tryLock()) {
+            return state.progress;
+        }
+        Policy policy = state.policy;
+        Run run = new Run(policy, cutoff);
+        try {
+            state.progress = run.snapshot(true);
+
+            if (policy.partitioned) {
+                try (Connection conn = ConnectionPool.getInstance().getConnection()) {
+                    PartitionManager.DropResult dropped = PartitionManager.getInstance()
+                            .dropPartitionsBefore(conn, policy.table, cutoff);
+                    run.partitionsDropped = dropped.getPartitionsDropped();
+                    run.rowsDeleted += dropped.getEstimatedRows();
+                }
+            }
+
+            int chunkSize = CHUNK_SIZE;
+            long pause = CHUNK_PAUSE_MS;
+            long lastLog = System.currentTimeMillis();
+            while (true) {
+                long waitStart = System.currentTimeMillis();
+                boolean idle = waitForIdlePool();
+                run.throttledMillis += System.currentTimeMillis() - waitStart;
+                int limit = idle ? chunkSize : MIN_CHUNK_SIZE;
+
+                long start = System.nanoTime();
+                int deleted;
+                try (Connection conn = ConnectionPool.getInstance().getConnection();
+                     PreparedStatement pstmt = conn.prepareStatement(policy.deleteSql)) {
+                    pstmt.setTimestamp(1, Timestamp.valueOf(cutoff));
+                    pstmt.setInt(2, limit);
+                    deleted = pstmt.executeUpdate();
+                }
+                long chunkMillis = (System.nanoTime() - start) / 1_000_000;
+
+                run.rowsDeleted += deleted;
+                run.chunks++;
+                state.progress = run.snapshot(true);
+                if (deleted < limit) {
+                    break;
+                }
+
+                if (chunkMillis > MAX_CHUNK_MS) {
+                    chunkSize = Math.max(MIN_CHUNK_SIZE, chunkSize / 2);
+                    pause = Math.min(MAX_PAUSE_MS, Math.max(1, pause) * 2);
+                } else {
+                    chunkSize = Math.min(CHUNK_SIZE, chunkSize * 2);
+                    pause = Math.max(CHUNK_PAUSE_MS, pause / 2);
+                }
+                if (System.currentTimeMillis() - lastLog >= PROGRESS_LOG_INTERVAL_MS) {
+                    System.out.println("Retention progress: " + state.progress);
+                    lastLog = System.currentTimeMillis();
+                }
+                Thread.sleep(pause);
+            }
+
+            if (policy.afterRun != null) {
+                policy.afterRun.accept(cutoff);
+            }
+        } catch (SQLException e) {
+            run.error = e.getMessage();
+            System.err.println("Error running retention for " + policy.name + ": " + e.getMessage());
+            e.printStackTrace();
+        } catch (InterruptedException e) {
+            run.error = "interrupted";
+            Thread.currentThread().interrupt();
+        } finally {
+            state.progress = run.snapshot(false);
+            state.lock.unlock();
+        }
+        if (run.rowsDeleted > 0 || run.error != null) {
+            System.out.println("Retention finished: " + state.progress);
+        }
+        return state.progress;
+    }
+
+    // Yields to dashboard requests while the pool has callers waiting, but only for
+    // MAX_PAUSE_MS: a pool that never drains must not hold the run (and the schedule) forever.
+    // Returns false when the wait timed out.
+    private static boolean waitForIdlePool() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + MAX_PAUSE_MS;
+        while (ConnectionPool.getInstance().getWaitingThreads() > 0) {
+            if (System.currentTimeMillis() >= deadline) {
+                return false;
+            }
+            Thread.sleep(Math.max(CHUNK_PAUSE_MS, 10));
+        }
+        return true;
+    }
+
+    /**
+     * @return the current or last run of every registered policy, ordered by name
+     */
+    public List<Progress> getProgress() {
+        List<Progress> progress = new ArrayList<>();
+        for (PolicyState state : policies.values()) {
+            progress.add(state.progress);
+        }
+        progress.sort((a, b) -> a.policy.compareTo(b.policy));
+        return Collections.unmodifiableList(progress);
+    }
+
+    /**
+     * Computes the cutoff of a scheduled run.
+     */
+    @FunctionalInterface
+    public interface Cutoff {
+        /**
+         * @return rows older than this are deleted, or null to skip this run
+         */
+        LocalDateTime get(Connection conn) throws SQLException;
+    }
+
+    /**
+     * Which rows of a table expire.
+     */
+    public static final class Policy {
+        private final String name;
+        private final String table;
+        private final boolean partitioned;
+        private final Cutoff scheduledCutoff;
+        private final Consumer<LocalDateTime> afterRun;
+        private final String deleteSql;
+
+        /**
+         * @param name            policy name, used in logs, metrics and RETENTION_&lt;NAME&gt;_DAYS
+         * @param table           table to delete from
+         * @param keyColumn       primary key column the chunks are ordered by
+         * @param condition       WHERE condition with a single {@code ?} for the cutoff
+         * @param partitioned     whether to drop partitions before deleting rows
+         * @param scheduledCutoff cutoff for scheduled runs, or null for on-demand runs only
+         * @param afterRun        called with the cutoff after a successful run, or null
+         */
+        public Policy(String name, String table, String keyColumn, String condition, boolean partitioned,
+                      Cutoff scheduledCutoff, Consumer<LocalDateTime> afterRun) {
+            this.name = name;
+            this.table = table;
+            this.partitioned = partitioned;
+            this.scheduledCutoff = scheduledCutoff;
+            this.afterRun = afterRun;
+            this.deleteSql = "DELETE FROM " + table + " WHERE " + condition + " ORDER BY " + keyColumn + " LIMIT ?";
+        }
+    }
+
+    private static final class PolicyState {
+        private final Policy policy;
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile Progress progress;
+
+        private PolicyState(Policy policy) {
+            this.policy = policy;
+            this.progress = new Progress(policy.name, policy.table, null, false, 0, 0, 0, 0, 0, null);
+        }
+    }
+
+    private static final class Run {
+        private final Policy policy;
+        private final LocalDateTime cutoff;
+        private final long startNanos = System.nanoTime();
+        private long rowsDeleted;
+        private long chunks;
+        private int partitionsDropped;
+        private long throttledMillis;
+        private String error;
+
+        private Run(Policy policy, LocalDateTime cutoff) {
+            this.policy = policy;
+            this.cutoff = cutoff;
+        }
+
+        private Progress snapshot(boolean running) {
+            long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+            return new Progress(policy.name, policy.table, cutoff, running, rowsDeleted, chunks,
+                    partitionsDropped, elapsedMillis, throttledMillis, error);
+        }
+    }
+
+    /**
+     * State of one retention run at the time of the snapshot. Rows include the estimated rows
+     * of dropped partitions.
+     */
+    public static final class Progress {
+        private final String policy;
+        private final String table;
+        private final LocalDateTime cutoff;
+        private final boolean running;
+        private final long rowsDeleted;
+        private final long chunks;
+        private final int partitionsDropped;
+        private final long elapsedMillis;
+        private final long throttledMillis;
+        private final String error;
+
+        Progress(String policy, String table, LocalDateTime cutoff, boolean running, long rowsDeleted, long chunks,
+                 int partitionsDropped, long elapsedMillis, long throttledMillis, String error) {
+            this.policy = policy;
+            this.table = table;
+            this.cutoff = cutoff;
+            this.running = running;
+            this.rowsDeleted = rowsDeleted;
+            this.chunks = chunks;
+            this.partitionsDropped = partitionsDropped;
+            this.elapsedMillis = elapsedMillis;
+            this.throttledMillis = throttledMillis;
+            this.error = error;
+        }
+
+        public String getPolicy() { return policy; }
+        public String getTable() { return table; }
+        /** Null before the first run. */
+        public LocalDateTime getCutoff() { return cutoff; }
+        public boolean isRunning() { return running; }
+        public long getRowsDeleted() { return rowsDeleted; }
+        public long getChunks() { return chunks; }
+        public int getPartitionsDropped() { return partitionsDropped; }
+        public long getElapsedMillis() { return elapsedMillis; }
+        /** Time spent waiting for the connection pool to have no waiters. */
+        public long getThrottledMillis() { return throttledMillis; }
+        /** Null unless the run failed. */
+        public String getError() { return error; }
+
+        public double getRowsPerSecond() {
+            return elapsedMillis == 0 ? 0 : rowsDeleted * 1000.0 / elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d rows (%.1f rows/s) from %s before %s in %d chunks, %d partitions dropped, "
+                    + "%d ms throttled%s%s",
+                    policy, rowsDeleted, getRowsPerSecond(), table, cutoff, chunks, partitionsDropped,
+                    throttledMillis, running ? ", running" : "", error == null ? "" : ", failed: " + error);
+        }
+    }
+}
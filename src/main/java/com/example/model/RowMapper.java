@@ -0,0 +1,12 @@
+package com.example.model;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps the current row of a result set to an object.
+ */
+@FunctionalInterface
+interface RowMapper<R> {
+    R map(ResultSet rs) throws SQLException;
+}
@@ -5,7 +5,6 @@ import io.github.cdimascio.dotenv.Dotenv;
 // Add this import at the top of the file with other imports
 import java.sql.DatabaseMetaData;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -15,15 +14,14 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 public class SafetyService {
 
     // --- Load Environment Variables ---
     private static final Dotenv dotenv;
-    private static final String DB_URL;
-    private static final String DB_USER;
-    private static final String DB_PASSWORD;
     private static final String EMERGENCY_TABLE;
     private static final String WEATHER_TABLE;
 
@@ -32,26 +30,13 @@ public class SafetyService {
             // Load .env file
             dotenv = Dotenv.configure().ignoreIfMissing().load();
 
-            DB_URL = dotenv.get("DB_URL");
-            DB_USER = dotenv.get("DB_USER");
-            DB_PASSWORD = dotenv.get("DB_PASSWORD");
             EMERGENCY_TABLE = "emergencies"; // Table name for emergencies
             WEATHER_TABLE = "weather_alerts"; // Table name for weather alerts
 
-            // Basic validation
-            if (DB_URL == null || DB_USER == null || DB_PASSWORD == null) {
-                throw new RuntimeException("Error: One or more required environment variables (DB_URL, DB_USER, DB_PASSWORD) are missing. Check .env file or system environment.");
-            }
-
-            // Load the MySQL JDBC driver
-            Class.forName("com.mysql.cj.jdbc.Driver");
-
         } catch (RuntimeException e) {
             System.err.println("Error during static initialization: " + e.getMessage());
             e.printStackTrace();
             throw new RuntimeException("Error during static initialization.", e);
-        } catch (ClassNotFoundException e) {
-            throw new RuntimeException("Error: MySQL JDBC Driver not found.", e);
         } catch (Exception e) {
             System.err.println("Unexpected error during static initialization: " + e.getMessage());
             e.printStackTrace();
@@ -59,11 +44,49 @@ public class SafetyService {
         }
     }
 
+    // Fixed statements, built once so the pooled connection's statement cache can reuse them
+    private static final String INSERT_EMERGENCY_SQL = "INSERT INTO " + EMERGENCY_TABLE +
+                    " (type, location, description, severity, timestamp, status) " +
+                    "VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String ACTIVE_EMERGENCIES_SQL = "SELECT * FROM " + EMERGENCY_TABLE +
+                    " WHERE status != 'RESOLVED' ORDER BY severity DESC, timestamp DESC";
+    // Keyset pagination over the active emergencies in grid order (severity, timestamp, id all
+    // descending); the cursor is the last row of the previous page, so a page never skips rows.
+    private static final String ACTIVE_EMERGENCIES_ORDER = " ORDER BY severity DESC, timestamp DESC, id DESC";
+    private static final String ACTIVE_EMERGENCIES_FIRST_PAGE_SQL = "SELECT * FROM " + EMERGENCY_TABLE +
+                    " WHERE status != 'RESOLVED'" + ACTIVE_EMERGENCIES_ORDER + " LIMIT ?";
+    private static final String ACTIVE_EMERGENCIES_NEXT_PAGE_SQL = "SELECT * FROM " + EMERGENCY_TABLE +
+                    " WHERE status != 'RESOLVED' AND (severity < ? OR (severity = ? AND" +
+                    " (timestamp < ? OR (timestamp = ? AND id < ?))))" + ACTIVE_EMERGENCIES_ORDER + " LIMIT ?";
+    private static final String ACTIVE_EMERGENCIES_AT_OFFSET_SQL = "SELECT * FROM " + EMERGENCY_TABLE +
+                    " WHERE status != 'RESOLVED'" + ACTIVE_EMERGENCIES_ORDER + " LIMIT ? OFFSET ?";
+    private static final String COUNT_ACTIVE_EMERGENCIES_SQL = "SELECT COUNT(*) FROM " + EMERGENCY_TABLE +
+                    " WHERE status != 'RESOLVED'";
+    // One row that changes whenever an active emergency is added, resolved or edited
+    private static final String ACTIVE_EMERGENCY_SUMMARY_SQL = "SELECT COUNT(*), " +
+                    "COALESCE(BIT_XOR(CRC32(CONCAT_WS('|', id, type, location, severity, timestamp, status))), 0) FROM " +
+                    EMERGENCY_TABLE + " WHERE status != 'RESOLVED'";
+    private static final String UPDATE_EMERGENCY_STATUS_SQL = "UPDATE " + EMERGENCY_TABLE + " SET status = ? WHERE id = ?";
+    private static final String EMERGENCY_RETENTION_POLICY = "emergencies";
+    private static final String INSERT_WEATHER_ALERT_SQL = "INSERT INTO " + WEATHER_TABLE +
+                    " (alert_type, description, severity, timestamp, active) " +
+                    "VALUES (?, ?, ?, ?, ?)";
+    private static final String ACTIVE_WEATHER_ALERTS_SQL = "SELECT * FROM " + WEATHER_TABLE +
+                    " WHERE active = true ORDER BY severity DESC, timestamp DESC";
+    private static final String DEACTIVATE_WEATHER_ALERT_SQL = "UPDATE " + WEATHER_TABLE + " SET active = false WHERE id = ?";
+    private static final String LATEST_WEATHER_ALERT_SQL = "SELECT * FROM " + WEATHER_TABLE +
+                    " ORDER BY timestamp DESC LIMIT 1";
+
     // Singleton pattern
     private static SafetyService instance;
+    private static final ServiceMetrics METRICS = ServiceMetrics.forService("safety");
 
     private SafetyService() { 
-        // Constructor is empty, initialization happens in static block
+        // Resolved emergencies expire after RETENTION_EMERGENCIES_DAYS on the retention schedule, when set.
+        // timestamp < start of day matches DATE(timestamp) < day, and lets the chunks walk idx_status in id order.
+        RetentionEngine.getInstance().register(new RetentionEngine.Policy(
+                EMERGENCY_RETENTION_POLICY, EMERGENCY_TABLE, "id", "status = 'RESOLVED' AND timestamp < ?", false,
+                RetentionEngine.keepDays(EMERGENCY_RETENTION_POLICY), null));
     }
 
     public static synchronized SafetyService getInstance() {
@@ -73,9 +96,9 @@ public class SafetyService {
         return instance;
     }
 
-    // Helper method to get a database connection
+    // Helper method to borrow a connection from the shared pool
     private Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
+        return ConnectionPool.getInstance().getConnection();
     }
     
     /**
@@ -83,61 +106,65 @@ public class SafetyService {
      * @return true if verification/creation was successful
      */
     public boolean verifyDatabaseTables() {
-        try (Connection conn = getConnection()) {
-            // Check if tables exist
-            DatabaseMetaData meta = conn.getMetaData();
-            boolean emergencyTableExists = false;
-            boolean weatherTableExists = false;
+        return METRICS.time("verifyDatabaseTables", () -> {
+            try (Connection conn = getConnection()) {
+                // Check if tables exist
+                DatabaseMetaData meta = conn.getMetaData();
+                boolean emergencyTableExists = false;
+                boolean weatherTableExists = false;
             
-            try (ResultSet tables = meta.getTables(null, null, EMERGENCY_TABLE, null)) {
-                emergencyTableExists = tables.next();
-            }
+                try (ResultSet tables = meta.getTables(null, null, EMERGENCY_TABLE, null)) {
+                    emergencyTableExists = tables.next();
+                }
             
-            try (ResultSet tables = meta.getTables(null, null, WEATHER_TABLE, null)) {
-                weatherTableExists = tables.next();
-            }
+                try (ResultSet tables = meta.getTables(null, null, WEATHER_TABLE, null)) {
+                    weatherTableExists = tables.next();
+                }
             
-            // Create tables if they don't exist
-            if (!emergencyTableExists) {
-                try (Statement stmt = conn.createStatement()) {
-                    String sql = "CREATE TABLE IF NOT EXISTS " + EMERGENCY_TABLE + " (" +
-                        "`id` BIGINT AUTO_INCREMENT PRIMARY KEY, " +
-                        "`type` VARCHAR(100) NOT NULL, " +
-                        "`location` VARCHAR(255) NOT NULL, " +
-                        "`description` TEXT NOT NULL, " +
-                        "`severity` INT NOT NULL, " +
-                        "`timestamp` DATETIME NOT NULL, " +
-                        "`status` VARCHAR(20) NOT NULL DEFAULT 'PENDING', " +
-                        "INDEX idx_status (status), " +
-                        "INDEX idx_severity (severity)" +
-                        ")";
-                    stmt.executeUpdate(sql);
-                    System.out.println("Created emergency table: " + EMERGENCY_TABLE);
+                // Create tables if they don't exist
+                if (!emergencyTableExists) {
+                    try (Statement stmt = conn.createStatement()) {
+                        String sql = "CREATE TABLE IF NOT EXISTS " + EMERGENCY_TABLE + " (" +
+                            "`id` BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                            "`type` VARCHAR(100) NOT NULL, " +
+                            "`location` VARCHAR(255) NOT NULL, " +
+                            "`description` TEXT NOT NULL, " +
+                            "`severity` INT NOT NULL, " +
+                            "`timestamp` DATETIME NOT NULL, " +
+                            "`status` VARCHAR(20) NOT NULL DEFAULT 'PENDING', " +
+                            "INDEX idx_status (status), " +
+                            "INDEX idx_severity (severity), " +
+                            "INDEX idx_active_order (severity, timestamp, id)" +
+                            ")";
+                        stmt.executeUpdate(sql);
+                        System.out.println("Created emergency table: " + EMERGENCY_TABLE);
+                    }
                 }
-            }
             
-            if (!weatherTableExists) {
-                try (Statement stmt = conn.createStatement()) {
-                    String sql = "CREATE TABLE IF NOT EXISTS " + WEATHER_TABLE + " (" +
-                        "`id` BIGINT AUTO_INCREMENT PRIMARY KEY, " +
-                        "`alert_type` VARCHAR(100) NOT NULL, " +
-                        "`description` TEXT NOT NULL, " +
-                        "`severity` INT NOT NULL, " +
-                        "`timestamp` DATETIME NOT NULL, " +
-                        "`active` BOOLEAN NOT NULL DEFAULT TRUE, " +
-                        "INDEX idx_active (active), " +
-                        "INDEX idx_severity (severity)" +
-                        ")";
-                    stmt.executeUpdate(sql);
-                    System.out.println("Created weather alert table: " + WEATHER_TABLE);
+                if (!weatherTableExists) {
+                    try (Statement stmt = conn.createStatement()) {
+                        String sql = "CREATE TABLE IF NOT EXISTS " + WEATHER_TABLE + " (" +
+                            "`id` BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                            "`alert_type` VARCHAR(100) NOT NULL, " +
+                            "`description` TEXT NOT NULL, " +
+                            "`severity` INT NOT NULL, " +
+                            "`timestamp` DATETIME NOT NULL, " +
+                            "`active` BOOLEAN NOT NULL DEFAULT TRUE, " +
+                            "INDEX idx_active (active), " +
+                            "INDEX idx_severity (severity)" +
+                            ")";
+                        stmt.executeUpdate(sql);
+                        System.out.println("Created weather alert table: " + WEATHER_TABLE);
+                    }
                 }
-            }
             
-            return true;
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return false;
-        }
+                return true;
+            } catch (SQLException e) {
+                ServiceMetrics.recordError();
+                e.printStackTrace();
+                return false;
+            }
+        });
     }
 
     // --- Emergency Management Methods ---
@@ -148,71 +175,205 @@ public class SafetyService {
      * @return The created emergency with ID
      */
     public Emergency createEmergency(Emergency emergency) {
-        String sql = "INSERT INTO " + EMERGENCY_TABLE + 
-                    " (type, location, description, severity, timestamp, status) " +
-                    "VALUES (?, ?, ?, ?, ?, ?)";
-
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        return METRICS.time("createEmergency", () -> {
+            try (Connection conn = getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(INSERT_EMERGENCY_SQL, Statement.RETURN_GENERATED_KEYS)) {
+
+                pstmt.setString(1, emergency.getType());
+                pstmt.setString(2, emergency.getLocation());
+                pstmt.setString(3, emergency.getDescription());
+                pstmt.setInt(4, emergency.getSeverity());
+                pstmt.setTimestamp(5, Timestamp.valueOf(emergency.getTimestamp()));
+                pstmt.setString(6, emergency.getStatus());
+
+                int affectedRows = pstmt.executeUpdate();
+                ServiceMetrics.recordRows(affectedRows);
+                if (affectedRows > 0) {
+                    System.out.println("Successfully added emergency to database: " + emergency.getType());
+                }
+                if (affectedRows == 0) {
+                    throw new SQLException("Creating emergency failed, no rows affected.");
+                }
 
-            pstmt.setString(1, emergency.getType());
-            pstmt.setString(2, emergency.getLocation());
-            pstmt.setString(3, emergency.getDescription());
-            pstmt.setInt(4, emergency.getSeverity());
-            pstmt.setTimestamp(5, Timestamp.valueOf(emergency.getTimestamp()));
-            pstmt.setString(6, emergency.getStatus());
+                try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                    if (generatedKeys.next()) {
+                        emergency.setId(generatedKeys.getLong(1));
+                    } else {
+                        throw new SQLException("Creating emergency failed, no ID obtained.");
+                    }
+                }
 
-            int affectedRows = pstmt.executeUpdate();
-            if (affectedRows > 0) {
-                System.out.println("Successfully added emergency to database: " + emergency.getType());
+                return emergency;
+            } catch (SQLException e) {
+                ServiceMetrics.recordError();
+                e.printStackTrace();
+                return null;
             }
-            if (affectedRows == 0) {
-                throw new SQLException("Creating emergency failed, no rows affected.");
+        });
+    }
+
+    /**
+     * Gets all active emergencies
+     * @return List of active emergencies
+     */
+    public List<Emergency> getActiveEmergencies() {
+        return METRICS.time("getActiveEmergencies", () -> {
+            List<Emergency> emergencies = new ArrayList<>();
+            try (Connection conn = getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(ACTIVE_EMERGENCIES_SQL);
+                 ResultSet rs = pstmt.executeQuery()) {
+
+                while (rs.next()) {
+                    emergencies.add(mapEmergency(rs));
+                }
+            } catch (SQLException e) {
+                ServiceMetrics.recordError();
+                e.printStackTrace();
             }
+            return emergencies;
+        });
+    }
 
-            try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
-                if (generatedKeys.next()) {
-                    emergency.setId(generatedKeys.getLong(1));
+    /**
+     * Gets one page of active emergencies, ordered by severity, time and id (all descending)
+     * @param after The last emergency of the previous page, or null for the first page
+     * @param limit Maximum number of emergencies to return
+     * @return The emergencies following {@code after}
+     */
+    public List<Emergency> getActiveEmergenciesPage(Emergency after, int limit) {
+        return METRICS.time("getActiveEmergenciesPage", () -> {
+            List<Emergency> emergencies = new ArrayList<>();
+            String sql = after == null ? ACTIVE_EMERGENCIES_FIRST_PAGE_SQL : ACTIVE_EMERGENCIES_NEXT_PAGE_SQL;
+            try (Connection conn = getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+                if (after == null) {
+                    pstmt.setInt(1, limit);
                 } else {
-                    throw new SQLException("Creating emergency failed, no ID obtained.");
+                    Timestamp afterTimestamp = Timestamp.valueOf(after.getTimestamp());
+                    pstmt.setInt(1, after.getSeverity());
+                    pstmt.setInt(2, after.getSeverity());
+                    pstmt.setTimestamp(3, afterTimestamp);
+                    pstmt.setTimestamp(4, afterTimestamp);
+                    pstmt.setLong(5, after.getId());
+                    pstmt.setInt(6, limit);
+                }
+
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        emergencies.add(mapEmergency(rs));
+                    }
                 }
+            } catch (SQLException e) {
+                ServiceMetrics.recordError();
+                e.printStackTrace();
             }
+            return emergencies;
+        });
+    }
 
-            return emergency;
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return null;
-        }
+    /**
+     * Gets active emergencies by position, for jumps to a page whose predecessor is unknown.
+     * Costs O(offset); prefer {@link #getActiveEmergenciesPage} for sequential access.
+     */
+    public List<Emergency> getActiveEmergenciesAt(int offset, int limit) {
+        return METRICS.time("getActiveEmergenciesAt", () -> {
+            List<Emergency> emergencies = new ArrayList<>();
+            try (Connection conn = getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(ACTIVE_EMERGENCIES_AT_OFFSET_SQL)) {
+
+                pstmt.setInt(1, limit);
+                pstmt.setInt(2, offset);
+
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        emergencies.add(mapEmergency(rs));
+                    }
+                }
+            } catch (SQLException e) {
+                ServiceMetrics.recordError();
+                e.printStackTrace();
+            }
+            return emergencies;
+        });
     }
 
     /**
-     * Gets all active emergencies
-     * @return List of active emergencies
+     * Counts active emergencies
+     * @return Number of emergencies that are not resolved
      */
-    public List<Emergency> getActiveEmergencies() {
-        List<Emergency> emergencies = new ArrayList<>();
-        String sql = "SELECT * FROM " + EMERGENCY_TABLE + 
-                    " WHERE status != 'RESOLVED' ORDER BY severity DESC, timestamp DESC";
+    public int countActiveEmergencies() {
+        return METRICS.time("countActiveEmergencies", () -> {
+            try (Connection conn = getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(COUNT_ACTIVE_EMERGENCIES_SQL);
+                 ResultSet rs = pstmt.executeQuery()) {
+
+                return rs.next() ? rs.getInt(1) : 0;
+            } catch (SQLException e) {
+                ServiceMetrics.recordError();
+                e.printStackTrace();
+                return 0;
+            }
+        });
+    }
 
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql);
-             ResultSet rs = pstmt.executeQuery()) {
-
-            while (rs.next()) {
-                emergencies.add(new Emergency(
-                    rs.getLong("id"),
-                    rs.getString("type"),
-                    rs.getString("location"),
-                    rs.getString("description"),
-                    rs.getInt("severity"),
-                    rs.getTimestamp("timestamp").toLocalDateTime(),
-                    rs.getString("status")
-                ));
+    /**
+     * Gets the number of active emergencies together with a checksum over their rows
+     * @return A summary that differs whenever the active emergency list changes
+     */
+    public ActiveEmergencySummary getActiveEmergencySummary() {
+        return METRICS.time("getActiveEmergencySummary", () -> {
+            try (Connection conn = getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(ACTIVE_EMERGENCY_SUMMARY_SQL);
+                 ResultSet rs = pstmt.executeQuery()) {
+
+                if (rs.next()) {
+                    return new ActiveEmergencySummary(rs.getInt(1), rs.getLong(2));
+                }
+            } catch (SQLException e) {
+                ServiceMetrics.recordError();
+                e.printStackTrace();
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
+            return new ActiveEmergencySummary(0, 0);
+        });
+    }
+
+    public static final class ActiveEmergencySummary {
+        private final int count;
+        private final long checksum;
+
+        public ActiveEmergencySummary(int count, long checksum) {
+            this.count = count;
+            this.checksum = checksum;
+        }
+
+        public int getCount() { return count; }
+        public long getChecksum() { return checksum; }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof ActiveEmergencySummary)) return false;
+            ActiveEmergencySummary that = (ActiveEmergencySummary) o;
+            return count == that.count && checksum == that.checksum;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(count, checksum);
         }
-        return emergencies;
+    }
+
+    private static Emergency mapEmergency(ResultSet rs) throws SQLException {
+        return new Emergency(
+            rs.getLong("id"),
+            rs.getString("type"),
+            rs.getString("location"),
+            rs.getString("description"),
+            rs.getInt("severity"),
+            rs.getTimestamp("timestamp").toLocalDateTime(),
+            rs.getString("status")
+        );
     }
 
     /**
@@ -222,20 +383,22 @@ public class SafetyService {
      * @return true if successful, false otherwise
      */
     public boolean updateEmergencyStatus(Long id, String newStatus) {
-        String sql = "UPDATE " + EMERGENCY_TABLE + " SET status = ? WHERE id = ?";
-
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setString(1, newStatus);
-            pstmt.setLong(2, id);
-
-            int rowsAffected = pstmt.executeUpdate();
-            return rowsAffected > 0;
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return false;
-        }
+        return METRICS.time("updateEmergencyStatus", () -> {
+            try (Connection conn = getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(UPDATE_EMERGENCY_STATUS_SQL)) {
+
+                pstmt.setString(1, newStatus);
+                pstmt.setLong(2, id);
+
+                int rowsAffected = pstmt.executeUpdate();
+                ServiceMetrics.recordRows(rowsAffected);
+                return rowsAffected > 0;
+            } catch (SQLException e) {
+                ServiceMetrics.recordError();
+                e.printStackTrace();
+                return false;
+            }
+        });
     }
 
     /**
@@ -244,19 +407,17 @@ public class SafetyService {
      * @return Number of records deleted
      */
     public int deleteOldEmergencies(int daysToKeep) {
-        LocalDate cutoffDate = LocalDate.now().minusDays(daysToKeep);
-        String sql = "DELETE FROM " + EMERGENCY_TABLE + 
-                    " WHERE status = 'RESOLVED' AND DATE(timestamp) < ?";
-
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setDate(1, java.sql.Date.valueOf(cutoffDate));
-            return pstmt.executeUpdate();
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return 0;
-        }
+        return METRICS.time("deleteOldEmergencies", () -> {
+            LocalDate cutoffDate = LocalDate.now().minusDays(daysToKeep);
+            RetentionEngine.Progress progress = RetentionEngine.getInstance()
+                    .run(EMERGENCY_RETENTION_POLICY, cutoffDate.atStartOfDay());
+            ServiceMetrics.recordRows(progress.getRowsDeleted());
+            if (progress.getError() != null) {
+                ServiceMetrics.recordError();
+                return 0;
+            }
+            return (int) progress.getRowsDeleted();
+        });
     }
 
     // --- Weather Alert Methods ---
@@ -267,40 +428,40 @@ public class SafetyService {
      * @return The created alert with ID
      */
     public WeatherAlert createWeatherAlert(WeatherAlert alert) {
-        String sql = "INSERT INTO " + WEATHER_TABLE + 
-                    " (alert_type, description, severity, timestamp, active) " +
-                    "VALUES (?, ?, ?, ?, ?)";
-
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-
-            pstmt.setString(1, alert.getAlertType());
-            pstmt.setString(2, alert.getDescription());
-            pstmt.setInt(3, alert.getSeverity());
-            pstmt.setTimestamp(4, Timestamp.valueOf(alert.getTimestamp()));
-            pstmt.setBoolean(5, alert.isActive());
-
-            int affectedRows = pstmt.executeUpdate();
-            if (affectedRows > 0) {
-                System.out.println("Successfully added weather alert to database: " + alert.getAlertType());
-            }
-            if (affectedRows == 0) {
-                throw new SQLException("Creating weather alert failed, no rows affected.");
-            }
+        return METRICS.time("createWeatherAlert", () -> {
+            try (Connection conn = getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(INSERT_WEATHER_ALERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+
+                pstmt.setString(1, alert.getAlertType());
+                pstmt.setString(2, alert.getDescription());
+                pstmt.setInt(3, alert.getSeverity());
+                pstmt.setTimestamp(4, Timestamp.valueOf(alert.getTimestamp()));
+                pstmt.setBoolean(5, alert.isActive());
+
+                int affectedRows = pstmt.executeUpdate();
+                ServiceMetrics.recordRows(affectedRows);
+                if (affectedRows > 0) {
+                    System.out.println("Successfully added weather alert to database: " + alert.getAlertType());
+                }
+                if (affectedRows == 0) {
+                    throw new SQLException("Creating weather alert failed, no rows affected.");
+                }
 
-            try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
-                if (generatedKeys.next()) {
-                    alert.setId(generatedKeys.getLong(1));
-                } else {
-                    throw new SQLException("Creating weather alert failed, no ID obtained.");
+                try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                    if (generatedKeys.next()) {
+                        alert.setId(generatedKeys.getLong(1));
+                    } else {
+                        throw new SQLException("Creating weather alert failed, no ID obtained.");
+                    }
                 }
-            }
 
-            return alert;
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return null;
-        }
+                return alert;
+            } catch (SQLException e) {
+                ServiceMetrics.recordError();
+                e.printStackTrace();
+                return null;
+            }
+        });
     }
 
     /**
@@ -308,28 +469,28 @@ public class SafetyService {
      * @return List of active weather alerts
      */
     public List<WeatherAlert> getActiveWeatherAlerts() {
-        List<WeatherAlert> alerts = new ArrayList<>();
-        String sql = "SELECT * FROM " + WEATHER_TABLE + 
-                    " WHERE active = true ORDER BY severity DESC, timestamp DESC";
-
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql);
-             ResultSet rs = pstmt.executeQuery()) {
-
-            while (rs.next()) {
-                alerts.add(new WeatherAlert(
-                    rs.getLong("id"),
-                    rs.getString("alert_type"),
-                    rs.getString("description"),
-                    rs.getInt("severity"),
-                    rs.getTimestamp("timestamp").toLocalDateTime(),
-                    rs.getBoolean("active")
-                ));
+        return METRICS.time("getActiveWeatherAlerts", () -> {
+            List<WeatherAlert> alerts = new ArrayList<>();
+            try (Connection conn = getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(ACTIVE_WEATHER_ALERTS_SQL);
+                 ResultSet rs = pstmt.executeQuery()) {
+
+                while (rs.next()) {
+                    alerts.add(new WeatherAlert(
+                        rs.getLong("id"),
+                        rs.getString("alert_type"),
+                        rs.getString("description"),
+                        rs.getInt("severity"),
+                        rs.getTimestamp("timestamp").toLocalDateTime(),
+                        rs.getBoolean("active")
+                    ));
+                }
+            } catch (SQLException e) {
+                ServiceMetrics.recordError();
+                e.printStackTrace();
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return alerts;
+            return alerts;
+        });
     }
 
     /**
@@ -338,18 +499,20 @@ public class SafetyService {
      * @return true if successful, false otherwise
      */
     public boolean deactivateWeatherAlert(Long id) {
-        String sql = "UPDATE " + WEATHER_TABLE + " SET active = false WHERE id = ?";
-
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setLong(1, id);
-            int rowsAffected = pstmt.executeUpdate();
-            return rowsAffected > 0;
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return false;
-        }
+        return METRICS.time("deactivateWeatherAlert", () -> {
+            try (Connection conn = getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(DEACTIVATE_WEATHER_ALERT_SQL)) {
+
+                pstmt.setLong(1, id);
+                int rowsAffected = pstmt.executeUpdate();
+                ServiceMetrics.recordRows(rowsAffected);
+                return rowsAffected > 0;
+            } catch (SQLException e) {
+                ServiceMetrics.recordError();
+                e.printStackTrace();
+                return false;
+            }
+        });
     }
 
     /**
@@ -357,29 +520,71 @@ public class SafetyService {
      * @return Optional containing the latest alert, or empty if none exists
      */
     public Optional<WeatherAlert> getLatestWeatherAlert() {
-        String sql = "SELECT * FROM " + WEATHER_TABLE + 
-                    " ORDER BY timestamp DESC LIMIT 1";
-
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql);
-             ResultSet rs = pstmt.executeQuery()) {
-
-            if (rs.next()) {
-                WeatherAlert alert = new WeatherAlert(
-                    rs.getLong("id"),
-                    rs.getString("alert_type"),
-                    rs.getString("description"),
-                    rs.getInt("severity"),
-                    rs.getTimestamp("timestamp").toLocalDateTime(),
-                    rs.getBoolean("active")
-                );
-                return Optional.of(alert);
-            } else {
+        return METRICS.time("getLatestWeatherAlert", () -> {
+            try (Connection conn = getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(LATEST_WEATHER_ALERT_SQL);
+                 ResultSet rs = pstmt.executeQuery()) {
+
+                if (rs.next()) {
+                    WeatherAlert alert = new WeatherAlert(
+                        rs.getLong("id"),
+                        rs.getString("alert_type"),
+                        rs.getString("description"),
+                        rs.getInt("severity"),
+                        rs.getTimestamp("timestamp").toLocalDateTime(),
+                        rs.getBoolean("active")
+                    );
+                    return Optional.of(alert);
+                } else {
+                    return Optional.empty();
+                }
+            } catch (SQLException e) {
+                ServiceMetrics.recordError();
+                e.printStackTrace();
                 return Optional.empty();
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return Optional.empty();
-        }
+        });
+    }
+
+    // --- Asynchronous variants (run on ServiceExecutor, never on the UI thread) ---
+
+    public CompletableFuture<Boolean> verifyDatabaseTablesAsync() {
+        return ServiceExecutor.supply(this::verifyDatabaseTables);
+    }
+
+    public CompletableFuture<Emergency> createEmergencyAsync(Emergency emergency) {
+        return ServiceExecutor.supply(() -> createEmergency(emergency));
+    }
+
+    public CompletableFuture<List<Emergency>> getActiveEmergenciesAsync() {
+        return ServiceExecutor.supply(this::getActiveEmergencies);
+    }
+
+    public CompletableFuture<Integer> countActiveEmergenciesAsync() {
+        return ServiceExecutor.supply(this::countActiveEmergencies);
+    }
+
+    public CompletableFuture<Boolean> updateEmergencyStatusAsync(Long id, String newStatus) {
+        return ServiceExecutor.supply(() -> updateEmergencyStatus(id, newStatus));
+    }
+
+    public CompletableFuture<Integer> deleteOldEmergenciesAsync(int daysToKeep) {
+        return ServiceExecutor.supply(() -> deleteOldEmergencies(daysToKeep));
+    }
+
+    public CompletableFuture<WeatherAlert> createWeatherAlertAsync(WeatherAlert alert) {
+        return ServiceExecutor.supply(() -> createWeatherAlert(alert));
+    }
+
+    public CompletableFuture<List<WeatherAlert>> getActiveWeatherAlertsAsync() {
+        return ServiceExecutor.supply(this::getActiveWeatherAlerts);
+    }
+
+    public CompletableFuture<Boolean> deactivateWeatherAlertAsync(Long id) {
+        return ServiceExecutor.supply(() -> deactivateWeatherAlert(id));
+    }
+
+    public CompletableFuture<Optional<WeatherAlert>> getLatestWeatherAlertAsync() {
+        return ServiceExecutor.supply(this::getLatestWeatherAlert);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,85 @@
+package com.example.model;
+
+import io.github.cdimascio.dotenv.Dotenv;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Executor for the blocking JDBC calls behind the services' {@code ...Async} methods, so
+ * they never run on a Jetty request thread.
+ * <p>
+ * On a Java 21+ runtime every call gets its own virtual thread; database concurrency is
+ * still bounded by {@link ConnectionPool}. The build targets Java 17, so the virtual-thread
+ * factory is looked up reflectively and a fixed pool of {@code SERVICE_EXECUTOR_THREADS}
+ * daemon threads is used when it is not available.
+ */
+public final class ServiceExecutor {
+
+    private static final ExecutorService EXECUTOR = createExecutor();
+    // Only fires periodic tasks; anything that blocks is handed to EXECUTOR via supply().
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "service-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private ServiceExecutor() {
+    }
+
+    /**
+     * Runs {@code call} on the service executor.
+     */
+    public static <T> CompletableFuture<T> supply(Supplier<T> call) {
+        return CompletableFuture.supplyAsync(call, EXECUTOR);
+    }
+
+    /**
+     * Runs {@code task} every {@code periodMillis} on the scheduler thread until the returned
+     * future is cancelled. The task must not block; a failing run is logged and does not stop
+     * later runs.
+     */
+    public static ScheduledFuture<?> scheduleAtFixedRate(Runnable task, long initialDelayMillis, long periodMillis) {
+        return SCHEDULER.scheduleAtFixedRate(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }, initialDelayMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public static ExecutorService get() {
+        return EXECUTOR;
+    }
+
+    public static void shutdown() {
+        SCHEDULER.shutdownNow();
+        EXECUTOR.shutdownNow();
+    }
+
+    private static ExecutorService createExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            Dotenv dotenv = Dotenv.configure().ignoreIfMissing().load();
+            int threads = Integer.parseInt(dotenv.get("SERVICE_EXECUTOR_THREADS", "32"));
+            AtomicInteger counter = new AtomicInteger();
+            ThreadFactory factory = runnable -> {
+                Thread thread = new Thread(runnable, "service-worker-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+            return Executors.newFixedThreadPool(threads, factory);
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package com.example.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Call counts, latency histograms, row counts and errors for the public methods of one service.
+ * <p>
+ * A service wraps each method body in {@link #time}. Rows are taken from the result when it
+ * is a collection, map or optional; methods returning anything else report their rows with
+ * {@link #recordRows}. Services log and swallow SQL errors, so their catch blocks call
+ * {@link #recordError} to mark the call as failed. Both attribute to the innermost call
+ * timed on the current thread, which includes loads a read-through cache runs for its caller.
+ * Methods returning a stream that the caller consumes later use {@link #start} instead and
+ * stop the returned {@link Span} when the stream is closed.
+ * <p>
+ * Histograms are cumulative since startup, with fixed bucket bounds from 0.5 ms to 10 s.
+ */
+public final class ServiceMetrics {
+
+    private static final double[] BUCKET_BOUNDS_SECONDS = {
+        0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10
+    };
+    private static final long[] BUCKET_BOUNDS_NANOS = new long[BUCKET_BOUNDS_SECONDS.length];
+
+    static {
+        for (int i = 0; i < BUCKET_BOUNDS_SECONDS.length; i++) {
+            BUCKET_BOUNDS_NANOS[i] = (long) (BUCKET_BOUNDS_SECONDS[i] * TimeUnit.SECONDS.toNanos(1));
+        }
+    }
+
+    private static final Map<String, ServiceMetrics> services = new ConcurrentHashMap<>();
+    private static final ThreadLocal<Call> currentCall = new ThreadLocal<>();
+
+    private final String service;
+    private final Map<String, MethodCounters> methods = new ConcurrentHashMap<>();
+
+    private ServiceMetrics(String service) {
+        this.service = service;
+    }
+
+    /**
+     * @param service the {@code service} label, e.g. {@code "traffic"}
+     */
+    public static ServiceMetrics forService(String service) {
+        return services.computeIfAbsent(service, ServiceMetrics::new);
+    }
+
+    /**
+     * Runs {@code call} and records its latency, rows and outcome under {@code method}. A call
+     * that throws is counted as an error and the exception is passed on.
+     */
+    public <T> T time(String method, Supplier<T> call) {
+        MethodCounters counters = methods.computeIfAbsent(method, name -> new MethodCounters());
+        Call previous = currentCall.get();
+        Call current = new Call();
+        currentCall.set(current);
+        long start = System.nanoTime();
+        T result = null;
+        try {
+            result = call.get();
+            return result;
+        } catch (RuntimeException | Error e) {
+            current.failed = true;
+            throw e;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            if (previous == null) {
+                currentCall.remove();
+            } else {
+                currentCall.set(previous);
+            }
+            counters.record(elapsed, current.rows >= 0 ? current.rows : rowsOf(result), current.failed);
+        }
+    }
+
+    /**
+     * {@link #time} for methods without a result.
+     */
+    public void run(String method, Runnable call) {
+        time(method, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    /**
+     * Starts timing a call that ends after the method returns, such as a stream read by the
+     * caller. Rows and errors are reported on the span rather than with {@link #recordRows}
+     * and {@link #recordError}; nothing is recorded until {@link Span#stop} is called.
+     */
+    public Span start(String method) {
+        return new Span(methods.computeIfAbsent(method, name -> new MethodCounters()));
+    }
+
+    /**
+     * Marks the call running on this thread as failed. Does nothing outside a timed call.
+     */
+    public static void recordError() {
+        Call call = currentCall.get();
+        if (call != null) {
+            call.failed = true;
+        }
+    }
+
+    /**
+     * Adds to the rows of the call running on this thread, for results that are not
+     * collections. Does nothing outside a timed call.
+     */
+    public static void recordRows(long rows) {
+        Call call = currentCall.get();
+        if (call != null) {
+            call.rows = Math.max(call.rows, 0) + rows;
+        }
+    }
+
+    private static long rowsOf(Object result) {
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Map) {
+            return ((Map<?, ?>) result).size();
+        }
+        if (result instanceof Optional) {
+            return ((Optional<?>) result).isPresent() ? 1 : 0;
+        }
+        return 0;
+    }
+
+    /**
+     * @return upper bounds of the finite histogram buckets, in seconds
+     */
+    public static double[] getBucketBounds() {
+        return BUCKET_BOUNDS_SECONDS.clone();
+    }
+
+    /**
+     * @return a snapshot of every method timed so far, ordered by service and method
+     */
+    public static List<MethodStats> getStats() {
+        List<MethodStats> stats = new ArrayList<>();
+        for (ServiceMetrics metrics : services.values()) {
+            metrics.methods.forEach((method, counters) -> stats.add(counters.snapshot(metrics.service, method)));
+        }
+        stats.sort((a, b) -> a.service.equals(b.service)
+                ? a.method.compareTo(b.method) : a.service.compareTo(b.service));
+        return Collections.unmodifiableList(stats);
+    }
+
+    /**
+     * A call timed from {@link #start} until {@link #stop}, possibly on another thread.
+     */
+    public static final class Span {
+        private final MethodCounters counters;
+        private final long start = System.nanoTime();
+        private final LongAdder rows = new LongAdder();
+        private volatile boolean failed;
+        private final AtomicBoolean stopped = new AtomicBoolean();
+
+        private Span(MethodCounters counters) {
+            this.counters = counters;
+        }
+
+        public void addRows(long count) {
+            rows.add(count);
+        }
+
+        public void fail() {
+            failed = true;
+        }
+
+        /**
+         * Records the call. Only the first stop counts.
+         */
+        public void stop() {
+            if (stopped.compareAndSet(false, true)) {
+                counters.record(System.nanoTime() - start, rows.sum(), failed);
+            }
+        }
+    }
+
+    private static final class Call {
+        private long rows = -1;
+        private boolean failed;
+    }
+
+    private static final class MethodCounters {
+        // One more than the bounds: the last bucket is +Inf
+        private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS_NANOS.length + 1];
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+
+        private MethodCounters() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        private void record(long elapsedNanos, long rowCount, boolean failed) {
+            int bucket = 0;
+            while (bucket < BUCKET_BOUNDS_NANOS.length && elapsedNanos > BUCKET_BOUNDS_NANOS[bucket]) {
+                bucket++;
+            }
+            buckets[bucket].increment();
+            totalNanos.add(elapsedNanos);
+            rows.add(rowCount);
+            if (failed) {
+                errors.increment();
+            }
+        }
+
+        private MethodStats snapshot(String service, String method) {
+            long[] cumulative = new long[buckets.length];
+            long running = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                running += buckets[i].sum();
+                cumulative[i] = running;
+            }
+            // The call count is the bucket total, so the histogram always adds up.
+            return new MethodStats(service, method, running, errors.sum(), rows.sum(),
+                    totalNanos.sum() / 1e9, cumulative);
+        }
+    }
+
+    /**
+     * Counters of one service method at the time of the snapshot.
+     */
+    public static final class MethodStats {
+        private final String service;
+        private final String method;
+        private final long calls;
+        private final long errors;
+        private final long rows;
+        private final double totalSeconds;
+        private final long[] cumulativeBuckets;
+
+        MethodStats(String service, String method, long calls, long errors, long rows,
+                    double totalSeconds, long[] cumulativeBuckets) {
+            this.service = service;
+            this.method = method;
+            this.calls = calls;
+            this.errors = errors;
+            this.rows = rows;
+            this.totalSeconds = totalSeconds;
+            this.cumulativeBuckets = cumulativeBuckets;
+        }
+
+        public String getService() { return service; }
+        public String getMethod() { return method; }
+        public long getCalls() { return calls; }
+        public long getErrors() { return errors; }
+        public long getRows() { return rows; }
+        public double getTotalSeconds() { return totalSeconds; }
+
+        /**
+         * @return calls at or below each bound of {@link ServiceMetrics#getBucketBounds()}, then all calls
+         */
+        public long[] getCumulativeBuckets() {
+            return cumulativeBuckets.clone();
+        }
+
+        /**
+         * Estimates a latency quantile by interpolating inside the bucket it falls in. Calls
+         * slower than the last bound report that bound.
+         *
+         * @param quantile between 0 and 1, e.g. 0.99
+         * @return the estimate in seconds, or 0 before the first call
+         */
+        public double getQuantileSeconds(double quantile) {
+            if (calls == 0) {
+                return 0;
+            }
+            double rank = quantile * calls;
+            for (int i = 0; i < BUCKET_BOUNDS_SECONDS.length; i++) {
+                if (cumulativeBuckets[i] >= rank) {
+                    long below = i == 0 ? 0 : cumulativeBuckets[i - 1];
+                    double lower = i == 0 ? 0 : BUCKET_BOUNDS_SECONDS[i - 1];
+                    long inBucket = cumulativeBuckets[i] - below;
+                    double fraction = inBucket == 0 ? 1 : (rank - below) / inBucket;
+                    return lower + (BUCKET_BOUNDS_SECONDS[i] - lower) * fraction;
+                }
+            }
+            return BUCKET_BOUNDS_SECONDS[BUCKET_BOUNDS_SECONDS.length - 1];
+        }
+    }
+}
@@ -0,0 +1,382 @@
+package com.example.model;
+
+import io.github.cdimascio.dotenv.Dotenv;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Logs statements on pooled connections that take longer than DB_SLOW_QUERY_MS.
+ * <p>
+ * {@link ConnectionPool} wraps every statement it hands out while the log is enabled. The
+ * elapsed time of a query is its execute call plus the time spent in {@code ResultSet.next()},
+ * so streamed results are measured while they are read and the caller's own work between rows
+ * is not. A slow statement is logged with its SQL fingerprint (literals replaced by {@code ?},
+ * whitespace collapsed), the types of its bind parameters, its rows and its elapsed time.
+ * <p>
+ * With DB_SLOW_QUERY_EXPLAIN enabled, the first slow occurrence of each fingerprint is also run
+ * through {@code EXPLAIN} with the same bind values, on another pooled connection in the
+ * background, and the plan is kept with the fingerprint's counters. A threshold of 0 (the
+ * default) disables the log and the statement wrapping.
+ */
+public final class SlowQueryLog {
+
+    private static final long THRESHOLD_NANOS;
+    private static final boolean EXPLAIN_ENABLED;
+    private static final int MAX_FINGERPRINTS = 500;
+
+    static {
+        Dotenv dotenv = Dotenv.configure().ignoreIfMissing().load();
+        THRESHOLD_NANOS = TimeUnit.MILLISECONDS.toNanos(Long.parseLong(dotenv.get("DB_SLOW_QUERY_MS", "0")));
+        EXPLAIN_ENABLED = Boolean.parseBoolean(dotenv.get("DB_SLOW_QUERY_EXPLAIN", "true"));
+    }
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^'\\\\]|\\\\.|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?(?![\\w.])");
+    private static final Pattern PLACEHOLDER_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern EXPLAINABLE = Pattern.compile("^\\s*(SELECT|INSERT|UPDATE|DELETE|REPLACE)\\b",
+            Pattern.CASE_INSENSITIVE);
+
+    private static final Map<String, SlowQuery> slowQueries = new ConcurrentHashMap<>();
+
+    private SlowQueryLog() {
+    }
+
+    static boolean isEnabled() {
+        return THRESHOLD_NANOS > 0;
+    }
+
+    /**
+     * Wraps a statement handed out by the pool.
+     *
+     * @param sql the statement text for prepared statements, null for plain statements
+     */
+    static Statement wrap(Statement statement, String sql) {
+        Class<?> type = statement instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+        return (Statement) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                new TimedStatement(statement, sql));
+    }
+
+    /**
+     * Normalizes {@code sql} so statements that differ only in literal values or layout match.
+     */
+    public static String fingerprint(String sql) {
+        String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = PLACEHOLDER_LIST.matcher(normalized).replaceAll("(?+)");
+        return WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+    }
+
+    /**
+     * @return every fingerprint logged as slow so far
+     */
+    public static List<SlowQuery> getSlowQueries() {
+        return Collections.unmodifiableList(new ArrayList<>(slowQueries.values()));
+    }
+
+    private static void complete(Execution execution) {
+        if (execution.elapsedNanos < THRESHOLD_NANOS || execution.sql == null) {
+            return;
+        }
+        String fingerprint = fingerprint(execution.sql);
+        SlowQuery query = slowQueries.get(fingerprint);
+        boolean first = false;
+        if (query == null) {
+            if (slowQueries.size() >= MAX_FINGERPRINTS) {
+                // Still log it, but stop tracking new fingerprints.
+                query = new SlowQuery(fingerprint);
+            } else {
+                SlowQuery created = new SlowQuery(fingerprint);
+                query = slowQueries.putIfAbsent(fingerprint, created);
+                if (query == null) {
+                    query = created;
+                    first = true;
+                }
+            }
+        }
+        query.record(execution.elapsedNanos, execution.rows);
+
+        System.err.printf("Slow query [%s] %d ms, %d row(s), binds %s: %s%n", query.getId(),
+                TimeUnit.NANOSECONDS.toMillis(execution.elapsedNanos), execution.rows, execution.shape, fingerprint);
+
+        if (first && EXPLAIN_ENABLED && EXPLAINABLE.matcher(execution.sql).find()) {
+            String sql = execution.sql;
+            Object[] binds = execution.binds;
+            SlowQuery target = query;
+            ServiceExecutor.get().execute(() -> explain(target, sql, binds));
+        }
+    }
+
+    private static void explain(SlowQuery query, String sql, Object[] binds) {
+        StringJoiner plan = new StringJoiner("\n");
+        try (Connection conn = ConnectionPool.getInstance().getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("EXPLAIN " + sql)) {
+            for (int i = 0; i < binds.length; i++) {
+                pstmt.setObject(i + 1, binds[i]);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                ResultSetMetaData meta = rs.getMetaData();
+                while (rs.next()) {
+                    StringJoiner row = new StringJoiner(", ");
+                    for (int column = 1; column <= meta.getColumnCount(); column++) {
+                        row.add(meta.getColumnLabel(column) + "=" + rs.getString(column));
+                    }
+                    plan.add(row.toString());
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Could not EXPLAIN slow query [" + query.getId() + "]: " + e.getMessage());
+            return;
+        }
+        query.plan = plan.toString();
+        System.err.println("Plan for slow query [" + query.getId() + "]:\n" + query.plan);
+    }
+
+    private static String shapeOf(Object[] binds) {
+        StringJoiner shape = new StringJoiner(", ", "(", ")");
+        for (Object bind : binds) {
+            shape.add(bind == null ? "null" : bind.getClass().getSimpleName());
+        }
+        return shape.toString();
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Counters for one slow fingerprint.
+     */
+    public static final class SlowQuery {
+        private final String fingerprint;
+        private final String id;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLong maxRows = new AtomicLong();
+        private volatile String plan;
+
+        private SlowQuery(String fingerprint) {
+            this.fingerprint = fingerprint;
+            CRC32 crc = new CRC32();
+            crc.update(fingerprint.getBytes(StandardCharsets.UTF_8));
+            this.id = String.format("%08x", crc.getValue());
+        }
+
+        private void record(long elapsedNanos, long rows) {
+            count.increment();
+            totalNanos.add(elapsedNanos);
+            maxNanos.accumulateAndGet(elapsedNanos, Math::max);
+            maxRows.accumulateAndGet(rows, Math::max);
+        }
+
+        /** Short hash of the fingerprint, used to match log lines and metrics. */
+        public String getId() { return id; }
+        public String getFingerprint() { return fingerprint; }
+        public long getCount() { return count.sum(); }
+        public double getTotalSeconds() { return totalNanos.sum() / 1e9; }
+        public double getMaxSeconds() { return maxNanos.get() / 1e9; }
+        public long getMaxRows() { return maxRows.get(); }
+
+        /**
+         * @return the EXPLAIN output captured for the first slow run, one line per plan row, or null
+         */
+        public String getPlan() { return plan; }
+    }
+
+    /**
+     * One execution of a statement, completed when its result set or statement is closed or
+     * the statement runs again.
+     */
+    private static final class Execution {
+        private final String sql;
+        private final String shape;
+        private final Object[] binds;
+        private long elapsedNanos;
+        private long rows;
+        private boolean completed;
+
+        private Execution(String sql, String shape, Object[] binds) {
+            this.sql = sql;
+            this.shape = shape;
+            this.binds = binds;
+        }
+
+        private void complete() {
+            if (!completed) {
+                completed = true;
+                SlowQueryLog.complete(this);
+            }
+        }
+    }
+
+    private static final class TimedStatement implements InvocationHandler {
+        private final Statement delegate;
+        private final String sql;
+        private final TreeMap<Integer, Object> binds = new TreeMap<>();
+        private int batched;
+        private Execution pending;
+
+        private TimedStatement(Statement delegate, String sql) {
+            this.delegate = delegate;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (sql != null && name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                binds.put((Integer) args[0], name.equals("setNull") ? null : args[1]);
+                return invoke(delegate, method, args);
+            }
+            switch (name) {
+                case "clearParameters":
+                    binds.clear();
+                    break;
+                case "addBatch":
+                    batched++;
+                    break;
+                case "clearBatch":
+                    batched = 0;
+                    break;
+                case "close":
+                    completePending();
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "executeQuery":
+                    return executeQuery(method, args);
+                case "execute":
+                case "executeUpdate":
+                case "executeLargeUpdate":
+                case "executeBatch":
+                case "executeLargeBatch":
+                    return executeUpdate(method, args);
+                default:
+                    break;
+            }
+            return invoke(delegate, method, args);
+        }
+
+        private Object executeQuery(Method method, Object[] args) throws Throwable {
+            Execution execution = start(args);
+            long startedAt = System.nanoTime();
+            ResultSet rs = (ResultSet) invoke(delegate, method, args);
+            execution.elapsedNanos = System.nanoTime() - startedAt;
+            pending = execution;
+            return Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                    new TimedResultSet(rs, execution));
+        }
+
+        private Object executeUpdate(Method method, Object[] args) throws Throwable {
+            Execution execution = start(args);
+            long startedAt = System.nanoTime();
+            Object result = invoke(delegate, method, args);
+            execution.elapsedNanos = System.nanoTime() - startedAt;
+            execution.rows = affectedRows(result);
+            batched = 0;
+            execution.complete();
+            return result;
+        }
+
+        private Execution start(Object[] args) {
+            completePending();
+            // Plain statements carry their SQL in the execute call.
+            String text = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : sql;
+            Object[] values = binds.values().toArray();
+            String shape = shapeOf(values);
+            if (batched > 0) {
+                shape = "batch of " + batched + " " + shape;
+            }
+            return new Execution(text, shape, values);
+        }
+
+        private long affectedRows(Object result) throws SQLException {
+            if (result instanceof Number) {
+                return ((Number) result).longValue();
+            }
+            long rows = 0;
+            if (result instanceof int[]) {
+                for (int count : (int[]) result) {
+                    rows += Math.max(count, 0);
+                }
+            } else if (result instanceof long[]) {
+                for (long count : (long[]) result) {
+                    rows += Math.max(count, 0);
+                }
+            } else if (Boolean.FALSE.equals(result)) {
+                rows = Math.max(delegate.getUpdateCount(), 0);
+            }
+            return rows;
+        }
+
+        private void completePending() {
+            if (pending != null) {
+                pending.complete();
+                pending = null;
+            }
+        }
+    }
+
+    private static final class TimedResultSet implements InvocationHandler {
+        private final ResultSet delegate;
+        private final Execution execution;
+
+        private TimedResultSet(ResultSet delegate, Execution execution) {
+            this.delegate = delegate;
+            this.execution = execution;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "next":
+                    long startedAt = System.nanoTime();
+                    boolean hasRow = delegate.next();
+                    execution.elapsedNanos += System.nanoTime() - startedAt;
+                    if (hasRow) {
+                        execution.rows++;
+                    }
+                    return hasRow;
+                case "close":
+                    delegate.close();
+                    execution.complete();
+                    return null;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return SlowQueryLog.invoke(delegate, method, args);
+            }
+        }
+    }
+}
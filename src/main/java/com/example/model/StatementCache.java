@@ -0,0 +1,258 @@
+package com.example.model;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LRU cache of prepared statements belonging to one pooled connection.
+ * <p>
+ * With server-side prepared statements enabled, a cached statement is parsed by MySQL once
+ * for the lifetime of the pooled connection instead of once per service call. Closing the
+ * statement handed to a caller closes any result it left open, clears its parameters, resets
+ * fetch size, max rows and query timeout to their defaults, and makes it available again.
+ * Hit and miss counters are kept globally and per SQL string.
+ */
+public final class StatementCache {
+
+    private static final int MAX_TRACKED_STATEMENTS = 500;
+
+    private static final LongAdder hits = new LongAdder();
+    private static final LongAdder misses = new LongAdder();
+    private static final LongAdder evictions = new LongAdder();
+    private static final Map<String, StatementCounters> countersBySql = new ConcurrentHashMap<>();
+
+    private final int maxSize;
+    private final LinkedHashMap<String, CachedStatement> statements;
+
+    StatementCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    public static long getHits() {
+        return hits.sum();
+    }
+
+    public static long getMisses() {
+        return misses.sum();
+    }
+
+    public static long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return fraction of prepare calls served from a cache, or 0 before the first call
+     */
+    public static double getHitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    /**
+     * @return per-SQL counters, keyed by the statement text
+     */
+    public static Map<String, StatementCounters> getStatementCounters() {
+        return Collections.unmodifiableMap(countersBySql);
+    }
+
+    /**
+     * Returns a prepared statement for {@code sql}, reusing the cached one when it is not
+     * already open elsewhere on this connection.
+     *
+     * @param owner the connection handle the caller sees, returned from {@code getConnection()}
+     * @param autoGeneratedKeys a {@link Statement} generated-keys flag
+     */
+    synchronized PreparedStatement prepare(Connection physical, Connection owner, String sql, int autoGeneratedKeys) throws SQLException {
+        if (maxSize <= 0) {
+            return physical.prepareStatement(sql, autoGeneratedKeys);
+        }
+
+        String key = autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS ? sql + "\u0000keys" : sql;
+        StatementCounters counters = countersFor(sql);
+        CachedStatement cached = statements.get(key);
+
+        if (cached != null && !cached.inUse) {
+            hits.increment();
+            counters.hits.increment();
+            return cached.checkOut(owner);
+        }
+
+        misses.increment();
+        counters.misses.increment();
+        PreparedStatement statement = physical.prepareStatement(sql, autoGeneratedKeys);
+        if (cached != null) {
+            // The same SQL is already open on this connection (nested use); hand out a plain statement.
+            return statement;
+        }
+
+        cached = new CachedStatement(statement);
+        statements.put(key, cached);
+        evictIfNeeded();
+        return cached.checkOut(owner);
+    }
+
+    /**
+     * Drops every cached statement. Called when the owning physical connection is closed.
+     */
+    synchronized void clear() {
+        for (CachedStatement cached : statements.values()) {
+            cached.evicted = true;
+            if (!cached.inUse) {
+                closeQuietly(cached.statement);
+            }
+        }
+        statements.clear();
+    }
+
+    private void evictIfNeeded() {
+        Iterator<CachedStatement> eldestFirst = statements.values().iterator();
+        while (statements.size() > maxSize && eldestFirst.hasNext()) {
+            CachedStatement eldest = eldestFirst.next();
+            if (eldest.inUse) {
+                continue;
+            }
+            eldestFirst.remove();
+            eldest.evicted = true;
+            evictions.increment();
+            closeQuietly(eldest.statement);
+        }
+    }
+
+    private synchronized void checkIn(CachedStatement cached) {
+        cached.inUse = false;
+        if (cached.evicted) {
+            closeQuietly(cached.statement);
+            return;
+        }
+        try {
+            PreparedStatement statement = cached.statement;
+            // A result left open (possibly streaming) would block the next execute on this connection.
+            ResultSet open = statement.getResultSet();
+            if (open != null) {
+                open.close();
+            }
+            statement.clearParameters();
+            statement.clearBatch();
+            statement.clearWarnings();
+            // Options set by one caller, e.g. Integer.MIN_VALUE fetch size for streaming, must not leak into the next.
+            if (statement.getFetchSize() != 0) {
+                statement.setFetchSize(0);
+            }
+            if (statement.getMaxRows() != 0) {
+                statement.setMaxRows(0);
+            }
+            if (statement.getQueryTimeout() != 0) {
+                statement.setQueryTimeout(0);
+            }
+        } catch (SQLException e) {
+            statements.values().remove(cached);
+            cached.evicted = true;
+            closeQuietly(cached.statement);
+        }
+    }
+
+    private static StatementCounters countersFor(String sql) {
+        StatementCounters counters = countersBySql.get(sql);
+        if (counters == null) {
+            if (countersBySql.size() >= MAX_TRACKED_STATEMENTS) {
+                return new StatementCounters();
+            }
+            counters = countersBySql.computeIfAbsent(sql, k -> new StatementCounters());
+        }
+        return counters;
+    }
+
+    private static void closeQuietly(Statement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            // Already unusable; nothing to report.
+        }
+    }
+
+    public static final class StatementCounters {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+
+        public long getHits() { return hits.sum(); }
+        public long getMisses() { return misses.sum(); }
+    }
+
+    private final class CachedStatement {
+        private final PreparedStatement statement;
+        private boolean inUse;
+        private boolean evicted;
+
+        private CachedStatement(PreparedStatement statement) {
+            this.statement = statement;
+        }
+
+        private PreparedStatement checkOut(Connection owner) {
+            inUse = true;
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    new Handle(this, owner));
+        }
+    }
+
+    /**
+     * Handler behind the statement given to a caller; closing it returns the statement to the cache.
+     */
+    private final class Handle implements InvocationHandler {
+        private final CachedStatement cached;
+        private final Connection owner;
+        private boolean closed;
+
+        private Handle(CachedStatement cached, Connection owner) {
+            this.cached = cached;
+            this.owner = owner;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        checkIn(cached);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || cached.statement.isClosed();
+                case "getConnection":
+                    return owner;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+
+            if (closed) {
+                throw new SQLException("Statement has already been closed.");
+            }
+            try {
+                return method.invoke(cached.statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
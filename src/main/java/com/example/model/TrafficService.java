@@ -3,11 +3,16 @@ package com.example.model;
 import io.github.cdimascio.dotenv.Dotenv;
 
 import java.sql.*;
+import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 import com.example.model.JunctionState;
 import com.example.model.ParkingSpot;
@@ -16,9 +21,6 @@ import com.example.model.ParkingSpot;
 public class TrafficService {
 
     private static final Dotenv dotenv;
-    private static final String DB_URL;
-    private static final String DB_USER;
-    private static final String DB_PASSWORD;
     private static final String JUNCTION_TABLE_NAME;
     private static final String PARKING_TABLE_NAME;
 
@@ -26,22 +28,14 @@ public class TrafficService {
         try {
             dotenv = Dotenv.configure().ignoreIfMissing().load();
 
-            DB_URL = dotenv.get("DB_URL");
-            DB_USER = dotenv.get("DB_USER");
-            DB_PASSWORD = dotenv.get("DB_PASSWORD");
             JUNCTION_TABLE_NAME = dotenv.get("DB_JUNCTION_TABLE", "junction_state");
             PARKING_TABLE_NAME = dotenv.get("DB_PARKING_TABLE", "parking_spots");
 
-            if (DB_URL == null || DB_USER == null || DB_PASSWORD == null) {
-                   throw new RuntimeException("Error: Required DB environment variables (DB_URL, DB_USER, DB_PASSWORD) are missing.");
-            }
             if (JUNCTION_TABLE_NAME == null || PARKING_TABLE_NAME == null) {
                 System.err.println("Warning: DB_JUNCTION_TABLE or DB_PARKING_TABLE not found in .env, using defaults.");
             }
 
-            Class.forName("com.mysql.cj.jdbc.Driver");
-
-        } catch (RuntimeException | ClassNotFoundException e) {
+        } catch (RuntimeException e) {
              System.err.println("Error during static initialization: " + e.getMessage());
              e.printStackTrace();
              throw new RuntimeException("Error during static initialization.", e);
@@ -52,9 +46,51 @@ public class TrafficService {
         }
     }
 
+    // Fixed statements, built once so the pooled connection's statement cache can reuse them.
+    // Alternative SQL using a correlated subquery
+    private static final String LATEST_JUNCTION_STATES_SQL = String.format(
+            "SELECT t1.junction_id, t1.lane_1_vehicles, t1.lane_2_vehicles, t1.lane_3_vehicles, t1.lane_4_vehicles, t1.green_lane_id, t1.last_updated " +
+            "FROM %s t1 " +
+            "WHERE t1.last_updated = (" +
+            "   SELECT MAX(t2.last_updated) " +
+            "   FROM %s t2 " +
+            "   WHERE t2.junction_id = t1.junction_id" +
+            ")",
+            JUNCTION_TABLE_NAME, JUNCTION_TABLE_NAME);
+    private static final String PARKING_SPOT_COLUMNS = "spot_id, location_description, is_occupied, last_updated";
+    private static final String ALL_PARKING_SPOTS_SQL = String.format(
+            "SELECT %s FROM %s ORDER BY spot_id", PARKING_SPOT_COLUMNS, PARKING_TABLE_NAME);
+    private static final String PARKING_SPOTS_FIRST_PAGE_SQL = String.format(
+            "SELECT %s FROM %s ORDER BY spot_id LIMIT ?", PARKING_SPOT_COLUMNS, PARKING_TABLE_NAME);
+    private static final String PARKING_SPOTS_NEXT_PAGE_SQL = String.format(
+            "SELECT %s FROM %s WHERE spot_id > ? ORDER BY spot_id LIMIT ?", PARKING_SPOT_COLUMNS, PARKING_TABLE_NAME);
+    private static final String PARKING_SPOTS_AT_OFFSET_SQL = String.format(
+            "SELECT %s FROM %s ORDER BY spot_id LIMIT ? OFFSET ?", PARKING_SPOT_COLUMNS, PARKING_TABLE_NAME);
+    private static final String JUNCTION_RETENTION_POLICY = "junction-state";
+
+    private static final String LATEST_JUNCTION_STATES_KEY = "latestJunctionStates";
+    private static final String ALL_PARKING_SPOTS_KEY = "allParkingSpots";
+    private static final String PARKING_OCCUPANCY_KEY = "parkingOccupancy";
+    private static final String PARKING_AVAILABILITY_KEY = "parkingAvailability";
+
+    // MySQL error for an unknown column: the parking table predates lot_id/zone.
+    private static final int ER_BAD_FIELD_ERROR = 1054;
+
     private static TrafficService instance;
+    private static final ServiceMetrics METRICS = ServiceMetrics.forService("traffic");
+
+    // Latest-state reads are shared by every open view; see TtlCache for the settings.
+    private final TtlCache<String, Object> readCache = TtlCache.configured("TRAFFIC");
+
+    private volatile ParkingOccupancyIndex occupancyIndex = new ParkingOccupancyIndex(PARKING_TABLE_NAME, true);
 
     private TrafficService() {
+        // On demand only: the table holds one upserted row per junction, so a schedule would
+        // delete the current state of every junction that has not reported since the cutoff.
+        RetentionEngine.getInstance().register(new RetentionEngine.Policy(
+                JUNCTION_RETENTION_POLICY, JUNCTION_TABLE_NAME, "junction_id", "last_updated < ?", false,
+                null,
+                cutoff -> readCache.invalidate(LATEST_JUNCTION_STATES_KEY)));
     }
 
     public static synchronized TrafficService getInstance() {
@@ -65,24 +101,80 @@ public class TrafficService {
     }
 
     private Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
+        return ConnectionPool.getInstance().getConnection();
+    }
+
+    /**
+     * Drops the cached latest-state reads. Call after writing junction or parking data.
+     */
+    public void invalidateCachedReads() {
+        readCache.invalidateAll();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T cached(String key, Supplier<T> loader) {
+        return (T) readCache.get(key, loader::get);
     }
 
+    /**
+     * @return the latest state per junction; the map is shared and unmodifiable
+     */
     public Map<String, JunctionState> getLatestJunctionStates() {
+        return METRICS.time("getLatestJunctionStates",
+                () -> cached(LATEST_JUNCTION_STATES_KEY, () -> Collections.unmodifiableMap(loadLatestJunctionStates())));
+    }
+
+    /**
+     * @return all parking spots ordered by id; the list is shared and unmodifiable
+     */
+    public List<ParkingSpot> getAllParkingSpots() {
+        return METRICS.time("getAllParkingSpots",
+                () -> cached(ALL_PARKING_SPOTS_KEY, () -> Collections.unmodifiableList(loadAllParkingSpots())));
+    }
+
+    /**
+     * Occupancy counts per lot and zone without loading the spots themselves. The index is
+     * brought up to date at most once per cache TTL, reading only spots changed since then,
+     * and rebuilt when its spot count no longer matches the table's.
+     *
+     * @return the shared index; its counts keep moving as later calls refresh it
+     */
+    public ParkingOccupancyIndex getParkingOccupancy() {
+        return METRICS.time("getParkingOccupancy",
+                () -> cached(PARKING_OCCUPANCY_KEY, this::refreshParkingOccupancy));
+    }
+
+    private ParkingOccupancyIndex refreshParkingOccupancy() {
+        ParkingOccupancyIndex index = occupancyIndex;
+        try (Connection conn = getConnection()) {
+            try {
+                if (!index.refresh(conn)) {
+                    index = new ParkingOccupancyIndex(PARKING_TABLE_NAME, index.hasLotAndZone());
+                    index.refresh(conn);
+                    occupancyIndex = index;
+                }
+            } catch (SQLException e) {
+                if (e.getErrorCode() != ER_BAD_FIELD_ERROR) {
+                    throw e;
+                }
+                System.err.println("Parking table has no lot_id/zone columns; counting all spots as unassigned.");
+                index = new ParkingOccupancyIndex(PARKING_TABLE_NAME, false);
+                index.refresh(conn);
+                occupancyIndex = index;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error refreshing parking occupancy: " + e.getMessage());
+            ServiceMetrics.recordError();
+            e.printStackTrace();
+        }
+        return index;
+    }
+
+    private Map<String, JunctionState> loadLatestJunctionStates() {
         Map<String, JunctionState> latestStates = new HashMap<>();
-        // Alternative SQL using a correlated subquery
-        String sql = String.format(
-            "SELECT t1.junction_id, t1.lane_1_vehicles, t1.lane_2_vehicles, t1.lane_3_vehicles, t1.lane_4_vehicles, t1.green_lane_id, t1.last_updated " +
-            "FROM %s t1 " +
-            "WHERE t1.last_updated = (" +
-            "   SELECT MAX(t2.last_updated) " +
-            "   FROM %s t2 " +
-            "   WHERE t2.junction_id = t1.junction_id" +
-            ")",
-            JUNCTION_TABLE_NAME, JUNCTION_TABLE_NAME);
-    
+
         try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql);
+             PreparedStatement pstmt = conn.prepareStatement(LATEST_JUNCTION_STATES_SQL);
              ResultSet rs = pstmt.executeQuery()) {
     
             while (rs.next()) {
@@ -99,6 +191,7 @@ public class TrafficService {
             }
         } catch (SQLException e) {
             System.err.println("Error fetching latest junction states: " + e.getMessage());
+            ServiceMetrics.recordError();
             e.printStackTrace();
             // Consider re-throwing or handling the exception more robustly
             // throw new RuntimeException("Failed to fetch latest junction states", e);
@@ -106,43 +199,180 @@ public class TrafficService {
         return latestStates;
     }
 
-    public List<ParkingSpot> getAllParkingSpots() {
+    private List<ParkingSpot> loadAllParkingSpots() {
         List<ParkingSpot> spots = new ArrayList<>();
-        String sql = String.format("SELECT spot_id, location_description, is_occupied, last_updated FROM %s ORDER BY spot_id", PARKING_TABLE_NAME);
 
         try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql);
+             PreparedStatement pstmt = conn.prepareStatement(ALL_PARKING_SPOTS_SQL);
              ResultSet rs = pstmt.executeQuery()) {
 
             while (rs.next()) {
-                ParkingSpot spot = new ParkingSpot(
-                        rs.getString("spot_id"),
-                        rs.getString("location_description"),
-                        rs.getBoolean("is_occupied"),
-                        rs.getTimestamp("last_updated")
-                );
-                spots.add(spot);
+                spots.add(mapParkingSpot(rs));
             }
         } catch (SQLException e) {
             System.err.println("Error fetching parking spots: " + e.getMessage());
+            ServiceMetrics.recordError();
             e.printStackTrace();
         }
         return spots;
     }
 
+    /**
+     * Gets one page of parking spots ordered by spot id.
+     *
+     * @param afterSpotId the last spot id of the previous page, or null for the first page
+     */
+    public List<ParkingSpot> getParkingSpotsPage(String afterSpotId, int limit) {
+        return METRICS.time("getParkingSpotsPage", () -> {
+            List<ParkingSpot> spots = new ArrayList<>();
+            String sql = afterSpotId == null ? PARKING_SPOTS_FIRST_PAGE_SQL : PARKING_SPOTS_NEXT_PAGE_SQL;
+            try (Connection conn = getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+                if (afterSpotId == null) {
+                    pstmt.setInt(1, limit);
+                } else {
+                    pstmt.setString(1, afterSpotId);
+                    pstmt.setInt(2, limit);
+                }
+
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        spots.add(mapParkingSpot(rs));
+                    }
+                }
+            } catch (SQLException e) {
+                System.err.println("Error fetching parking spots page: " + e.getMessage());
+                ServiceMetrics.recordError();
+                e.printStackTrace();
+            }
+            return spots;
+        });
+    }
+
+    /**
+     * Gets parking spots by position, for jumps to a page whose predecessor is unknown.
+     * Costs O(offset); prefer {@link #getParkingSpotsPage} for sequential access.
+     */
+    public List<ParkingSpot> getParkingSpotsAt(int offset, int limit) {
+        return METRICS.time("getParkingSpotsAt", () -> {
+            List<ParkingSpot> spots = new ArrayList<>();
+            try (Connection conn = getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(PARKING_SPOTS_AT_OFFSET_SQL)) {
+
+                pstmt.setInt(1, limit);
+                pstmt.setInt(2, offset);
+
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        spots.add(mapParkingSpot(rs));
+                    }
+                }
+            } catch (SQLException e) {
+                System.err.println("Error fetching parking spots: " + e.getMessage());
+                ServiceMetrics.recordError();
+                e.printStackTrace();
+            }
+            return spots;
+        });
+    }
+
+    /**
+     * @return total and available spot counts from the occupancy index, shared through the read cache
+     */
+    public ParkingAvailability getParkingAvailability() {
+        return METRICS.time("getParkingAvailability",
+                () -> cached(PARKING_AVAILABILITY_KEY, this::loadParkingAvailability));
+    }
+
+    // The index refresh reads changed spots through idx_parking_last_updated and checks
+    // COUNT(*), so its newest last_updated and spot count fingerprint the table without a scan.
+    private ParkingAvailability loadParkingAvailability() {
+        ParkingOccupancyIndex index = getParkingOccupancy();
+        return new ParkingAvailability(index.getTotalCount(), index.getFreeCount(), index.getLastUpdatedMillis());
+    }
+
+    private static ParkingSpot mapParkingSpot(ResultSet rs) throws SQLException {
+        return new ParkingSpot(
+                rs.getString("spot_id"),
+                rs.getString("location_description"),
+                rs.getBoolean("is_occupied"),
+                rs.getTimestamp("last_updated")
+        );
+    }
+
     public String deleteOldJunctionStates() {
-        String deleteSql = String.format("DELETE FROM %s WHERE last_updated < CURDATE()", JUNCTION_TABLE_NAME);
-        int rowsDeleted = 0;
+        return METRICS.time("deleteOldJunctionStates", () -> {
+            RetentionEngine.Progress progress = RetentionEngine.getInstance()
+                    .run(JUNCTION_RETENTION_POLICY, LocalDate.now().atStartOfDay());
+            ServiceMetrics.recordRows(progress.getRowsDeleted());
 
-        try (Connection conn = getConnection();
-             PreparedStatement pstmtDelete = conn.prepareStatement(deleteSql)) {
+            if (progress.getError() != null) {
+                ServiceMetrics.recordError();
+                return "Error deleting old junction state data: " + progress.getError();
+            }
+            if (progress.isRunning()) {
+                return String.format("Junction state cleanup is already running (%d record(s) deleted so far).",
+                        progress.getRowsDeleted());
+            }
+            return String.format("Successfully deleted %d old junction state record(s) before today.",
+                    progress.getRowsDeleted());
+        });
+    }
 
-            rowsDeleted = pstmtDelete.executeUpdate();
+    // --- Asynchronous variants (run on ServiceExecutor, never on the UI thread) ---
 
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return "Error deleting old junction state data: " + e.getMessage();
+    public CompletableFuture<Map<String, JunctionState>> getLatestJunctionStatesAsync() {
+        return ServiceExecutor.supply(this::getLatestJunctionStates);
+    }
+
+    public CompletableFuture<List<ParkingSpot>> getAllParkingSpotsAsync() {
+        return ServiceExecutor.supply(this::getAllParkingSpots);
+    }
+
+    public CompletableFuture<ParkingAvailability> getParkingAvailabilityAsync() {
+        return ServiceExecutor.supply(this::getParkingAvailability);
+    }
+
+    public CompletableFuture<ParkingOccupancyIndex> getParkingOccupancyAsync() {
+        return ServiceExecutor.supply(this::getParkingOccupancy);
+    }
+
+    public CompletableFuture<String> deleteOldJunctionStatesAsync() {
+        return ServiceExecutor.supply(this::deleteOldJunctionStates);
+    }
+
+    /**
+     * Spot counts for the parking header. Any insert, update or delete changes either the
+     * total or the newest {@code last_updated}, so two summaries are equal only when no spot
+     * changed in between (up to the second precision of the column).
+     */
+    public static final class ParkingAvailability {
+        private final int total;
+        private final int available;
+        private final long lastUpdatedMillis;
+
+        public ParkingAvailability(int total, int available, long lastUpdatedMillis) {
+            this.total = total;
+            this.available = available;
+            this.lastUpdatedMillis = lastUpdatedMillis;
+        }
+
+        public int getTotal() { return total; }
+        public int getAvailable() { return available; }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof ParkingAvailability)) return false;
+            ParkingAvailability that = (ParkingAvailability) o;
+            return total == that.total && available == that.available
+                    && lastUpdatedMillis == that.lastUpdatedMillis;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(total, available, lastUpdatedMillis);
         }
-        return String.format("Successfully deleted %d old junction state record(s) before today.", rowsDeleted);
     }
 }
\ No newline at end of file
@@ -0,0 +1,164 @@
+package com.example.model;
+
+import io.github.cdimascio.dotenv.Dotenv;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Size-bounded read-through cache whose entries expire a fixed time after they were loaded.
+ * <p>
+ * Concurrent callers asking for a key that is missing or expired share a single load: the
+ * first caller runs the loader and the others wait for its result, so a burst of viewers
+ * costs one database query per TTL window. Cached values are shared between sessions and
+ * must not be modified by callers.
+ * <p>
+ * Settings come from {@code <NAME>_CACHE_TTL_MS} and {@code <NAME>_CACHE_MAX_ENTRIES}, falling
+ * back to {@code CACHE_TTL_MS} (default 2000) and {@code CACHE_MAX_ENTRIES} (default 256).
+ * A TTL of 0 disables caching.
+ */
+public final class TtlCache<K, V> {
+
+    private static final List<TtlCache<?, ?>> configuredCaches = new CopyOnWriteArrayList<>();
+
+    private final String name;
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public TtlCache(String name, long ttlMillis, int maxEntries) {
+        this.name = name;
+        this.ttlMillis = ttlMillis;
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > TtlCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Creates a cache configured from the environment.
+     *
+     * @param name prefix of the configuration keys, e.g. {@code "TRAFFIC"}
+     */
+    public static <K, V> TtlCache<K, V> configured(String name) {
+        Dotenv dotenv = Dotenv.configure().ignoreIfMissing().load();
+        long ttl = Long.parseLong(dotenv.get(name + "_CACHE_TTL_MS", dotenv.get("CACHE_TTL_MS", "2000")));
+        int maxEntries = Integer.parseInt(dotenv.get(name + "_CACHE_MAX_ENTRIES", dotenv.get("CACHE_MAX_ENTRIES", "256")));
+        TtlCache<K, V> cache = new TtlCache<>(name, ttl, maxEntries);
+        configuredCaches.add(cache);
+        return cache;
+    }
+
+    /**
+     * @return every cache created by {@link #configured}, for metrics
+     */
+    public static List<TtlCache<?, ?>> getConfiguredCaches() {
+        return Collections.unmodifiableList(configuredCaches);
+    }
+
+    /**
+     * Returns the cached value for {@code key}, loading it with {@code loader} when it is
+     * missing or expired. A failed load is not cached.
+     */
+    public V get(K key, Supplier<V> loader) {
+        if (ttlMillis <= 0) {
+            misses.increment();
+            return loader.get();
+        }
+
+        Entry<V> entry;
+        boolean owner = false;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry == null || entry.isExpired()) {
+                entry = new Entry<>();
+                entries.put(key, entry);
+                owner = true;
+            }
+        }
+
+        if (!owner) {
+            hits.increment();
+            return await(entry);
+        }
+
+        misses.increment();
+        try {
+            V value = loader.get();
+            entry.expiresAt = System.currentTimeMillis() + ttlMillis;
+            entry.value.complete(value);
+            return value;
+        } catch (Throwable e) {
+            // Anything the loader throws, Errors included, must release the waiters and the key.
+            synchronized (this) {
+                entries.remove(key, entry);
+            }
+            entry.value.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Drops {@code key} so the next read goes to the database. Loads already in flight still
+     * complete for their waiting callers but are not kept.
+     */
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public synchronized void invalidateAll() {
+        entries.clear();
+    }
+
+    public String getName() { return name; }
+    public long getTtlMillis() { return ttlMillis; }
+    public long getHits() { return hits.sum(); }
+    public long getMisses() { return misses.sum(); }
+    public long getEvictions() { return evictions.sum(); }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private V await(Entry<V> entry) {
+        try {
+            return entry.value.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static final class Entry<V> {
+        private final CompletableFuture<V> value = new CompletableFuture<>();
+        // Stays at MAX_VALUE while the load is running so concurrent callers join it.
+        private volatile long expiresAt = Long.MAX_VALUE;
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+    }
+}
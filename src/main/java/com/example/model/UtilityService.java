@@ -1,7 +1,6 @@
 package com.example.model;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -9,8 +8,16 @@ import java.time.LocalDate;
 import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import io.github.cdimascio.dotenv.Dotenv;
 
@@ -18,32 +25,29 @@ import io.github.cdimascio.dotenv.Dotenv;
 public class UtilityService {
 
     private static final Dotenv dotenv;
-    private static final String DB_URL;
-    private static final String DB_USER;
-    private static final String DB_PASSWORD;
     private static final String TABLE_NAME;
+    private static final long STATS_INTERVAL_MS;
+    private static final long STATS_GAP_TIMEOUT_MS;
 
     static {
         try {
             dotenv = Dotenv.configure().ignoreIfMissing().load();
 
-            DB_URL = dotenv.get("DB_URL");
-            DB_USER = dotenv.get("DB_USER");
-            DB_PASSWORD = dotenv.get("DB_PASSWORD");
             TABLE_NAME = dotenv.get("DB_TABLE");
 
-            if (DB_URL == null || DB_USER == null || DB_PASSWORD == null || TABLE_NAME == null) {
-                   throw new RuntimeException("Error: One or more required environment variables (DB_URL, DB_USER, DB_PASSWORD, DB_TABLE) are missing. Check .env file or system environment.");
+            if (TABLE_NAME == null) {
+                   throw new RuntimeException("Error: Required environment variable DB_TABLE is missing. Check .env file or system environment.");
             }
 
-            Class.forName("com.mysql.cj.jdbc.Driver");
+            // power_stats refresh interval (0 folds on each report instead), and how long ids
+            // missing below the watermark are re-checked for late commits
+            STATS_INTERVAL_MS = Long.parseLong(dotenv.get("POWER_STATS_INTERVAL_MS", "60000"));
+            STATS_GAP_TIMEOUT_MS = Long.parseLong(dotenv.get("POWER_STATS_GAP_TIMEOUT_MS", "600000"));
 
         } catch (RuntimeException e) {
              System.err.println("Error during static initialization (potentially .env loading or validation): " + e.getMessage());
              e.printStackTrace();
              throw new RuntimeException("Error during static initialization.", e);
-        } catch (ClassNotFoundException e) {
-            throw new RuntimeException("Error: MySQL JDBC Driver not found.", e);
         } catch (Exception e) {
             System.err.println("Unexpected error during static initialization: " + e.getMessage());
             e.printStackTrace();
@@ -51,240 +55,472 @@ public class UtilityService {
         }
     }
 
+    // Fixed statements, built once so the pooled connection's statement cache can reuse them.
+    private static final String LATEST_READING_SQL = "SELECT id, reading_date, power_consumed, fault_detected FROM " + TABLE_NAME +
+                                                     " ORDER BY reading_date DESC, id DESC LIMIT 1";
+    private static final String LATEST_DATE_SQL = "SELECT MAX(reading_date) FROM " + TABLE_NAME;
+    private static final String POWER_RETENTION_POLICY = "power-readings";
+    private static final String RECENT_FAULTS_SQL = "SELECT id, reading_date, power_consumed, fault_detected FROM " + TABLE_NAME +
+                                                    " WHERE fault_detected = true AND reading_date >= ? ORDER BY reading_date DESC";
+    // power_stats is maintained incrementally in the background: readings above the watermark are
+    // added to the running monthly totals, so a report is a single-row read instead of a scan of the month.
+    private static final String STATS_WATERMARK_NAME = "power_stats";
+    private static final String CREATE_WATERMARKS_SQL = "CREATE TABLE IF NOT EXISTS stats_watermarks ("
+                     + "name VARCHAR(64) NOT NULL PRIMARY KEY, "
+                     + "last_id BIGINT NOT NULL, "
+                     + "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP)";
+    private static final String INSERT_WATERMARK_SQL = "INSERT IGNORE INTO stats_watermarks (name, last_id) VALUES (?, -1)";
+    private static final String WATERMARK_SQL = "SELECT last_id FROM stats_watermarks WHERE name = ?";
+    private static final String LOCK_WATERMARK_SQL = "SELECT last_id FROM stats_watermarks WHERE name = ? FOR UPDATE";
+    private static final String UPDATE_WATERMARK_SQL = "UPDATE stats_watermarks SET last_id = ? WHERE name = ?";
+    private static final String MAX_ID_SQL = "SELECT COALESCE(MAX(id), 0) FROM " + TABLE_NAME;
+    private static final String READINGS_IN_ID_RANGE_SQL = "SELECT id, DATE_FORMAT(reading_date, '%Y-%m'), power_consumed, fault_detected "
+                     + "FROM " + TABLE_NAME + " WHERE id > ? AND id <= ?";
+    private static final String MONTHLY_TOTALS_SELECT = "SELECT DATE_FORMAT(reading_date, '%Y-%m'), SUM(power_consumed), "
+                     + "SUM(CASE WHEN fault_detected THEN 1 ELSE 0 END), COUNT(*), AVG(power_consumed), NOW() "
+                     + "FROM " + TABLE_NAME + " WHERE id > ? AND id <= ? "
+                     + "GROUP BY DATE_FORMAT(reading_date, '%Y-%m')";
+    private static final String REBUILD_MONTHLY_STATS_SQL = "INSERT INTO power_stats (`year_month`, `total_consumption`, `fault_count`, `days_recorded`, `average_consumption`, `last_updated`) "
+                     + MONTHLY_TOTALS_SELECT + " "
+                     + "ON DUPLICATE KEY UPDATE "
+                     + "`total_consumption` = VALUES(`total_consumption`), "
+                     + "`fault_count` = VALUES(`fault_count`), "
+                     + "`days_recorded` = VALUES(`days_recorded`), "
+                     + "`average_consumption` = VALUES(`average_consumption`), "
+                     + "`last_updated` = NOW()";
+    // Assignments run left to right, so the average sees the updated total and day count.
+    private static final String FOLD_MONTHLY_STATS_SQL = "INSERT INTO power_stats (`year_month`, `total_consumption`, `fault_count`, `days_recorded`, `average_consumption`, `last_updated`) "
+                     + "VALUES (?, ?, ?, ?, ?, NOW()) "
+                     + "ON DUPLICATE KEY UPDATE "
+                     + "`total_consumption` = `total_consumption` + VALUES(`total_consumption`), "
+                     + "`fault_count` = `fault_count` + VALUES(`fault_count`), "
+                     + "`days_recorded` = `days_recorded` + VALUES(`days_recorded`), "
+                     + "`average_consumption` = `total_consumption` / `days_recorded`, "
+                     + "`last_updated` = NOW()";
+    private static final String MONTHLY_STATS_SQL = "SELECT `total_consumption`, `fault_count`, `days_recorded`, `average_consumption` "
+                     + "FROM power_stats WHERE `year_month` = ?";
+
     private static UtilityService instance;
+    private static final ServiceMetrics METRICS = ServiceMetrics.forService("utility");
+
+    private volatile boolean watermarkTableVerified;
+    // Ids missing from a folded range, with the time they were noted; guarded by foldNewReadings
+    private final Map<Long, Long> pendingGaps = new HashMap<>();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
 
     private UtilityService() {
+        // On demand only unless RETENTION_POWER_READINGS_DAYS is set. Month cutoffs line up with
+        // the partitions, so the chunked DELETE only finds rows on an unpartitioned table.
+        RetentionEngine.getInstance().register(new RetentionEngine.Policy(
+                POWER_RETENTION_POLICY, TABLE_NAME, "id", "reading_date < ?", true,
+                RetentionEngine.keepDays(POWER_RETENTION_POLICY), null));
     }
 
     public static synchronized UtilityService getInstance() {
         if (instance == null) {
             instance = new UtilityService();
+            if (STATS_INTERVAL_MS > 0) {
+                ServiceExecutor.scheduleAtFixedRate(instance::refreshInBackground, 0, STATS_INTERVAL_MS);
+            }
         }
         return instance;
     }
 
+    private void refreshInBackground() {
+        if (refreshing.compareAndSet(false, true)) {
+            ServiceExecutor.get().execute(() -> {
+                try {
+                    refreshMonthlyStats();
+                } finally {
+                    refreshing.set(false);
+                }
+            });
+        }
+    }
+
     private Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
+        return ConnectionPool.getInstance().getConnection();
     }
 
     public Optional<PowerReading> getLatestReading() {
-        String sql = "SELECT id, reading_date, power_consumed, fault_detected FROM " + TABLE_NAME +
-                     " ORDER BY reading_date DESC, id DESC LIMIT 1";
+        return METRICS.time("getLatestReading", () -> {
+            try (Connection conn = getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(LATEST_READING_SQL);
+                 ResultSet rs = pstmt.executeQuery()) {
 
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql);
-             ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    int id = rs.getInt("id");
+                    LocalDate date = rs.getDate("reading_date").toLocalDate();
+                    double powerConsumed = rs.getDouble("power_consumed");
+                    boolean faultDetected = rs.getBoolean("fault_detected");
 
-            if (rs.next()) {
-                int id = rs.getInt("id");
-                LocalDate date = rs.getDate("reading_date").toLocalDate();
-                double powerConsumed = rs.getDouble("power_consumed");
-                boolean faultDetected = rs.getBoolean("fault_detected");
+                    PowerReading latestReading = new PowerReading(id, date, powerConsumed, faultDetected);
+                    return Optional.of(latestReading);
+                } else {
+                    return Optional.empty();
+                }
 
-                PowerReading latestReading = new PowerReading(id, date, powerConsumed, faultDetected);
-                return Optional.of(latestReading);
-            } else {
+            } catch (SQLException e) {
+                ServiceMetrics.recordError();
+                e.printStackTrace();
                 return Optional.empty();
             }
-
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return Optional.empty();
-        }
+        });
     }
 
     public String generateMonthlyReport(YearMonth month) {
-        LocalDate startDate = month.atDay(1);
-        LocalDate endDate = month.atEndOfMonth();
+        return METRICS.time("generateMonthlyReport", () -> {
+            String yearMonthStr = month.format(DateTimeFormatter.ofPattern("yyyy-MM"));
+
+            double totalConsumption;
+            long faultCount;
+            int daysRecorded;
+            double averageConsumption;
+
+            try (Connection conn = getConnection()) {
+                // Normally the scheduled refresh keeps power_stats current and this is a single-row read.
+                if (STATS_INTERVAL_MS <= 0) {
+                    foldNewReadings(conn);
+                }
 
-        String sql = "SELECT reading_date, power_consumed, fault_detected FROM " + TABLE_NAME +
-                     " WHERE reading_date BETWEEN ? AND ?";
+                try (PreparedStatement pstmt = conn.prepareStatement(MONTHLY_STATS_SQL)) {
+                    pstmt.setString(1, yearMonthStr);
+
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        if (!rs.next()) {
+                            return "No data available for " + month.format(DateTimeFormatter.ofPattern("MMMM yyyy")) + ".";
+                        }
+                        totalConsumption = rs.getDouble("total_consumption");
+                        faultCount = rs.getLong("fault_count");
+                        daysRecorded = rs.getInt("days_recorded");
+                        averageConsumption = rs.getDouble("average_consumption");
+                    }
+                }
 
-        double totalConsumption = 0;
-        long faultCount = 0;
-        int daysRecorded = 0;
+            } catch (SQLException e) {
+                ServiceMetrics.recordError();
+                e.printStackTrace();
+                return "Error generating report: Database query failed.";
+            }
 
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            if (daysRecorded == 0) {
+                return "No data available for " + month.format(DateTimeFormatter.ofPattern("MMMM yyyy")) + ".";
+            }
 
-            pstmt.setDate(1, java.sql.Date.valueOf(startDate));
-            pstmt.setDate(2, java.sql.Date.valueOf(endDate));
+            return String.format("Power Consumption Report for %s:\n" +
+                                 "--------------------------------------------------\n" +
+                                 "Total Days Recorded: %d\n" +
+                                 "Total Consumption: %.2f kWh\n" +
+                                 "Average Daily Consumption: %.2f kWh\n" +
+                                 "Total Fault Days: %d\n" +
+                                 "--------------------------------------------------",
+                                 month.format(DateTimeFormatter.ofPattern("MMMM yyyy")),
+                                 daysRecorded,
+                                 totalConsumption,
+                                 averageConsumption,
+                                 faultCount);
+        });
+    }
 
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    LocalDate date = rs.getDate("reading_date").toLocalDate();
-                    double powerConsumed = rs.getDouble("power_consumed");
-                    boolean faultDetected = rs.getBoolean("fault_detected");
+    /**
+     * Brings power_stats up to date with the readings inserted since the last call.
+     */
+    public void refreshMonthlyStats() {
+        METRICS.run("refreshMonthlyStats", () -> {
+            try (Connection conn = getConnection()) {
+                foldNewReadings(conn);
+            } catch (SQLException e) {
+                System.err.println("Error updating power_stats table: " + e.getMessage());
+                ServiceMetrics.recordError();
+                e.printStackTrace();
+            }
+        });
+    }
 
-                    totalConsumption += powerConsumed;
-                    if (faultDetected) {
-                        faultCount++;
+    /**
+     * Folds the readings with an id above the stored watermark into the running power_stats
+     * totals and advances the watermark, all in one transaction. The watermark row is locked
+     * FOR UPDATE, so concurrent callers (including other app nodes) never fold a reading twice.
+     * When there is nothing new the watermark is only read, without a lock or a transaction.
+     * The first run computes every month.
+     * <p>
+     * Readings can commit out of id order (concurrent writers, a second node), so ids missing
+     * from a folded range are remembered and re-checked on later runs until they show up or
+     * are older than POWER_STATS_GAP_TIMEOUT_MS (an insert that rolled back leaves a permanent
+     * gap). Gaps are kept by the node that folded the range. Months keep their totals after
+     * old readings are deleted.
+     */
+    private synchronized void foldNewReadings(Connection conn) throws SQLException {
+        ensureWatermarkTable(conn);
+
+        long now = System.currentTimeMillis();
+        pendingGaps.values().removeIf(notedAt -> now - notedAt > STATS_GAP_TIMEOUT_MS);
+        if (pendingGaps.isEmpty() && readMaxId(conn) <= readWatermark(conn, WATERMARK_SQL)) {
+            return;
+        }
+
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            try (PreparedStatement pstmt = conn.prepareStatement(INSERT_WATERMARK_SQL)) {
+                pstmt.setString(1, STATS_WATERMARK_NAME);
+                pstmt.executeUpdate();
+            }
+            long watermark = readWatermark(conn, LOCK_WATERMARK_SQL);
+            long maxId = readMaxId(conn);
+
+            List<Long> foundGaps = new ArrayList<>();
+            List<Long> newGaps = new ArrayList<>();
+            if (watermark < 0) {
+                try (PreparedStatement pstmt = conn.prepareStatement(REBUILD_MONTHLY_STATS_SQL)) {
+                    pstmt.setLong(1, 0);
+                    pstmt.setLong(2, maxId);
+                    pstmt.executeUpdate();
+                }
+            } else {
+                Map<String, double[]> deltas = new TreeMap<>();
+                if (!pendingGaps.isEmpty()) {
+                    long low = Collections.min(pendingGaps.keySet());
+                    long high = Collections.max(pendingGaps.keySet());
+                    readReadings(conn, low - 1, high, (id, month, power, fault) -> {
+                        if (pendingGaps.containsKey(id)) {
+                            foundGaps.add(id);
+                            addDelta(deltas, month, power, fault);
+                        }
+                    });
+                }
+                if (maxId > watermark) {
+                    Set<Long> seen = new HashSet<>();
+                    readReadings(conn, watermark, maxId, (id, month, power, fault) -> {
+                        seen.add(id);
+                        addDelta(deltas, month, power, fault);
+                    });
+                    for (long id = watermark + 1; id <= maxId; id++) {
+                        if (!seen.contains(id)) {
+                            newGaps.add(id);
+                        }
+                    }
+                }
+                if (!deltas.isEmpty()) {
+                    try (PreparedStatement pstmt = conn.prepareStatement(FOLD_MONTHLY_STATS_SQL)) {
+                        for (Map.Entry<String, double[]> delta : deltas.entrySet()) {
+                            double[] totals = delta.getValue();
+                            pstmt.setString(1, delta.getKey());
+                            pstmt.setDouble(2, totals[0]);
+                            pstmt.setLong(3, (long) totals[1]);
+                            pstmt.setLong(4, (long) totals[2]);
+                            pstmt.setDouble(5, totals[0] / totals[2]);
+                            pstmt.addBatch();
+                        }
+                        pstmt.executeBatch();
                     }
-                    daysRecorded++;
+                }
+            }
+            if (maxId > watermark) {
+                try (PreparedStatement pstmt = conn.prepareStatement(UPDATE_WATERMARK_SQL)) {
+                    pstmt.setLong(1, maxId);
+                    pstmt.setString(2, STATS_WATERMARK_NAME);
+                    pstmt.executeUpdate();
                 }
             }
 
+            conn.commit();
+            foundGaps.forEach(pendingGaps::remove);
+            newGaps.forEach(id -> pendingGaps.put(id, now));
         } catch (SQLException e) {
-            e.printStackTrace();
-            return "Error generating report: Database query failed.";
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
         }
+    }
 
-        if (daysRecorded == 0) {
-            return "No data available for " + month.format(DateTimeFormatter.ofPattern("MMMM yyyy")) + ".";
+    private static long readWatermark(Connection conn, String sql) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, STATS_WATERMARK_NAME);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : -1;
+            }
         }
-
-        double averageConsumption = totalConsumption / daysRecorded;
-
-        upsertMonthlyStats(month, totalConsumption, faultCount, daysRecorded, averageConsumption);
-
-
-        return String.format("Power Consumption Report for %s:\n" +
-                             "--------------------------------------------------\n" +
-                             "Total Days Recorded: %d\n" +
-                             "Total Consumption: %.2f kWh\n" +
-                             "Average Daily Consumption: %.2f kWh\n" +
-                             "Total Fault Days: %d\n" +
-                             "--------------------------------------------------",
-                             month.format(DateTimeFormatter.ofPattern("MMMM yyyy")),
-                             daysRecorded,
-                             totalConsumption,
-                             averageConsumption,
-                             faultCount);
     }
 
-    private void upsertMonthlyStats(YearMonth month, double totalConsumption, long faultCount, int daysRecorded, double averageConsumption) {
-        String yearMonthStr = month.format(DateTimeFormatter.ofPattern("yyyy-MM"));
-        String upsertSql = "INSERT INTO power_stats (`year_month`, `total_consumption`, `fault_count`, `days_recorded`, `average_consumption`, `last_updated`) "
-                     + "VALUES (?, ?, ?, ?, ?, NOW()) "
-                     + "ON DUPLICATE KEY UPDATE "
-                     + "`total_consumption` = VALUES(`total_consumption`), "
-                     + "`fault_count` = VALUES(`fault_count`), "
-                     + "`days_recorded` = VALUES(`days_recorded`), "
-                     + "`average_consumption` = VALUES(`average_consumption`), "
-                     + "`last_updated` = NOW();";
-
+    private static long readMaxId(Connection conn) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(MAX_ID_SQL);
+             ResultSet rs = pstmt.executeQuery()) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
 
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(upsertSql)) {
+    @FunctionalInterface
+    private interface ReadingVisitor {
+        void visit(long id, String month, double powerConsumed, boolean faultDetected);
+    }
 
-            pstmt.setString(1, yearMonthStr);
-            pstmt.setDouble(2, totalConsumption);
-            pstmt.setLong(3, faultCount);
-            pstmt.setInt(4, daysRecorded);
-            pstmt.setDouble(5, averageConsumption);
+    private static void readReadings(Connection conn, long fromId, long toId, ReadingVisitor visitor) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(READINGS_IN_ID_RANGE_SQL)) {
+            pstmt.setLong(1, fromId);
+            pstmt.setLong(2, toId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    visitor.visit(rs.getLong(1), rs.getString(2), rs.getDouble(3), rs.getBoolean(4));
+                }
+            }
+        }
+    }
 
-            int rowsAffected = pstmt.executeUpdate();
+    // Per month: total consumption, fault days, days recorded
+    private static void addDelta(Map<String, double[]> deltas, String month, double powerConsumed, boolean faultDetected) {
+        double[] totals = deltas.computeIfAbsent(month, key -> new double[3]);
+        totals[0] += powerConsumed;
+        totals[1] += faultDetected ? 1 : 0;
+        totals[2] += 1;
+    }
 
-        } catch (SQLException e) {
-            System.err.println("Error updating power_stats table for month " + yearMonthStr + ": " + e.getMessage());
-            e.printStackTrace();
+    private void ensureWatermarkTable(Connection conn) throws SQLException {
+        if (watermarkTableVerified) {
+            return;
         }
+        try (PreparedStatement pstmt = conn.prepareStatement(CREATE_WATERMARKS_SQL)) {
+            pstmt.executeUpdate();
+        }
+        watermarkTableVerified = true;
     }
 
     public String generateLatestMonthlyReport() {
-        String findLatestDateSql = "SELECT MAX(reading_date) FROM " + TABLE_NAME;
-        LocalDate latestDate = null;
-
-        try (Connection conn = getConnection();
-             PreparedStatement pstmtLatest = conn.prepareStatement(findLatestDateSql);
-             ResultSet rs = pstmtLatest.executeQuery()) {
-
-            if (rs.next()) {
-                java.sql.Date sqlDate = rs.getDate(1);
-                if (sqlDate != null) {
-                    latestDate = sqlDate.toLocalDate();
+        return METRICS.time("generateLatestMonthlyReport", () -> {
+            LocalDate latestDate = null;
+
+            try (Connection conn = getConnection();
+                 PreparedStatement pstmtLatest = conn.prepareStatement(LATEST_DATE_SQL);
+                 ResultSet rs = pstmtLatest.executeQuery()) {
+
+                if (rs.next()) {
+                    java.sql.Date sqlDate = rs.getDate(1);
+                    if (sqlDate != null) {
+                        latestDate = sqlDate.toLocalDate();
+                    } else {
+                        return "No data found in the table. Cannot generate report.";
+                    }
                 } else {
-                    return "No data found in the table. Cannot generate report.";
+                       return "No data found in the table. Cannot generate report.";
                 }
-            } else {
-                   return "No data found in the table. Cannot generate report.";
-            }
 
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return "Error finding the latest date for report generation: " + e.getMessage();
-        }
+            } catch (SQLException e) {
+                ServiceMetrics.recordError();
+                e.printStackTrace();
+                return "Error finding the latest date for report generation: " + e.getMessage();
+            }
 
-        YearMonth latestMonth = YearMonth.from(latestDate);
+            YearMonth latestMonth = YearMonth.from(latestDate);
 
-        return generateMonthlyReport(latestMonth);
+            return generateMonthlyReport(latestMonth);
+        });
     }
 
     public String deleteReadingsBeforeLatestMonth() {
-        String findLatestDateSql = "SELECT MAX(reading_date) FROM " + TABLE_NAME;
-        LocalDate latestDate = null;
-
-        try (Connection conn = getConnection();
-             PreparedStatement pstmtLatest = conn.prepareStatement(findLatestDateSql);
-             ResultSet rs = pstmtLatest.executeQuery()) {
-
-            if (rs.next()) {
-                java.sql.Date sqlDate = rs.getDate(1);
-                if (sqlDate != null) {
-                    latestDate = sqlDate.toLocalDate();
+        return METRICS.time("deleteReadingsBeforeLatestMonth", () -> {
+            LocalDate latestDate = null;
+
+            try (Connection conn = getConnection();
+                 PreparedStatement pstmtLatest = conn.prepareStatement(LATEST_DATE_SQL);
+                 ResultSet rs = pstmtLatest.executeQuery()) {
+
+                if (rs.next()) {
+                    java.sql.Date sqlDate = rs.getDate(1);
+                    if (sqlDate != null) {
+                        latestDate = sqlDate.toLocalDate();
+                    } else {
+                        return "No data found in the table. Nothing to delete.";
+                    }
                 } else {
                     return "No data found in the table. Nothing to delete.";
                 }
-            } else {
-                return "No data found in the table. Nothing to delete.";
-            }
 
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return "Error finding the latest date for deletion: " + e.getMessage();
-        }
+            } catch (SQLException e) {
+                ServiceMetrics.recordError();
+                e.printStackTrace();
+                return "Error finding the latest date for deletion: " + e.getMessage();
+            }
 
-        LocalDate deleteBeforeDate = YearMonth.from(latestDate).atDay(1);
+            LocalDate deleteBeforeDate = YearMonth.from(latestDate).atDay(1);
 
-        if (latestDate.equals(deleteBeforeDate)) {
-             return "Latest data is from the first day of the month. No older data to delete before this month.";
-        }
+            if (latestDate.equals(deleteBeforeDate)) {
+                 return "Latest data is from the first day of the month. No older data to delete before this month.";
+            }
 
-        String deleteSql = "DELETE FROM " + TABLE_NAME + " WHERE reading_date < ?";
-        int rowsDeleted = 0;
+            RetentionEngine.Progress progress = RetentionEngine.getInstance()
+                    .run(POWER_RETENTION_POLICY, deleteBeforeDate.atStartOfDay());
+            long rowsDeleted = progress.getRowsDeleted();
+            int partitionsDropped = progress.getPartitionsDropped();
+            ServiceMetrics.recordRows(rowsDeleted);
 
-        try (Connection conn = getConnection();
-             PreparedStatement pstmtDelete = conn.prepareStatement(deleteSql)) {
+            if (progress.getError() != null) {
+                ServiceMetrics.recordError();
+                return "Error deleting old data: " + progress.getError();
+            }
+            if (progress.isRunning()) {
+                return String.format("Deletion of old readings is already running (%d reading(s) so far).", rowsDeleted);
+            }
 
-            pstmtDelete.setDate(1, java.sql.Date.valueOf(deleteBeforeDate));
+            if (partitionsDropped > 0) {
+                return String.format("Successfully dropped %d monthly partition(s) (about %d reading(s)) before %s.",
+                                     partitionsDropped, rowsDeleted,
+                                     deleteBeforeDate.format(DateTimeFormatter.ISO_DATE));
+            }
+            return String.format("Successfully deleted %d reading(s) before %s.",
+                                 rowsDeleted,
+                                 deleteBeforeDate.format(DateTimeFormatter.ISO_DATE));
+        });
+    }
 
-            rowsDeleted = pstmtDelete.executeUpdate();
+    public List<PowerReading> findRecentFaults(int days) {
+        return METRICS.time("findRecentFaults", () -> {
+            List<PowerReading> faultReadings = new ArrayList<>();
+            LocalDate sinceDate = LocalDate.now().minusDays(days);
+
+            try (Connection conn = getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(RECENT_FAULTS_SQL)) {
+
+                pstmt.setDate(1, java.sql.Date.valueOf(sinceDate));
+
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        faultReadings.add(new PowerReading(
+                               rs.getInt("id"),
+                               rs.getDate("reading_date").toLocalDate(),
+                               rs.getDouble("power_consumed"),
+                               rs.getBoolean("fault_detected")
+                        ));
+                    }
+                }
+            } catch (SQLException e) {
+                ServiceMetrics.recordError();
+                e.printStackTrace();
+            }
+            return faultReadings;
+        });
+    }
 
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return "Error deleting old data: " + e.getMessage();
-        }
+    // --- Asynchronous variants (run on ServiceExecutor, never on the UI thread) ---
 
-        return String.format("Successfully deleted %d reading(s) before %s.",
-                             rowsDeleted,
-                             deleteBeforeDate.format(DateTimeFormatter.ISO_DATE));
+    public CompletableFuture<Optional<PowerReading>> getLatestReadingAsync() {
+        return ServiceExecutor.supply(this::getLatestReading);
     }
 
-    public List<PowerReading> findRecentFaults(int days) {
-        List<PowerReading> faultReadings = new ArrayList<>();
-        LocalDate sinceDate = LocalDate.now().minusDays(days);
-        String sql = "SELECT id, reading_date, power_consumed, fault_detected FROM " + TABLE_NAME +
-                     " WHERE fault_detected = true AND reading_date >= ? ORDER BY reading_date DESC";
-
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    public CompletableFuture<String> generateMonthlyReportAsync(YearMonth month) {
+        return ServiceExecutor.supply(() -> generateMonthlyReport(month));
+    }
 
-            pstmt.setDate(1, java.sql.Date.valueOf(sinceDate));
+    public CompletableFuture<String> generateLatestMonthlyReportAsync() {
+        return ServiceExecutor.supply(this::generateLatestMonthlyReport);
+    }
 
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    faultReadings.add(new PowerReading(
-                           rs.getInt("id"),
-                           rs.getDate("reading_date").toLocalDate(),
-                           rs.getDouble("power_consumed"),
-                           rs.getBoolean("fault_detected")
-                    ));
-                }
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return faultReadings;
+    public CompletableFuture<String> deleteReadingsBeforeLatestMonthAsync() {
+        return ServiceExecutor.supply(this::deleteReadingsBeforeLatestMonth);
     }
 
+    public CompletableFuture<List<PowerReading>> findRecentFaultsAsync(int days) {
+        return ServiceExecutor.supply(() -> findRecentFaults(days));
+    }
 }
\ No newline at end of file